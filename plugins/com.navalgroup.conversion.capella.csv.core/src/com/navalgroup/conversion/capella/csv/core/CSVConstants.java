@@ -70,9 +70,14 @@ public final class CSVConstants {
 			{ WINDOWS, WINDOWS }, { UNIX, UNIX } };
 
 	public static final String CSV_EXT = ".csv";
+	public static final String GZIP_EXT = ".gz";
+	public static final String CSV_GZIP_EXT = CSV_EXT + GZIP_EXT;
 	public static final String BEFORE_SUFFIX = "_before";
 	public static final String BEFORE_CSV = BEFORE_SUFFIX + CSV_EXT;
 	public static final String AFTER_FOLDER = "after";
+	public static final String DELTA_FOLDER = "delta";
+	public static final String STAGING_FOLDER = ".staging";
+	public static final String EXPORT_ARCHIVE = "export.zip";
 
 	// CHECKSTYLE:ON
 	private CSVConstants() {
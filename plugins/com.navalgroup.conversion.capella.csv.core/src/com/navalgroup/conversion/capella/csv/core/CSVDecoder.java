@@ -0,0 +1,558 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.csv.CSVFormat;
+
+/**
+ * Reads CSV records in the dialect of the conversion, as written by
+ * {@link CSVEncoder}: a field delimiter, an optional text delimiter (doubled
+ * inside a value) and cells equal to the null string of the format read as
+ * <code>null</code>.
+ * <p>
+ * The decoder reads the records one by one into reused buffers. The cells of
+ * the current record are only turned into strings when they are requested, so
+ * that a record can be checked and skipped without allocating anything. The
+ * records are the same as the ones of a {@link org.apache.commons.csv.CSVParser}
+ * with the same format.
+ * </p>
+ */
+public class CSVDecoder implements Closeable {
+
+	/**
+	 * The size of the character buffer.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The end of the input.
+	 */
+	private static final int END_OF_FILE = -1;
+
+	/**
+	 * No character read yet.
+	 */
+	private static final int UNDEFINED = -2;
+
+	/**
+	 * The carriage return character.
+	 */
+	private static final char CR = '\r';
+
+	/**
+	 * The line feed character.
+	 */
+	private static final char LF = '\n';
+
+	/**
+	 * The underlying reader.
+	 */
+	private final Reader reader;
+
+	/**
+	 * The field delimiter.
+	 */
+	private final char delimiter;
+
+	/**
+	 * The text delimiter, used if {@link #quoted}.
+	 */
+	private final char quote;
+
+	/**
+	 * If the values may be enclosed in text delimiters.
+	 */
+	private final boolean quoted;
+
+	/**
+	 * The string read as <code>null</code>, may be <code>null</code>.
+	 */
+	private final String nullString;
+
+	/**
+	 * If the empty lines are skipped.
+	 */
+	private final boolean ignoreEmptyLines;
+
+	/**
+	 * The characters read and not consumed yet.
+	 */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/**
+	 * The position of the next character in the buffer.
+	 */
+	private int position;
+
+	/**
+	 * The number of characters in the buffer.
+	 */
+	private int limit;
+
+	/**
+	 * The last character read.
+	 */
+	private int lastChar = UNDEFINED;
+
+	/**
+	 * The number of line breaks read.
+	 */
+	private long lineBreaks;
+
+	/**
+	 * The characters of the cells of the current record, without text
+	 * delimiters.
+	 */
+	private char[] cellChars = new char[BUFFER_SIZE];
+
+	/**
+	 * The end of each cell of the current record in {@link #cellChars}, a cell
+	 * starting at the end of the previous one.
+	 */
+	private int[] cellEnds = new int[64];
+
+	/**
+	 * The number of cells of the current record.
+	 */
+	private int size;
+
+	/**
+	 * The number of records read, header excluded.
+	 */
+	private long recordNumber;
+
+	/**
+	 * The line of the start of the current record.
+	 */
+	private long recordLineNumber;
+
+	/**
+	 * The names of the columns, in the order of the header.
+	 */
+	private List<String> headerNames = Collections.emptyList();
+
+	/**
+	 * The index of each column, by name.
+	 */
+	private Map<String, Integer> columns = Collections.emptyMap();
+
+	/**
+	 * Constructor. The header of the file is read immediately if the format says
+	 * the first record is the header.
+	 * 
+	 * @param reader
+	 *            the underlying reader, closed with the decoder.
+	 * @param format
+	 *            the format of the records.
+	 * @throws IOException
+	 *             if the header cannot be read.
+	 * @throws IllegalArgumentException
+	 *             if the format is not supported: an escape character,
+	 *             comments or trimmed values; or if a header name is missing
+	 *             while the format does not allow it.
+	 */
+	public CSVDecoder(Reader reader, CSVFormat format) throws IOException {
+		if (format.isEscapeCharacterSet() || format.isCommentMarkerSet() || format.getTrim()
+				|| format.getIgnoreSurroundingSpaces() || format.getIgnoreHeaderCase()) {
+			throw new IllegalArgumentException("Unsupported CSV format: " + format); //$NON-NLS-1$
+		}
+		this.reader = reader;
+		this.delimiter = format.getDelimiter();
+		this.quoted = format.isQuoteCharacterSet();
+		this.quote = this.quoted ? format.getQuoteCharacter().charValue() : 0;
+		this.nullString = format.getNullString();
+		this.ignoreEmptyLines = format.getIgnoreEmptyLines();
+		String[] header = format.getHeader();
+		if (header != null) {
+			if (header.length == 0) {
+				if (nextRecord()) {
+					header = new String[this.size];
+					for (int i = 0; i < this.size; i++) {
+						header[i] = get(i);
+					}
+				}
+			} else if (format.getSkipHeaderRecord()) {
+				nextRecord();
+			}
+			setHeader(header, format.getAllowMissingColumnNames());
+			this.recordNumber = 0;
+		}
+	}
+
+	private void setHeader(String[] header, boolean allowMissingColumnNames) {
+		this.headerNames = new ArrayList<>(header.length);
+		this.columns = new HashMap<>();
+		for (int i = 0; i < header.length; i++) {
+			// Same check and message as CSVParser
+			if (!allowMissingColumnNames && (header[i] == null || header[i].trim().isEmpty())) {
+				throw new IllegalArgumentException(
+						"A header name is missing in " + Arrays.toString(header)); //$NON-NLS-1$
+			}
+			if (header[i] != null) {
+				// The last column of a name is the one of its values
+				if (this.columns.put(header[i], Integer.valueOf(i)) == null) {
+					this.headerNames.add(header[i]);
+				}
+			}
+		}
+		this.headerNames = Collections.unmodifiableList(this.headerNames);
+	}
+
+	/**
+	 * Get the names of the columns, in the order of the header. A name is only
+	 * listed once, even if several columns have this name.
+	 * 
+	 * @return the names of the columns.
+	 */
+	public List<String> getHeaderNames() {
+		return this.headerNames;
+	}
+
+	/**
+	 * Get the index of a column.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return the index of the column, or <code>-1</code> if the header has no
+	 *         such column.
+	 */
+	public int getColumn(String name) {
+		Integer column = this.columns.get(name);
+		if (column == null) {
+			return -1;
+		}
+		return column.intValue();
+	}
+
+	/**
+	 * Read the next record.
+	 * 
+	 * @return <code>false</code> if there is no more record.
+	 * @throws IOException
+	 *             if the next record cannot be read or is malformed.
+	 */
+	public boolean nextRecord() throws IOException {
+		this.size = 0;
+		int previous = this.lastChar;
+		long startLine = this.lineBreaks + 1;
+		int c = read();
+		if (this.ignoreEmptyLines) {
+			while (isStartOfLine(previous) && isEndOfLine(c)) {
+				previous = this.lastChar;
+				startLine = this.lineBreaks + 1;
+				c = read();
+			}
+		}
+		if (c == END_OF_FILE) {
+			return false;
+		}
+		this.recordLineNumber = startLine;
+		while (readCell(c)) {
+			c = read();
+		}
+		this.recordNumber++;
+		return true;
+	}
+
+	/**
+	 * Read a cell of the current record.
+	 * 
+	 * @param first
+	 *            the first character of the cell.
+	 * @return <code>true</code> if the cell is followed by another cell of the
+	 *         record.
+	 * @throws IOException
+	 *             if the cell cannot be read or is malformed.
+	 */
+	private boolean readCell(int first) throws IOException {
+		int start = this.size == 0 ? 0 : this.cellEnds[this.size - 1];
+		int end = start;
+		boolean next;
+		if (this.quoted && first == this.quote) {
+			long startLine = this.lineBreaks + 1;
+			next = false;
+			boolean closed = false;
+			while (!closed) {
+				int c = read();
+				if (c == this.quote) {
+					if (peek() == this.quote) {
+						read();
+						end = appendChar(end, this.quote);
+					} else {
+						closed = true;
+						next = readAfterQuote();
+					}
+				} else if (c == END_OF_FILE) {
+					throw new IOException("(startline " + startLine //$NON-NLS-1$
+							+ ") EOF reached before encapsulated token finished"); //$NON-NLS-1$
+				} else {
+					end = appendChar(end, (char) c);
+				}
+			}
+		} else {
+			int c = first;
+			while (c != END_OF_FILE && c != this.delimiter && !isEndOfLine(c)) {
+				end = appendChar(end, (char) c);
+				// Copy the rest of the value in the buffer at once
+				int runEnd = this.position;
+				while (runEnd < this.limit) {
+					char runChar = this.buffer[runEnd];
+					if (runChar == this.delimiter || runChar == CR || runChar == LF) {
+						break;
+					}
+					runEnd++;
+				}
+				if (runEnd > this.position) {
+					end = appendChars(end, this.position, runEnd);
+					this.lastChar = this.buffer[runEnd - 1];
+					this.position = runEnd;
+				}
+				c = read();
+			}
+			next = c == this.delimiter;
+		}
+		if (this.size == this.cellEnds.length) {
+			this.cellEnds = Arrays.copyOf(this.cellEnds, this.size * 2);
+		}
+		this.cellEnds[this.size++] = end;
+		return next;
+	}
+
+	private boolean readAfterQuote() throws IOException {
+		while (true) {
+			int c = read();
+			if (c == this.delimiter) {
+				return true;
+			} else if (c == END_OF_FILE || isEndOfLine(c)) {
+				return false;
+			} else if (!Character.isWhitespace((char) c)) {
+				throw new IOException("(line " + (this.lineBreaks + 1) //$NON-NLS-1$
+						+ ") invalid char between encapsulated token and delimiter"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private int appendChar(int end, char c) {
+		if (end == this.cellChars.length) {
+			this.cellChars = Arrays.copyOf(this.cellChars, end * 2);
+		}
+		this.cellChars[end] = c;
+		return end + 1;
+	}
+
+	private int appendChars(int end, int from, int to) {
+		int newEnd = end + to - from;
+		if (newEnd > this.cellChars.length) {
+			this.cellChars = Arrays.copyOf(this.cellChars, Math.max(newEnd, this.cellChars.length * 2));
+		}
+		System.arraycopy(this.buffer, from, this.cellChars, end, to - from);
+		return newEnd;
+	}
+
+	private boolean isStartOfLine(int c) {
+		return c == LF || c == CR || c == UNDEFINED;
+	}
+
+	/**
+	 * Check if the given character ends a line, consuming the line feed of a
+	 * carriage return and line feed pair.
+	 * 
+	 * @param c
+	 *            the character just read.
+	 * @return <code>true</code> if the character ends a line.
+	 * @throws IOException
+	 *             if the next character cannot be read.
+	 */
+	private boolean isEndOfLine(int c) throws IOException {
+		if (c == CR && peek() == LF) {
+			read();
+			return true;
+		}
+		return c == LF || c == CR;
+	}
+
+	private int read() throws IOException {
+		if (this.position == this.limit && !fill()) {
+			this.lastChar = END_OF_FILE;
+			return END_OF_FILE;
+		}
+		char c = this.buffer[this.position++];
+		if (c == CR || (c == LF && this.lastChar != CR)) {
+			this.lineBreaks++;
+		}
+		this.lastChar = c;
+		return c;
+	}
+
+	private int peek() throws IOException {
+		if (this.position == this.limit && !fill()) {
+			return END_OF_FILE;
+		}
+		return this.buffer[this.position];
+	}
+
+	private boolean fill() throws IOException {
+		int read = this.reader.read(this.buffer, 0, this.buffer.length);
+		while (read == 0) {
+			read = this.reader.read(this.buffer, 0, this.buffer.length);
+		}
+		this.position = 0;
+		this.limit = Math.max(read, 0);
+		return read > 0;
+	}
+
+	/**
+	 * Get the number of the current record, the header excluded.
+	 * 
+	 * @return the number of the record, starting at 1.
+	 */
+	public long getRecordNumber() {
+		return this.recordNumber;
+	}
+
+	/**
+	 * Get the line of the file where the current record starts, the header
+	 * included.
+	 * 
+	 * @return the number of the line, starting at 1.
+	 */
+	public long getLineNumber() {
+		return this.recordLineNumber;
+	}
+
+	/**
+	 * Get the number of cells of the current record.
+	 * 
+	 * @return the number of cells.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Get a cell of the current record.
+	 * 
+	 * @param column
+	 *            the index of the cell.
+	 * @return the value of the cell, <code>null</code> if it is the null string.
+	 */
+	public String get(int column) {
+		if (column >= this.size) {
+			throw new IndexOutOfBoundsException(String.valueOf(column));
+		}
+		if (isNull(column)) {
+			return null;
+		}
+		int start = getStart(column);
+		return new String(this.cellChars, start, this.cellEnds[column] - start);
+	}
+
+	/**
+	 * Get a cell of the current record.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return the value of the cell, <code>null</code> if it is the null string.
+	 * @throws IllegalArgumentException
+	 *             if there is no such column, or if the record is too short.
+	 */
+	public String get(String name) {
+		return get(getCheckedColumn(name));
+	}
+
+	/**
+	 * Check if a cell of the current record is empty, without reading its value.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return <code>true</code> if the cell is <code>null</code> or empty.
+	 * @throws IllegalArgumentException
+	 *             if there is no such column, or if the record is too short.
+	 */
+	public boolean isEmpty(String name) {
+		int column = getCheckedColumn(name);
+		return getStart(column) == this.cellEnds[column] || isNull(column);
+	}
+
+	/**
+	 * Compare a cell of the current record with a value, ignoring case, without
+	 * reading its value.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @param value
+	 *            the value.
+	 * @return <code>true</code> if the cell is not <code>null</code> and equals
+	 *         the value.
+	 * @throws IllegalArgumentException
+	 *             if there is no such column, or if the record is too short.
+	 */
+	public boolean equalsIgnoreCase(String name, String value) {
+		int column = getCheckedColumn(name);
+		return !isNull(column) && regionMatches(column, value, true);
+	}
+
+	private int getCheckedColumn(String name) {
+		Integer column = this.columns.get(name);
+		if (column == null) {
+			throw new IllegalArgumentException(
+					String.format("Mapping for %s not found, expected one of %s", name, this.columns.keySet())); //$NON-NLS-1$
+		}
+		if (column.intValue() >= this.size) {
+			throw new IllegalArgumentException(
+					String.format("Index for header '%s' is %d but the record only has %d values!", name, column, //$NON-NLS-1$
+							Integer.valueOf(this.size)));
+		}
+		return column.intValue();
+	}
+
+	private int getStart(int column) {
+		if (column == 0) {
+			return 0;
+		}
+		return this.cellEnds[column - 1];
+	}
+
+	private boolean isNull(int column) {
+		return this.nullString != null && regionMatches(column, this.nullString, false);
+	}
+
+	private boolean regionMatches(int column, String value, boolean ignoreCase) {
+		int start = getStart(column);
+		int length = this.cellEnds[column] - start;
+		if (length != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			char c = this.cellChars[start + i];
+			char v = value.charAt(i);
+			if (c != v && (!ignoreCase || (Character.toUpperCase(c) != Character.toUpperCase(v)
+					&& Character.toLowerCase(c) != Character.toLowerCase(v)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.reader.close();
+	}
+}
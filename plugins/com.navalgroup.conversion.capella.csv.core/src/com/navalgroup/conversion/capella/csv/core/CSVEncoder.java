@@ -0,0 +1,204 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.core;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.QuoteMode;
+
+/**
+ * Writes CSV records in the dialect of the conversion: a field delimiter, an
+ * optional text delimiter, <code>null</code> values printed as the null string
+ * of the format and every other value enclosed in text delimiters
+ * ({@link QuoteMode#ALL_NON_NULL}), the text delimiters of the value being
+ * doubled. Without text delimiter, the values are written as is.
+ * <p>
+ * The output is the same as a {@link org.apache.commons.csv.CSVPrinter} with
+ * the same format, but each value is written to the underlying writer in as
+ * few calls as possible, without intermediate strings. The encoder has no
+ * buffer of its own, the underlying writer is expected to be buffered (see
+ * {@link CSVFiles#newWriter(java.io.File, java.nio.charset.Charset, boolean)}).
+ * </p>
+ */
+public class CSVEncoder implements Closeable, Flushable {
+
+	/**
+	 * The underlying writer.
+	 */
+	private final Writer writer;
+
+	/**
+	 * The field delimiter.
+	 */
+	private final char delimiter;
+
+	/**
+	 * The text delimiter, used if {@link #quoted}.
+	 */
+	private final char quote;
+
+	/**
+	 * If the values are enclosed in text delimiters.
+	 */
+	private final boolean quoted;
+
+	/**
+	 * The string printed for <code>null</code> values.
+	 */
+	private final String nullString;
+
+	/**
+	 * The record separator, may be <code>null</code>.
+	 */
+	private final String recordSeparator;
+
+	/**
+	 * If the next value is the first of its record.
+	 */
+	private boolean newRecord = true;
+
+	/**
+	 * Constructor. The header of the format, if any and not skipped, is printed
+	 * immediately.
+	 * 
+	 * @param writer
+	 *            the underlying writer, closed with the encoder.
+	 * @param format
+	 *            the format of the records.
+	 * @throws IOException
+	 *             if the header cannot be printed.
+	 * @throws IllegalArgumentException
+	 *             if the format is not supported: another quote mode than
+	 *             {@link QuoteMode#ALL_NON_NULL}, an escape character, comments
+	 *             or trimmed values.
+	 */
+	public CSVEncoder(Writer writer, CSVFormat format) throws IOException {
+		if (format.getQuoteMode() != QuoteMode.ALL_NON_NULL || format.isEscapeCharacterSet()
+				|| format.isCommentMarkerSet() || format.getTrim() || format.getTrailingDelimiter()) {
+			throw new IllegalArgumentException("Unsupported CSV format: " + format); //$NON-NLS-1$
+		}
+		this.writer = writer;
+		this.delimiter = format.getDelimiter();
+		this.quoted = format.isQuoteCharacterSet();
+		this.quote = this.quoted ? format.getQuoteCharacter().charValue() : 0;
+		this.nullString = format.getNullString() == null ? "" : format.getNullString(); //$NON-NLS-1$
+		this.recordSeparator = format.getRecordSeparator();
+		if (format.getHeader() != null && !format.getSkipHeaderRecord()) {
+			printRecord((Object[]) format.getHeader());
+		}
+	}
+
+	/**
+	 * Print a value in the current record.
+	 * 
+	 * @param value
+	 *            the value, may be <code>null</code>.
+	 * @throws IOException
+	 *             if the value cannot be written.
+	 */
+	public void print(Object value) throws IOException {
+		if (this.newRecord) {
+			this.newRecord = false;
+		} else {
+			append(this.delimiter);
+		}
+		if (value == null) {
+			append(this.nullString, 0, this.nullString.length());
+		} else {
+			String text = value.toString();
+			if (this.quoted) {
+				appendQuoted(text);
+			} else {
+				append(text, 0, text.length());
+			}
+		}
+	}
+
+	/**
+	 * End the current record.
+	 * 
+	 * @throws IOException
+	 *             if the record separator cannot be written.
+	 */
+	public void println() throws IOException {
+		if (this.recordSeparator != null) {
+			append(this.recordSeparator, 0, this.recordSeparator.length());
+		}
+		this.newRecord = true;
+	}
+
+	/**
+	 * Print a whole record.
+	 * 
+	 * @param values
+	 *            the values of the record.
+	 * @throws IOException
+	 *             if the record cannot be written.
+	 */
+	public void printRecord(Iterable<?> values) throws IOException {
+		for (Object value : values) {
+			print(value);
+		}
+		println();
+	}
+
+	/**
+	 * Print a whole record.
+	 * 
+	 * @param values
+	 *            the values of the record.
+	 * @throws IOException
+	 *             if the record cannot be written.
+	 */
+	public void printRecord(Object... values) throws IOException {
+		for (Object value : values) {
+			print(value);
+		}
+		println();
+	}
+
+	private void appendQuoted(String text) throws IOException {
+		append(this.quote);
+		int start = 0;
+		int quoteIndex = text.indexOf(this.quote);
+		while (quoteIndex >= 0) {
+			// The text delimiter is written twice
+			append(text, start, quoteIndex + 1);
+			start = quoteIndex;
+			quoteIndex = text.indexOf(this.quote, quoteIndex + 1);
+		}
+		append(text, start, text.length());
+		append(this.quote);
+	}
+
+	private void append(char c) throws IOException {
+		this.writer.write(c);
+	}
+
+	private void append(String text, int start, int end) throws IOException {
+		if (start < end) {
+			this.writer.write(text, start, end - start);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.writer.close();
+	}
+}
@@ -0,0 +1,221 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.core;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Access to the CSV files of a conversion directory, plain (<code>.csv</code>)
+ * or compressed with GZIP (<code>.csv.gz</code>). The compression is given by
+ * the name of the file, and compressed files are read and written as streams,
+ * without any decompressed copy.
+ * <p>
+ * Appending to a compressed file adds a new GZIP member to it: the members of
+ * a file are read back as a single stream.
+ * </p>
+ * <p>
+ * The CSV files of an export may also be stored as the entries of a single ZIP
+ * archive ({@link CSVConstants#EXPORT_ARCHIVE}), at the root of the archive.
+ * </p>
+ */
+public final class CSVFiles {
+
+	/**
+	 * The size of the buffer of a CSV file.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private CSVFiles() {
+	}
+
+	/**
+	 * Get the extension of the exported CSV files.
+	 * 
+	 * @param compressed
+	 *            if the files are compressed.
+	 * @return the extension, including the leading dot.
+	 */
+	public static String getExtension(boolean compressed) {
+		if (compressed) {
+			return CSVConstants.CSV_GZIP_EXT;
+		}
+		return CSVConstants.CSV_EXT;
+	}
+
+	/**
+	 * Check if the given file name is the name of a CSV file, compressed or not.
+	 * The copies of a previous export (<code>_before</code>) are excluded.
+	 * 
+	 * @param fileName
+	 *            the name of the file.
+	 * @return <code>true</code> if the file is a CSV file.
+	 */
+	public static boolean isCSVFile(String fileName) {
+		String typeName = getTypeName(fileName);
+		return typeName != null && !typeName.endsWith(CSVConstants.BEFORE_SUFFIX);
+	}
+
+	/**
+	 * Check if the given file is compressed.
+	 * 
+	 * @param csvFile
+	 *            the CSV file.
+	 * @return <code>true</code> if the file is compressed.
+	 */
+	public static boolean isCompressed(File csvFile) {
+		return csvFile.getName().endsWith(CSVConstants.GZIP_EXT);
+	}
+
+	/**
+	 * Get the name of a CSV file without its extension: the package and the
+	 * name of the type of its elements.
+	 * 
+	 * @param fileName
+	 *            the name of the file.
+	 * @return the name without extension, or <code>null</code> if the file is
+	 *         not a CSV file.
+	 */
+	public static String getTypeName(String fileName) {
+		if (fileName.endsWith(CSVConstants.CSV_EXT)) {
+			return fileName.substring(0, fileName.length() - CSVConstants.CSV_EXT.length());
+		}
+		if (fileName.endsWith(CSVConstants.CSV_GZIP_EXT)) {
+			return fileName.substring(0, fileName.length() - CSVConstants.CSV_GZIP_EXT.length());
+		}
+		return null;
+	}
+
+	/**
+	 * Open a CSV file for reading, decompressing it if needed.
+	 * 
+	 * @param csvFile
+	 *            the CSV file.
+	 * @param characterSet
+	 *            the character set of the file.
+	 * @return the reader of the file.
+	 * @throws IOException
+	 *             if the file cannot be opened.
+	 */
+	public static Reader newReader(File csvFile, Charset characterSet) throws IOException {
+		InputStream input = new FileInputStream(csvFile);
+		try {
+			if (isCompressed(csvFile)) {
+				input = new GZIPInputStream(input, BUFFER_SIZE);
+			}
+		} catch (IOException e) {
+			input.close();
+			throw e;
+		}
+		return new BufferedReader(new InputStreamReader(input, characterSet), BUFFER_SIZE);
+	}
+
+	/**
+	 * Open a CSV file stored in a ZIP archive for reading, decompressing it if
+	 * needed. The entry is read from the archive as a stream.
+	 * 
+	 * @param archive
+	 *            the archive.
+	 * @param entry
+	 *            the entry of the CSV file.
+	 * @param characterSet
+	 *            the character set of the file.
+	 * @return the reader of the file.
+	 * @throws IOException
+	 *             if the entry cannot be read.
+	 */
+	public static Reader newReader(ZipFile archive, ZipEntry entry, Charset characterSet) throws IOException {
+		InputStream input = archive.getInputStream(entry);
+		try {
+			if (entry.getName().endsWith(CSVConstants.GZIP_EXT)) {
+				input = new GZIPInputStream(input, BUFFER_SIZE);
+			}
+		} catch (IOException e) {
+			input.close();
+			throw e;
+		}
+		return new BufferedReader(new InputStreamReader(input, characterSet), BUFFER_SIZE);
+	}
+
+	/**
+	 * Check if the given entry of a ZIP archive is a CSV file of an export, at
+	 * the root of the archive.
+	 * 
+	 * @param entry
+	 *            the entry.
+	 * @return <code>true</code> if the entry is a CSV file.
+	 */
+	public static boolean isCSVEntry(ZipEntry entry) {
+		String name = entry.getName();
+		return !entry.isDirectory() && name.indexOf('/') < 0 && name.indexOf('\\') < 0 && isCSVFile(name);
+	}
+
+	/**
+	 * Open a CSV file for writing, compressing it if needed.
+	 * 
+	 * @param csvFile
+	 *            the CSV file.
+	 * @param characterSet
+	 *            the character set of the file.
+	 * @param append
+	 *            <code>true</code> to write at the end of the file.
+	 * @return the writer of the file.
+	 * @throws IOException
+	 *             if the file cannot be opened.
+	 */
+	public static Writer newWriter(File csvFile, Charset characterSet, boolean append) throws IOException {
+		return newWriter(csvFile, characterSet, append, BUFFER_SIZE);
+	}
+
+	/**
+	 * Open a CSV file for writing with a buffer of the given size, compressing
+	 * it if needed.
+	 * 
+	 * @param csvFile
+	 *            the CSV file.
+	 * @param characterSet
+	 *            the character set of the file.
+	 * @param append
+	 *            <code>true</code> to write at the end of the file.
+	 * @param bufferSize
+	 *            the size of the buffer of the file.
+	 * @return the writer of the file.
+	 * @throws IOException
+	 *             if the file cannot be opened.
+	 */
+	public static Writer newWriter(File csvFile, Charset characterSet, boolean append, int bufferSize)
+			throws IOException {
+		OutputStream output = new FileOutputStream(csvFile, append);
+		try {
+			if (isCompressed(csvFile)) {
+				output = new GZIPOutputStream(output, bufferSize);
+			}
+		} catch (IOException e) {
+			output.close();
+			throw e;
+		}
+		return new BufferedWriter(new OutputStreamWriter(output, characterSet), bufferSize);
+	}
+}
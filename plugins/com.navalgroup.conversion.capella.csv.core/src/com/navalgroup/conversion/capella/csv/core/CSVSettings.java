@@ -10,6 +10,11 @@
 package com.navalgroup.conversion.capella.csv.core;
 
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.navalgroup.conversion.capella.csv.core.jobs.ConversionOptions;
 
 public class CSVSettings {
 	/**
@@ -84,6 +89,23 @@ public class CSVSettings {
 	 */
 	public static final String ID_COLUMN = "id";
 
+	/**
+	 * The columns at the beginning of every CSV file, before the columns of the
+	 * model element features.
+	 */
+	// @formatter:off
+	public static final List<String> MANAGEMENT_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+			TO_CREATE_COLUMN,
+			CREATION_DATE_COLUMN,
+			CREATION_TIME_COLUMN,
+			TO_UPDATE_COLUMN,
+			LAST_UPDATE_DATE_COLUMN,
+			LAST_UPDATE_TIME_COLUMN,
+			TO_DELETE_COLUMN,
+			DELETION_DATE_COLUMN,
+			DELETION_TIME_COLUMN));
+	// @formatter:on
+
 	/**
 	 * conversionDirectoryPath.
 	 */
@@ -104,6 +126,38 @@ public class CSVSettings {
 	 * lineSeparator.
 	 */
 	private String lineSeparator;
+	/**
+	 * mappedBeforeExportIndex.
+	 */
+	private boolean mappedBeforeExportIndex = ConversionOptions.getMappedBeforeExportIndexOption();
+	/**
+	 * exportParallelism.
+	 */
+	private int exportParallelism = ConversionOptions.getExportParallelismOption();
+	/**
+	 * incrementalExport.
+	 */
+	private boolean incrementalExport = ConversionOptions.getIncrementalExportOption();
+	/**
+	 * deltaExport.
+	 */
+	private boolean deltaExport = ConversionOptions.getDeltaExportOption();
+	/**
+	 * compressedFiles.
+	 */
+	private boolean compressedFiles = ConversionOptions.getCompressedFilesOption();
+	/**
+	 * archiveExport.
+	 */
+	private boolean archiveExport = ConversionOptions.getArchiveExportOption();
+	/**
+	 * relevantConceptsCacheSize.
+	 */
+	private int relevantConceptsCacheSize = ConversionOptions.getRelevantConceptsCacheSizeOption();
+	/**
+	 * relevantConceptsParallelism.
+	 */
+	private int relevantConceptsParallelism = ConversionOptions.getRelevantConceptsParallelismOption();
 
 	/**
 	 * Constructor.
@@ -167,4 +221,68 @@ public class CSVSettings {
 	public void setLineSeparator(String lineSeparator) {
 		this.lineSeparator = lineSeparator;
 	}
+
+	public boolean isMappedBeforeExportIndex() {
+		return this.mappedBeforeExportIndex;
+	}
+
+	public void setMappedBeforeExportIndex(boolean mappedBeforeExportIndex) {
+		this.mappedBeforeExportIndex = mappedBeforeExportIndex;
+	}
+
+	public int getExportParallelism() {
+		return this.exportParallelism;
+	}
+
+	public void setExportParallelism(int exportParallelism) {
+		this.exportParallelism = exportParallelism;
+	}
+
+	public boolean isIncrementalExport() {
+		return this.incrementalExport;
+	}
+
+	public void setIncrementalExport(boolean incrementalExport) {
+		this.incrementalExport = incrementalExport;
+	}
+
+	public boolean isDeltaExport() {
+		return this.deltaExport;
+	}
+
+	public void setDeltaExport(boolean deltaExport) {
+		this.deltaExport = deltaExport;
+	}
+
+	public boolean isCompressedFiles() {
+		return this.compressedFiles;
+	}
+
+	public void setCompressedFiles(boolean compressedFiles) {
+		this.compressedFiles = compressedFiles;
+	}
+
+	public boolean isArchiveExport() {
+		return this.archiveExport;
+	}
+
+	public void setArchiveExport(boolean archiveExport) {
+		this.archiveExport = archiveExport;
+	}
+
+	public int getRelevantConceptsCacheSize() {
+		return this.relevantConceptsCacheSize;
+	}
+
+	public void setRelevantConceptsCacheSize(int relevantConceptsCacheSize) {
+		this.relevantConceptsCacheSize = relevantConceptsCacheSize;
+	}
+
+	public int getRelevantConceptsParallelism() {
+		return this.relevantConceptsParallelism;
+	}
+
+	public void setRelevantConceptsParallelism(int relevantConceptsParallelism) {
+		this.relevantConceptsParallelism = relevantConceptsParallelism;
+	}
 }
@@ -0,0 +1,130 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+
+/**
+ * Depth-first, pre-order traversal of a containment tree. The traversal keeps
+ * its own stack of sibling iterators instead of recursing, so the depth of the
+ * tree is not limited by the size of the thread stack.
+ */
+public final class ContainmentTraversal {
+
+	private ContainmentTraversal() {
+	}
+
+	/**
+	 * Visit the given element and its content, depth-first, each element before
+	 * its children.
+	 * 
+	 * @param <X>
+	 *            the exception thrown by the visitor.
+	 * @param root
+	 *            the first element to visit.
+	 * @param childrenProvider
+	 *            the children of an element, in visiting order.
+	 * @param visitor
+	 *            the visitor.
+	 * @throws X
+	 *             if the visitor fails, the traversal is then stopped.
+	 */
+	public static <X extends Exception> void traverse(EObject root,
+			Function<EObject, ? extends List<EObject>> childrenProvider, Visitor<X> visitor) throws X {
+		Deque<Iterator<EObject>> stack = new ArrayDeque<>();
+		stack.push(Collections.singletonList(root).iterator());
+		while (!stack.isEmpty()) {
+			Iterator<EObject> siblings = stack.peek();
+			if (!siblings.hasNext()) {
+				stack.pop();
+				continue;
+			}
+			EObject object = siblings.next();
+			if (visitor.visit(object)) {
+				List<EObject> children = childrenProvider.apply(object);
+				if (!children.isEmpty()) {
+					visitor.visitSiblings(object, children);
+					stack.push(children.iterator());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the children of an element exported to CSV: the values of its
+	 * containment references, in column order.
+	 * 
+	 * @param object
+	 *            EObject
+	 * @return the children of the element.
+	 */
+	public static List<EObject> getExportedChildren(EObject object) {
+		List<EObject> children = new ArrayList<>();
+		for (EReference containmentReference : FeaturePlan.of(object.eClass()).getContainmentReferences()) {
+			Object value = object.eGet(containmentReference);
+			if (value instanceof EObject) {
+				children.add((EObject) value);
+			} else if (value instanceof Collection<?>) {
+				for (Object valueItem : (Collection<?>) value) {
+					if (valueItem instanceof EObject) {
+						children.add((EObject) valueItem);
+					}
+				}
+			}
+		}
+		return children;
+	}
+
+	/**
+	 * A visitor of a containment tree.
+	 * 
+	 * @param <X>
+	 *            the exception thrown by the visitor.
+	 */
+	@FunctionalInterface
+	public interface Visitor<X extends Exception> {
+
+		/**
+		 * Visit an element.
+		 * 
+		 * @param object
+		 *            the element.
+		 * @return <code>false</code> to skip the content of the element.
+		 * @throws X
+		 *             to stop the traversal.
+		 */
+		boolean visit(EObject object) throws X;
+
+		/**
+		 * Called with all children of an element before the first of them is
+		 * visited, to prepare the visit of a whole batch of siblings.
+		 * 
+		 * @param parent
+		 *            the parent of the siblings.
+		 * @param siblings
+		 *            the children of the parent, in visiting order.
+		 * @throws X
+		 *             to stop the traversal.
+		 */
+		default void visitSiblings(EObject parent, List<EObject> siblings) throws X {
+			// Nothing by default
+		}
+	}
+}
@@ -9,35 +9,21 @@
  ******************************************************************************/
 package com.navalgroup.conversion.capella.csv.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
 import java.util.regex.Pattern;
 
-import org.eclipse.emf.common.util.EList;
-import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
-import org.eclipse.emf.ecore.EClassifier;
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.EPackage;
-import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.sirius.business.api.session.Session;
 import org.eclipse.sirius.ecore.extender.business.api.accessor.exception.MetaClassNotFoundException;
-import org.polarsys.capella.common.ui.toolkit.browser.category.CategoryRegistry;
 import org.polarsys.capella.common.ui.toolkit.browser.category.ICategory;
-import org.polarsys.capella.common.ui.toolkit.browser.content.provider.IBrowserContentProvider;
-import org.polarsys.capella.core.data.capellacore.Structure;
-import org.polarsys.capella.core.data.capellamodeller.Project;
-import org.polarsys.capella.core.data.capellamodeller.SystemEngineering;
-import org.polarsys.capella.core.data.cs.BlockArchitecture;
 
 /**
  * Utility methods to navigate through EMF models.
@@ -63,14 +49,7 @@ public final class ConversionUtil {
 		if (object == null) {
 			return Collections.emptyMap();
 		}
-		Map<String, Object> map = new HashMap<>();
-		EList<EAttribute> eAllAttributes = object.eClass().getEAllAttributes();
-		for (EAttribute eAttribute : eAllAttributes) {
-			if (!eAttribute.isDerived() && !eAttribute.isVolatile()) {
-				map.put(eAttribute.getName(), object.eGet(eAttribute));
-			}
-		}
-		return map;
+		return toMap(object, FeaturePlan.of(object.eClass()).getAttributes());
 	}
 
 	/**
@@ -86,14 +65,7 @@ public final class ConversionUtil {
 		if (eClass == null) {
 			return Collections.emptySet();
 		}
-		Collection<String> set = new HashSet<>();
-		EList<EAttribute> eAllAttributes = eClass.getEAllAttributes();
-		for (EAttribute eAttribute : eAllAttributes) {
-			if (!eAttribute.isDerived() && !eAttribute.isVolatile()) {
-				set.add(eAttribute.getName());
-			}
-		}
-		return set;
+		return new ArrayList<>(FeaturePlan.of(eClass).getAttributeNames());
 	}
 
 	/**
@@ -109,14 +81,7 @@ public final class ConversionUtil {
 		if (object == null) {
 			return Collections.emptyMap();
 		}
-		Map<String, Object> map = new HashMap<>();
-		EList<EReference> eAllReferences = object.eClass().getEAllReferences();
-		for (EReference eReference : eAllReferences) {
-			if (!eReference.isContainment() && !eReference.isDerived() && !eReference.isVolatile()) {
-				map.put(eReference.getName(), object.eGet(eReference));
-			}
-		}
-		return map;
+		return toMap(object, FeaturePlan.of(object.eClass()).getNonContainmentReferences());
 	}
 
 	/**
@@ -133,17 +98,14 @@ public final class ConversionUtil {
 		}
 		Map<String, Object> map = new LinkedHashMap<>();
 
-		Set<ICategory> categories = CategoryRegistry.getInstance()
-				.gatherCategories(IBrowserContentProvider.ID_REFERENCED_CP, object);
-
-		// sort categories to always have the same outputs.
-		TreeSet<ICategory> sortedCategories = new TreeSet<ICategory>(Comparator.comparing(ICategory::getCategoryId));
-		sortedCategories.addAll(categories);
-
-		sortedCategories.forEach(category -> {
+		// The categories are sorted to always have the same outputs
+		RelevancePlan plan = RelevancePlan.of(object);
+		List<ICategory> sortedCategories = plan.getCategories(object);
+		List<String> categoryNames = plan.getCategoryNames(object);
+		for (int i = 0; i < sortedCategories.size(); i++) {
 			try {
-				List<Object> compute = category.compute(object);
-				map.put(getCategoryName(category), compute);
+				List<Object> compute = sortedCategories.get(i).compute(object);
+				map.put(categoryNames.get(i), compute);
 				// CHECKSTYLE:OFF
 			} catch (Exception e) {
 				// Sometimes, category.compute failed, catch exception to continue the
@@ -152,7 +114,7 @@ public final class ConversionUtil {
 				// computing: " + e.getMessage());
 			}
 			// CHECKSTYLE:ON
-		});
+		}
 		return map;
 	}
 
@@ -163,7 +125,7 @@ public final class ConversionUtil {
 	 * @return
 	 */
 	public static String getCategoryName(ICategory category) {
-		return category.getName().trim().replaceAll("[^a-zA-Z]", " ").replaceAll("\\s+", "_");
+		return RelevancePlan.getCategoryName(category);
 	}
 
 	/**
@@ -174,7 +136,7 @@ public final class ConversionUtil {
 	 * @return if object is package instance.
 	 */
 	public static boolean isPackage(EObject object) {
-		return object instanceof Structure && object.getClass().getName().contains("Pkg");
+		return RelevancePlan.of(object).isPackage();
 	}
 
 	/**
@@ -186,11 +148,8 @@ public final class ConversionUtil {
 	 *            EObject
 	 * @return if object is relevant for conversion.
 	 */
-	// CHECKSTYLE:OFF
 	public static boolean isRelevantElement(EObject object) {
-		return object instanceof Project || object instanceof SystemEngineering || object instanceof BlockArchitecture
-				|| (object instanceof Structure && object.getClass().getName().contains("Pkg"));
-		// CHECKSTYLE:ON
+		return RelevancePlan.of(object).isRelevant();
 	}
 
 	/**
@@ -206,14 +165,7 @@ public final class ConversionUtil {
 		if (eClass == null) {
 			return Collections.emptySet();
 		}
-		Collection<String> set = new HashSet<>();
-		EList<EReference> eAllReferences = eClass.getEAllReferences();
-		for (EReference eReference : eAllReferences) {
-			if (!eReference.isContainment() && !eReference.isDerived() && !eReference.isVolatile()) {
-				set.add(eReference.getName());
-			}
-		}
-		return set;
+		return new ArrayList<>(FeaturePlan.of(eClass).getNonContainmentReferenceNames());
 	}
 
 	/**
@@ -229,12 +181,13 @@ public final class ConversionUtil {
 		if (object == null) {
 			return Collections.emptyMap();
 		}
-		Map<String, Object> map = new HashMap<>();
-		EList<EReference> eAllReferences = object.eClass().getEAllContainments();
-		for (EReference eReference : eAllReferences) {
-			if (!eReference.isDerived() && !eReference.isDerived() && !eReference.isVolatile()) {
-				map.put(eReference.getName(), object.eGet(eReference));
-			}
+		return toMap(object, FeaturePlan.of(object.eClass()).getContainmentReferences());
+	}
+
+	private static Map<String, Object> toMap(EObject object, List<? extends EStructuralFeature> features) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		for (EStructuralFeature feature : features) {
+			map.put(feature.getName(), object.eGet(feature));
 		}
 		return map;
 	}
@@ -252,14 +205,7 @@ public final class ConversionUtil {
 		if (eClass == null) {
 			return Collections.emptySet();
 		}
-		Collection<String> set = new HashSet<>();
-		EList<EReference> eAllReferences = eClass.getEAllContainments();
-		for (EReference eReference : eAllReferences) {
-			if (!eReference.isDerived() && !eReference.isDerived() && !eReference.isVolatile()) {
-				set.add(eReference.getName());
-			}
-		}
-		return set;
+		return new ArrayList<>(FeaturePlan.of(eClass).getContainmentReferenceNames());
 	}
 
 	/**
@@ -275,18 +221,9 @@ public final class ConversionUtil {
 		EObject newObject = null;
 		String[] packageAndClass = packageAndClassName.split("\\.");
 		if (packageAndClass != null && packageAndClass.length == 2) {
-			Collection<Object> ePackages = EPackage.Registry.INSTANCE.values();
-			for (Object ePackage : ePackages) {
-				if (ePackage instanceof EPackage) {
-					String ePackageName = ((EPackage) ePackage).getName();
-					if (ePackageName.equals(packageAndClass[0])) {
-						EClassifier eClassifier = ((EPackage) ePackage).getEClassifier(packageAndClass[1]);
-						if (eClassifier instanceof EClass) {
-							newObject = EcoreUtil.create((EClass) eClassifier);
-							break;
-						}
-					}
-				}
+			EClass eClass = EClassResolver.getEClass(packageAndClassName);
+			if (eClass != null) {
+				newObject = EcoreUtil.create(eClass);
 			}
 		}
 		try {
@@ -0,0 +1,82 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EPackage;
+
+/**
+ * The classes of the packages of the global {@link EPackage.Registry}, by name
+ * of their package and name of the class (<code>package.Class</code>, the name
+ * of a CSV file without its extension).
+ * <p>
+ * The index only holds the packages already loaded. It is built again from the
+ * registry when a name is not found, as a package may have been loaded since
+ * the last scan, or when the package of the class found is no longer
+ * registered. When several packages have the same name, the first package of
+ * the registry with a class of this name wins.
+ * </p>
+ */
+public final class EClassResolver {
+
+	/**
+	 * The indexed classes, by package and class name.
+	 */
+	private static volatile Map<String, EClass> classes = Collections.emptyMap();
+
+	private EClassResolver() {
+	}
+
+	/**
+	 * Get the class of the given name.
+	 * 
+	 * @param packageAndClassName
+	 *            the name of the package and of the class, separated by a dot.
+	 * @return the class, or <code>null</code> if no loaded package has such a
+	 *         class.
+	 */
+	public static EClass getEClass(String packageAndClassName) {
+		EClass eClass = classes.get(packageAndClassName);
+		if (eClass == null || !isRegistered(eClass.getEPackage())) {
+			scanRegistry();
+			eClass = classes.get(packageAndClassName);
+		}
+		return eClass;
+	}
+
+	private static boolean isRegistered(EPackage ePackage) {
+		return ePackage != null && ePackage.getNsURI() != null
+				&& EPackage.Registry.INSTANCE.get(ePackage.getNsURI()) == ePackage;
+	}
+
+	private static synchronized void scanRegistry() {
+		Map<String, EClass> scannedClasses = new HashMap<>();
+		// The descriptors of the packages not loaded yet are skipped, they are not loaded by the scan
+		List<Object> ePackages = new ArrayList<>(EPackage.Registry.INSTANCE.values());
+		for (Object ePackage : ePackages) {
+			if (ePackage instanceof EPackage) {
+				String ePackageName = ((EPackage) ePackage).getName();
+				for (EClassifier eClassifier : ((EPackage) ePackage).getEClassifiers()) {
+					if (eClassifier instanceof EClass) {
+						scannedClasses.putIfAbsent(ePackageName + '.' + eClassifier.getName(), (EClass) eClassifier);
+					}
+				}
+			}
+		}
+		classes = scannedClasses;
+	}
+}
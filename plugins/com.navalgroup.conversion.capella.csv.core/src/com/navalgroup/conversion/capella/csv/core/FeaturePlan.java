@@ -0,0 +1,258 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * The features of an {@link EClass} converted to CSV columns, computed once per
+ * class: the attributes, then the non-containment references, then the
+ * containment references. The derived and volatile features are excluded.
+ * <p>
+ * The columns of each group are in the order of
+ * {@link EClass#getEAllAttributes()}, {@link EClass#getEAllReferences()} or
+ * {@link EClass#getEAllContainments()}, a feature named as a previous one
+ * replacing it at its position. The importer reads the columns by header name,
+ * so the files of any column order can be imported.
+ * </p>
+ */
+public final class FeaturePlan {
+
+	/**
+	 * The computed plans, by class.
+	 */
+	private static final Map<EClass, FeaturePlan> PLANS = new ConcurrentHashMap<>();
+
+	/**
+	 * The attributes.
+	 */
+	private final List<EAttribute> attributes;
+
+	/**
+	 * The non-containment references.
+	 */
+	private final List<EReference> nonContainmentReferences;
+
+	/**
+	 * The containment references.
+	 */
+	private final List<EReference> containmentReferences;
+
+	/**
+	 * All features, in column order.
+	 */
+	private final EStructuralFeature[] features;
+
+	/**
+	 * The features by name.
+	 */
+	private final Map<String, EStructuralFeature> featuresByName;
+
+	/**
+	 * The names of the attributes.
+	 */
+	private final List<String> attributeNames;
+
+	/**
+	 * The names of the non-containment references.
+	 */
+	private final List<String> nonContainmentReferenceNames;
+
+	/**
+	 * The names of the containment references.
+	 */
+	private final List<String> containmentReferenceNames;
+
+	/**
+	 * The header row: the management columns followed by the feature columns.
+	 */
+	private final List<String> header;
+
+	/**
+	 * The class of this plan.
+	 */
+	private final EClass eClass;
+
+	private FeaturePlan(EClass eClass) {
+		this.eClass = eClass;
+		List<EAttribute> exportedAttributes = new ArrayList<>();
+		for (EAttribute eAttribute : eClass.getEAllAttributes()) {
+			if (!eAttribute.isDerived() && !eAttribute.isVolatile()) {
+				exportedAttributes.add(eAttribute);
+			}
+		}
+		List<EReference> exportedNonContainmentReferences = new ArrayList<>();
+		for (EReference eReference : eClass.getEAllReferences()) {
+			if (!eReference.isContainment() && !eReference.isDerived() && !eReference.isVolatile()) {
+				exportedNonContainmentReferences.add(eReference);
+			}
+		}
+		List<EReference> exportedContainmentReferences = new ArrayList<>();
+		for (EReference eReference : eClass.getEAllContainments()) {
+			if (!eReference.isDerived() && !eReference.isVolatile()) {
+				exportedContainmentReferences.add(eReference);
+			}
+		}
+		this.attributes = Collections.unmodifiableList(getColumns(exportedAttributes));
+		this.nonContainmentReferences = Collections.unmodifiableList(getColumns(exportedNonContainmentReferences));
+		this.containmentReferences = Collections.unmodifiableList(getColumns(exportedContainmentReferences));
+		this.attributeNames = Collections.unmodifiableList(getNames(this.attributes));
+		this.nonContainmentReferenceNames = Collections.unmodifiableList(getNames(this.nonContainmentReferences));
+		this.containmentReferenceNames = Collections.unmodifiableList(getNames(this.containmentReferences));
+
+		List<EStructuralFeature> allFeatures = new ArrayList<>();
+		allFeatures.addAll(this.attributes);
+		allFeatures.addAll(this.nonContainmentReferences);
+		allFeatures.addAll(this.containmentReferences);
+		this.features = allFeatures.toArray(new EStructuralFeature[allFeatures.size()]);
+		this.featuresByName = new HashMap<>();
+		for (EStructuralFeature feature : this.features) {
+			this.featuresByName.put(feature.getName(), feature);
+		}
+
+		List<String> headerRecord = new ArrayList<>(CSVSettings.MANAGEMENT_COLUMNS);
+		headerRecord.addAll(this.attributeNames);
+		headerRecord.addAll(this.nonContainmentReferenceNames);
+		headerRecord.addAll(this.containmentReferenceNames);
+		this.header = Collections.unmodifiableList(headerRecord);
+	}
+
+	/**
+	 * Get the columns of a group of features, a feature named as a previous one
+	 * replacing it at its position.
+	 * 
+	 * @param <F>
+	 *            the type of the features.
+	 * @param features
+	 *            the features of the group, in the order of the class.
+	 * @return the features in column order.
+	 */
+	private static <F extends EStructuralFeature> List<F> getColumns(List<F> features) {
+		// A feature named as a previous one replaces it
+		Map<String, Integer> positions = new HashMap<>();
+		List<F> columns = new ArrayList<>();
+		for (F feature : features) {
+			Integer position = positions.putIfAbsent(feature.getName(), Integer.valueOf(columns.size()));
+			if (position == null) {
+				columns.add(feature);
+			} else {
+				columns.set(position.intValue(), feature);
+			}
+		}
+		return columns;
+	}
+
+	private static List<String> getNames(List<? extends EStructuralFeature> features) {
+		List<String> names = new ArrayList<>(features.size());
+		for (EStructuralFeature feature : features) {
+			names.add(feature.getName());
+		}
+		return names;
+	}
+
+	/**
+	 * Get the plan of the given class, computing it the first time.
+	 * 
+	 * @param eClass
+	 *            the class.
+	 * @return the plan of the class.
+	 */
+	public static FeaturePlan of(EClass eClass) {
+		return PLANS.computeIfAbsent(eClass, FeaturePlan::new);
+	}
+
+	/**
+	 * Read the values of all features of the given object, in column order.
+	 * 
+	 * @param object
+	 *            an instance of the class of this plan.
+	 * @param buffer
+	 *            the array to fill, reused if it is large enough.
+	 * @return the filled array, which may be larger than the number of features.
+	 */
+	public Object[] getValues(EObject object, Object[] buffer) {
+		Object[] values = buffer;
+		if (values == null || values.length < this.features.length) {
+			values = new Object[this.features.length];
+		}
+		for (int i = 0; i < this.features.length; i++) {
+			values[i] = object.eGet(this.features[i]);
+		}
+		return values;
+	}
+
+	/**
+	 * Get a feature of the class by name. The derived and volatile features are
+	 * also found.
+	 * 
+	 * @param name
+	 *            the name of the feature.
+	 * @return the feature, or <code>null</code> if the class has no such feature.
+	 */
+	public EStructuralFeature getFeature(String name) {
+		EStructuralFeature feature = this.featuresByName.get(name);
+		if (feature == null) {
+			feature = this.eClass.getEStructuralFeature(name);
+		}
+		return feature;
+	}
+
+	public EClass getEClass() {
+		return this.eClass;
+	}
+
+	public List<EAttribute> getAttributes() {
+		return this.attributes;
+	}
+
+	public List<EReference> getNonContainmentReferences() {
+		return this.nonContainmentReferences;
+	}
+
+	public List<EReference> getContainmentReferences() {
+		return this.containmentReferences;
+	}
+
+	public List<EStructuralFeature> getFeatures() {
+		return Collections.unmodifiableList(Arrays.asList(this.features));
+	}
+
+	public int getFeatureCount() {
+		return this.features.length;
+	}
+
+	public List<String> getAttributeNames() {
+		return this.attributeNames;
+	}
+
+	public List<String> getNonContainmentReferenceNames() {
+		return this.nonContainmentReferenceNames;
+	}
+
+	public List<String> getContainmentReferenceNames() {
+		return this.containmentReferenceNames;
+	}
+
+	public List<String> getHeader() {
+		return this.header;
+	}
+}
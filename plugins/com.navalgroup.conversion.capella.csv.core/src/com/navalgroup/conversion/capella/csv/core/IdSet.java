@@ -0,0 +1,290 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.core;
+
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A set of element identifiers. The identifiers of Capella elements, lowercase
+ * UUIDs, are stored as two <code>long</code> values in open-addressing arrays
+ * instead of {@link String} instances in hash map nodes. The other identifiers
+ * are stored in a {@link HashSet}.
+ * <p>
+ * The identifiers cannot be removed from the set, except by clearing it. The
+ * set is not thread-safe.
+ * </p>
+ */
+public class IdSet extends AbstractSet<String> {
+
+	/**
+	 * The length of a UUID.
+	 */
+	private static final int UUID_LENGTH = 36;
+
+	/**
+	 * The initial number of slots, a power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * The hexadecimal digits of a UUID.
+	 */
+	private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * The most significant bits of the UUIDs, by slot.
+	 */
+	private long[] highs = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The least significant bits of the UUIDs, by slot. An empty slot has both
+	 * values zero.
+	 */
+	private long[] lows = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The number of UUIDs stored in the slots.
+	 */
+	private int uuidCount;
+
+	/**
+	 * If the nil UUID, which cannot be stored in a slot, is in the set.
+	 */
+	private boolean containsNil;
+
+	/**
+	 * The identifiers that are not lowercase UUIDs.
+	 */
+	private final Set<String> otherIds = new HashSet<>();
+
+	@Override
+	public boolean add(String id) {
+		if (!isUUID(id)) {
+			return this.otherIds.add(id);
+		}
+		long high = getHigh(id);
+		long low = getLow(id);
+		if (high == 0 && low == 0) {
+			boolean added = !this.containsNil;
+			this.containsNil = true;
+			return added;
+		}
+		int slot = findSlot(high, low);
+		if (this.highs[slot] != 0 || this.lows[slot] != 0) {
+			return false;
+		}
+		this.highs[slot] = high;
+		this.lows[slot] = low;
+		this.uuidCount++;
+		// Keep the slots at most three quarters full
+		if (this.uuidCount * 4L > this.highs.length * 3L) {
+			grow();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object id) {
+		if (!(id instanceof String) || !isUUID((String) id)) {
+			return this.otherIds.contains(id);
+		}
+		String uuid = (String) id;
+		long high = getHigh(uuid);
+		long low = getLow(uuid);
+		if (high == 0 && low == 0) {
+			return this.containsNil;
+		}
+		int slot = findSlot(high, low);
+		return this.highs[slot] != 0 || this.lows[slot] != 0;
+	}
+
+	@Override
+	public int size() {
+		int size = this.uuidCount + this.otherIds.size();
+		if (this.containsNil) {
+			size++;
+		}
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		this.highs = new long[INITIAL_CAPACITY];
+		this.lows = new long[INITIAL_CAPACITY];
+		this.uuidCount = 0;
+		this.containsNil = false;
+		this.otherIds.clear();
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return new IdIterator();
+	}
+
+	/**
+	 * Find the slot of a UUID, or the empty slot where it would be stored.
+	 * 
+	 * @param high
+	 *            the most significant bits of the UUID.
+	 * @param low
+	 *            the least significant bits of the UUID.
+	 * @return the slot.
+	 */
+	private int findSlot(long high, long low) {
+		int mask = this.highs.length - 1;
+		int slot = hash(high, low) & mask;
+		while ((this.highs[slot] != 0 || this.lows[slot] != 0)
+				&& (this.highs[slot] != high || this.lows[slot] != low)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void grow() {
+		long[] oldHighs = this.highs;
+		long[] oldLows = this.lows;
+		this.highs = new long[oldHighs.length * 2];
+		this.lows = new long[oldLows.length * 2];
+		for (int i = 0; i < oldHighs.length; i++) {
+			if (oldHighs[i] != 0 || oldLows[i] != 0) {
+				int slot = findSlot(oldHighs[i], oldLows[i]);
+				this.highs[slot] = oldHighs[i];
+				this.lows[slot] = oldLows[i];
+			}
+		}
+	}
+
+	private static int hash(long high, long low) {
+		// The version and variant bits of random UUIDs are constant, mix all bits
+		long h = high * 0x9E3779B97F4A7C15L + low;
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	/**
+	 * Check if the given identifier is a UUID written with lowercase hexadecimal
+	 * digits, the only form that is stored in the slots so that the identifiers
+	 * read back from the set are the ones that were added.
+	 * 
+	 * @param id
+	 *            the identifier, may be <code>null</code>.
+	 * @return <code>true</code> if the identifier is a lowercase UUID.
+	 */
+	private static boolean isUUID(String id) {
+		if (id == null || id.length() != UUID_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < UUID_LENGTH; i++) {
+			char c = id.charAt(i);
+			if (i == 8 || i == 13 || i == 18 || i == 23) {
+				if (c != '-') {
+					return false;
+				}
+			} else if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long getHigh(String uuid) {
+		return parseHex(uuid, parseHex(uuid, parseHex(uuid, 0, 0, 8), 9, 13), 14, 18);
+	}
+
+	private static long getLow(String uuid) {
+		return parseHex(uuid, parseHex(uuid, 0, 19, 23), 24, UUID_LENGTH);
+	}
+
+	private static long parseHex(String uuid, long value, int start, int end) {
+		long result = value;
+		for (int i = start; i < end; i++) {
+			result = (result << 4) | Character.digit(uuid.charAt(i), 16);
+		}
+		return result;
+	}
+
+	private static String toUUID(long high, long low) {
+		char[] chars = new char[UUID_LENGTH];
+		int position = UUID_LENGTH - 1;
+		long bits = low;
+		for (int i = 0; i < 16; i++) {
+			if (position == 23) {
+				chars[position--] = '-';
+			}
+			chars[position--] = DIGITS[(int) (bits & 0xF)];
+			bits >>>= 4;
+		}
+		chars[position--] = '-';
+		bits = high;
+		for (int i = 0; i < 16; i++) {
+			if (position == 13 || position == 8) {
+				chars[position--] = '-';
+			}
+			chars[position--] = DIGITS[(int) (bits & 0xF)];
+			bits >>>= 4;
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * The iterator of the set: the UUIDs of the slots, the nil UUID, then the
+	 * other identifiers.
+	 */
+	private class IdIterator implements Iterator<String> {
+
+		/**
+		 * The next slot to check.
+		 */
+		private int slot;
+
+		/**
+		 * If the nil UUID is still to be returned.
+		 */
+		private boolean nilPending = IdSet.this.containsNil;
+
+		/**
+		 * The iterator of the other identifiers.
+		 */
+		private final Iterator<String> otherIterator = IdSet.this.otherIds.iterator();
+
+		@Override
+		public boolean hasNext() {
+			long[] highs = IdSet.this.highs;
+			long[] lows = IdSet.this.lows;
+			while (this.slot < highs.length && highs[this.slot] == 0 && lows[this.slot] == 0) {
+				this.slot++;
+			}
+			return this.slot < highs.length || this.nilPending || this.otherIterator.hasNext();
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			if (this.slot < IdSet.this.highs.length) {
+				String id = toUUID(IdSet.this.highs[this.slot], IdSet.this.lows[this.slot]);
+				this.slot++;
+				return id;
+			}
+			if (this.nilPending) {
+				this.nilPending = false;
+				return toUUID(0, 0);
+			}
+			return this.otherIterator.next();
+		}
+	}
+}
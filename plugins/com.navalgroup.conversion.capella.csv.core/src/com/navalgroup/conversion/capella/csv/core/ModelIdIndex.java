@@ -0,0 +1,182 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.sirius.business.api.session.Session;
+import org.eclipse.sirius.viewpoint.DAnalysisSessionEObject;
+
+/**
+ * The elements of the semantic resources of a session and of their fragments,
+ * by identifier. The index is built once per conversion, then kept up to date
+ * by a content adapter while elements are created, moved and deleted: an
+ * element is indexed when it is attached to an indexed resource, and removed
+ * from the index when it is detached from it.
+ * <p>
+ * The identifiers that are not found are remembered until an element with
+ * that identifier is indexed, so the resources are only searched once for each
+ * unknown identifier.
+ * </p>
+ */
+public class ModelIdIndex {
+
+	/**
+	 * The indexed elements, by identifier.
+	 */
+	protected final Map<String, EObject> elementsById = new HashMap<>();
+
+	/**
+	 * The identifiers that were not found.
+	 */
+	protected final Set<String> missingIds = new HashSet<>();
+
+	/**
+	 * The indexed resources.
+	 */
+	protected final List<Resource> resources = new ArrayList<>();
+
+	/**
+	 * The adapter keeping the index up to date.
+	 */
+	protected final IndexAdapter adapter = new IndexAdapter();
+
+	/**
+	 * Constructor, indexing the semantic resources of the session and their
+	 * fragments.
+	 * 
+	 * @param session
+	 *            Session
+	 */
+	public ModelIdIndex(Session session) {
+		this.resources.addAll(session.getSemanticResources());
+		if (session instanceof DAnalysisSessionEObject) {
+			for (Resource controlledResource : ((DAnalysisSessionEObject) session).getControlledResources()) {
+				if (!this.resources.contains(controlledResource)) {
+					this.resources.add(controlledResource);
+				}
+			}
+		}
+		// The adapter indexes each element it is attached to
+		for (Resource resource : this.resources) {
+			resource.eAdapters().add(this.adapter);
+		}
+	}
+
+	/**
+	 * Get an element by identifier.
+	 * 
+	 * @param id
+	 *            the identifier.
+	 * @return the element, or <code>null</code> if no indexed resource contains
+	 *         an element with this identifier.
+	 */
+	public EObject getEObject(String id) {
+		EObject eObject = this.elementsById.get(id);
+		if (eObject == null && !this.missingIds.contains(id)) {
+			// The identifier may be a fragment path rather than an ID attribute
+			for (Resource resource : this.resources) {
+				eObject = resource.getEObject(id);
+				if (eObject != null) {
+					break;
+				}
+			}
+			if (eObject == null) {
+				this.missingIds.add(id);
+			}
+		}
+		return eObject;
+	}
+
+	/**
+	 * Stop updating the index and release the indexed elements.
+	 */
+	public void dispose() {
+		for (Resource resource : this.resources) {
+			resource.eAdapters().remove(this.adapter);
+		}
+		this.resources.clear();
+		this.elementsById.clear();
+		this.missingIds.clear();
+	}
+
+	/**
+	 * Index an element.
+	 * 
+	 * @param eObject
+	 *            EObject
+	 */
+	protected void index(EObject eObject) {
+		String id = EcoreUtil.getID(eObject);
+		if (id != null) {
+			this.elementsById.put(id, eObject);
+			this.missingIds.remove(id);
+		}
+	}
+
+	/**
+	 * Remove an element from the index.
+	 * 
+	 * @param id
+	 *            the identifier the element was indexed with.
+	 * @param eObject
+	 *            EObject
+	 */
+	protected void unindex(String id, EObject eObject) {
+		if (id != null) {
+			this.elementsById.remove(id, eObject);
+		}
+	}
+
+	/**
+	 * The content adapter indexing the elements of the indexed resources.
+	 */
+	protected class IndexAdapter extends EContentAdapter {
+
+		@Override
+		public void notifyChanged(Notification notification) {
+			super.notifyChanged(notification);
+			Object notifier = notification.getNotifier();
+			if (notifier instanceof EObject && !notification.isTouch()) {
+				EObject eObject = (EObject) notifier;
+				if (notification.getFeature() != null
+						&& notification.getFeature() == eObject.eClass().getEIDAttribute()) {
+					unindex(notification.getOldStringValue(), eObject);
+					index(eObject);
+				}
+			}
+		}
+
+		@Override
+		protected void setTarget(EObject target) {
+			super.setTarget(target);
+			index(target);
+		}
+
+		@Override
+		protected void unsetTarget(EObject target) {
+			super.unsetTarget(target);
+			// A moved element is still in a resource, only a detached element is removed
+			if (target.eResource() == null) {
+				unindex(EcoreUtil.getID(target), target);
+			}
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.polarsys.capella.common.ui.toolkit.browser.category.CategoryRegistry;
+import org.polarsys.capella.common.ui.toolkit.browser.category.ICategory;
+import org.polarsys.capella.common.ui.toolkit.browser.content.provider.IBrowserContentProvider;
+import org.polarsys.capella.core.data.capellacore.Structure;
+import org.polarsys.capella.core.data.capellamodeller.Project;
+import org.polarsys.capella.core.data.capellamodeller.SystemEngineering;
+import org.polarsys.capella.core.data.cs.BlockArchitecture;
+
+/**
+ * What the relevant concepts export needs to know about the elements of an
+ * {@link EClass}, computed once per class: if the elements are packages or
+ * structural elements, and the Semantic Browser categories applicable to them
+ * with their column names.
+ * <p>
+ * The categories are gathered for the first element of the class they are
+ * requested for, the categories of the referenced elements being registered by
+ * type.
+ * </p>
+ */
+public final class RelevancePlan {
+
+	/**
+	 * The computed plans, by class.
+	 */
+	private static final Map<EClass, RelevancePlan> PLANS = new ConcurrentHashMap<>();
+
+	/**
+	 * The column names of the categories.
+	 */
+	private static final Map<ICategory, String> CATEGORY_NAMES = new ConcurrentHashMap<>();
+
+	/**
+	 * The characters replaced by spaces in a category name.
+	 */
+	private static final Pattern NON_LETTERS = Pattern.compile("[^a-zA-Z]");
+
+	/**
+	 * The spaces replaced by an underscore in a category name.
+	 */
+	private static final Pattern SPACES = Pattern.compile("\\s+");
+
+	/**
+	 * If the elements are packages.
+	 */
+	private final boolean packageClass;
+
+	/**
+	 * If the elements are part of the structure of the model.
+	 */
+	private final boolean relevant;
+
+	/**
+	 * The Semantic Browser categories of the referenced elements, sorted by
+	 * identifier, <code>null</code> until requested.
+	 */
+	private volatile List<ICategory> categories;
+
+	/**
+	 * The column names of {@link #categories}, in the same order.
+	 */
+	private volatile List<String> categoryNames;
+
+	// CHECKSTYLE:OFF
+	private RelevancePlan(EObject object) {
+		this.packageClass = object instanceof Structure && object.getClass().getName().contains("Pkg");
+		this.relevant = object instanceof Project || object instanceof SystemEngineering
+				|| object instanceof BlockArchitecture || this.packageClass;
+	}
+	// CHECKSTYLE:ON
+
+	/**
+	 * Get the plan of the class of an element.
+	 * 
+	 * @param object
+	 *            EObject
+	 * @return the plan of the class of the element.
+	 */
+	public static RelevancePlan of(EObject object) {
+		return PLANS.computeIfAbsent(object.eClass(), eClass -> new RelevancePlan(object));
+	}
+
+	/**
+	 * Get the column name of a Semantic Browser category: its name, where
+	 * anything but letters is replaced by underscores.
+	 * 
+	 * @param category
+	 *            ICategory
+	 * @return the column name of the category.
+	 */
+	public static String getCategoryName(ICategory category) {
+		return CATEGORY_NAMES.computeIfAbsent(category,
+				c -> SPACES.matcher(NON_LETTERS.matcher(c.getName().trim()).replaceAll(" ")).replaceAll("_"));
+	}
+
+	public boolean isPackage() {
+		return this.packageClass;
+	}
+
+	public boolean isRelevant() {
+		return this.relevant;
+	}
+
+	/**
+	 * Get the Semantic Browser categories of the referenced elements, gathered
+	 * the first time for the given element.
+	 * 
+	 * @param object
+	 *            an element of the class.
+	 * @return the categories, sorted by identifier.
+	 */
+	public List<ICategory> getCategories(EObject object) {
+		List<ICategory> sortedCategories = this.categories;
+		if (sortedCategories == null) {
+			Set<ICategory> gatheredCategories = CategoryRegistry.getInstance()
+					.gatherCategories(IBrowserContentProvider.ID_REFERENCED_CP, object);
+			// sort categories to always have the same outputs.
+			Set<ICategory> categorySet = new TreeSet<>(Comparator.comparing(ICategory::getCategoryId));
+			categorySet.addAll(gatheredCategories);
+			sortedCategories = new ArrayList<>(categorySet);
+			List<String> names = new ArrayList<>(sortedCategories.size());
+			for (ICategory category : sortedCategories) {
+				names.add(getCategoryName(category));
+			}
+			this.categoryNames = Collections.unmodifiableList(names);
+			sortedCategories = Collections.unmodifiableList(sortedCategories);
+			this.categories = sortedCategories;
+		}
+		return sortedCategories;
+	}
+
+	/**
+	 * Get the column names of the Semantic Browser categories of the referenced
+	 * elements, gathered the first time for the given element.
+	 * 
+	 * @param object
+	 *            an element of the class.
+	 * @return the column names, in the order of {@link #getCategories(EObject)}.
+	 */
+	public List<String> getCategoryNames(EObject object) {
+		getCategories(object);
+		return this.categoryNames;
+	}
+}
@@ -22,6 +22,51 @@ public final class ConversionOptions {
 	 */
 	private static final String CAPELLA_METAMODEL_CSV_CONVERSION = "conversion.capella.metamodel";
 
+	/**
+	 * Memory-mapped index of the previous export option.
+	 */
+	private static final String MAPPED_BEFORE_EXPORT_INDEX = "conversion.capella.export.mappedIndex";
+
+	/**
+	 * Export parallelism option.
+	 */
+	private static final String EXPORT_PARALLELISM = "conversion.capella.export.parallelism";
+
+	/**
+	 * Incremental export option.
+	 */
+	private static final String INCREMENTAL_EXPORT = "conversion.capella.export.incremental";
+
+	/**
+	 * Delta export option.
+	 */
+	private static final String DELTA_EXPORT = "conversion.capella.export.delta";
+
+	/**
+	 * Compressed CSV files option.
+	 */
+	private static final String COMPRESSED_FILES = "conversion.capella.csv.compressed";
+
+	/**
+	 * Single archive export option.
+	 */
+	private static final String ARCHIVE_EXPORT = "conversion.capella.export.archive";
+
+	/**
+	 * Semantic Browser references cache size option.
+	 */
+	private static final String RELEVANT_CONCEPTS_CACHE_SIZE = "conversion.capella.relevant.cacheSize";
+
+	/**
+	 * The default number of elements whose Semantic Browser references are kept.
+	 */
+	private static final int DEFAULT_RELEVANT_CONCEPTS_CACHE_SIZE = 100000;
+
+	/**
+	 * Semantic Browser categories parallelism option.
+	 */
+	private static final String RELEVANT_CONCEPTS_PARALLELISM = "conversion.capella.relevant.parallelism";
+
 	/**
 	 * Constructor.
 	 */
@@ -37,4 +82,87 @@ public final class ConversionOptions {
 		return Boolean.getBoolean(CAPELLA_METAMODEL_CSV_CONVERSION);
 	}
 
+	/**
+	 * Return if the records of the previous export are indexed from
+	 * memory-mapped files instead of being kept in memory.
+	 * 
+	 * @return if the records of the previous export are memory-mapped.
+	 */
+	public static boolean getMappedBeforeExportIndexOption() {
+		return Boolean.getBoolean(MAPPED_BEFORE_EXPORT_INDEX);
+	}
+
+	/**
+	 * Return the number of threads used to export the model. The model is
+	 * exported on a single thread by default.
+	 * 
+	 * @return the number of threads used to export the model.
+	 */
+	public static int getExportParallelismOption() {
+		return Integer.getInteger(EXPORT_PARALLELISM, 1);
+	}
+
+	/**
+	 * Return if only the CSV files of the classes changed since the previous
+	 * export are regenerated.
+	 * 
+	 * @return if the export is incremental.
+	 */
+	public static boolean getIncrementalExportOption() {
+		return Boolean.getBoolean(INCREMENTAL_EXPORT);
+	}
+
+	/**
+	 * Return if the records created, updated or deleted since the previous export
+	 * are also written in a separate folder.
+	 * 
+	 * @return if a delta export is done.
+	 */
+	public static boolean getDeltaExportOption() {
+		return Boolean.getBoolean(DELTA_EXPORT);
+	}
+
+	/**
+	 * Return if the exported CSV files are compressed with GZIP.
+	 * 
+	 * @return if the exported CSV files are compressed.
+	 */
+	public static boolean getCompressedFilesOption() {
+		return Boolean.getBoolean(COMPRESSED_FILES);
+	}
+
+	/**
+	 * Return if all CSV files of an export are written into a single ZIP archive.
+	 * 
+	 * @return if the export is written into a single archive.
+	 */
+	public static boolean getArchiveExportOption() {
+		return Boolean.getBoolean(ARCHIVE_EXPORT);
+	}
+
+	/**
+	 * Return the number of elements whose Semantic Browser references are kept,
+	 * once computed to find the relevant concepts, until their record is
+	 * written. Only the references of the elements already relevant are kept,
+	 * the least recently used ones being evicted once the cache is full: the
+	 * references of the evicted elements, and of the elements becoming relevant
+	 * afterwards, are computed again when their record is written.
+	 * 
+	 * @return the size of the Semantic Browser references cache.
+	 */
+	public static int getRelevantConceptsCacheSizeOption() {
+		return Integer.getInteger(RELEVANT_CONCEPTS_CACHE_SIZE, DEFAULT_RELEVANT_CONCEPTS_CACHE_SIZE);
+	}
+
+	/**
+	 * Return the number of threads computing the Semantic Browser categories of
+	 * the elements to find the relevant concepts. The categories are computed on
+	 * a single thread by default.
+	 * 
+	 * @return the number of threads computing the Semantic Browser categories.
+	 */
+	public static int getRelevantConceptsParallelismOption() {
+		return Integer.getInteger(RELEVANT_CONCEPTS_PARALLELISM, 1);
+	}
+
 }
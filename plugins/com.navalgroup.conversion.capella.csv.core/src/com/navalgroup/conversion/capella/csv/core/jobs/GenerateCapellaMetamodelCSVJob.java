@@ -10,9 +10,7 @@
 package com.navalgroup.conversion.capella.csv.core.jobs;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Collection;
 import java.util.HashSet;
@@ -21,7 +19,6 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.QuoteMode;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
@@ -54,6 +51,8 @@ import org.polarsys.capella.core.data.requirement.RequirementPackage;
 
 import com.navalgroup.conversion.capella.csv.core.Activator;
 import com.navalgroup.conversion.capella.csv.core.CSVConstants;
+import com.navalgroup.conversion.capella.csv.core.CSVEncoder;
+import com.navalgroup.conversion.capella.csv.core.CSVFiles;
 import com.navalgroup.conversion.capella.csv.core.CSVSettings;
 import com.navalgroup.conversion.capella.csv.core.ConversionUtil;
 
@@ -159,7 +158,6 @@ public class GenerateCapellaMetamodelCSVJob implements IRunnableWithProgress {
 			throws IOException {
 		File csvOutputFile = new File(this.csvSettings.getConversionDirectoryPath() + File.separator + OUTPUT_FILE_NAME
 				+ CSVConstants.CSV_EXT);
-		String csvOutputFilePath = csvOutputFile.getAbsolutePath();
 		CSVFormat csvFormatWithHeader;
 		if (csvOutputFile != null && csvOutputFile.exists()) {
 			csvFormatWithHeader = format;
@@ -168,9 +166,8 @@ public class GenerateCapellaMetamodelCSVJob implements IRunnableWithProgress {
 			csvFormatWithHeader = format.withHeader(headerRecord.toArray(new String[headerRecord.size()]));
 		}
 
-		Writer fstream = new OutputStreamWriter(new FileOutputStream(csvOutputFilePath, true),
-				this.csvSettings.getCharacterSet());
-		try (CSVPrinter printer = new CSVPrinter(fstream, csvFormatWithHeader)) {
+		Writer fstream = CSVFiles.newWriter(csvOutputFile, this.csvSettings.getCharacterSet(), true);
+		try (CSVEncoder printer = new CSVEncoder(fstream, csvFormatWithHeader)) {
 			printer.printRecord(createRecord(eClass, category));
 		}
 	}
@@ -188,7 +185,6 @@ public class GenerateCapellaMetamodelCSVJob implements IRunnableWithProgress {
 			SubMonitor subMonitor) throws IOException {
 		File csvOutputFile = new File(this.csvSettings.getConversionDirectoryPath() + File.separator + OUTPUT_FILE_NAME
 				+ CSVConstants.CSV_EXT);
-		String csvOutputFilePath = csvOutputFile.getAbsolutePath();
 		CSVFormat csvFormatWithHeader;
 		if (csvOutputFile != null && csvOutputFile.exists()) {
 			csvFormatWithHeader = format;
@@ -197,9 +193,8 @@ public class GenerateCapellaMetamodelCSVJob implements IRunnableWithProgress {
 			csvFormatWithHeader = format.withHeader(headerRecord.toArray(new String[headerRecord.size()]));
 		}
 
-		Writer fstream = new OutputStreamWriter(new FileOutputStream(csvOutputFilePath, true),
-				this.csvSettings.getCharacterSet());
-		try (CSVPrinter printer = new CSVPrinter(fstream, csvFormatWithHeader)) {
+		Writer fstream = CSVFiles.newWriter(csvOutputFile, this.csvSettings.getCharacterSet(), true);
+		try (CSVEncoder printer = new CSVEncoder(fstream, csvFormatWithHeader)) {
 			printer.printRecord(createRecord(eClass, feature));
 		}
 	}
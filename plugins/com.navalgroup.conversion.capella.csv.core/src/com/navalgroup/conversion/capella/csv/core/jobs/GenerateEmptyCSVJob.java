@@ -10,17 +10,13 @@
 package com.navalgroup.conversion.capella.csv.core.jobs;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.stream.Collectors;
 
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.QuoteMode;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
@@ -48,8 +44,10 @@ import org.polarsys.capella.core.data.requirement.RequirementPackage;
 
 import com.navalgroup.conversion.capella.csv.core.Activator;
 import com.navalgroup.conversion.capella.csv.core.CSVConstants;
+import com.navalgroup.conversion.capella.csv.core.CSVEncoder;
+import com.navalgroup.conversion.capella.csv.core.CSVFiles;
 import com.navalgroup.conversion.capella.csv.core.CSVSettings;
-import com.navalgroup.conversion.capella.csv.core.ConversionUtil;
+import com.navalgroup.conversion.capella.csv.core.FeaturePlan;
 
 public class GenerateEmptyCSVJob implements IRunnableWithProgress {
 
@@ -105,33 +103,34 @@ public class GenerateEmptyCSVJob implements IRunnableWithProgress {
 	protected void generateEmptyCSV(EClass eClass, SubMonitor subMonitor) throws IOException {
 		File csvOutputFile = new File(
 				this.csvSettings.getConversionDirectoryPath() + File.separator + getCSVFileName(eClass));
-		String csvOutputFilePath = csvOutputFile.getAbsolutePath();
-		Collection<String> attributes = ConversionUtil.getAttributes(eClass);
-		Collection<String> nonContainmentReferences = ConversionUtil.getNonContainmentReferences(eClass);
-		Collection<String> containmentReferences = ConversionUtil.getContainmentReferences(eClass);
-		Writer fstream = new OutputStreamWriter(new FileOutputStream(csvOutputFilePath, false),
-				this.csvSettings.getCharacterSet());
-		try (CSVPrinter printer = new CSVPrinter(fstream, this.csvFormat)) {
-			printer.printRecord(createRecord(eClass, attributes, nonContainmentReferences, containmentReferences));
+		Writer fstream = CSVFiles.newWriter(csvOutputFile, this.csvSettings.getCharacterSet(), false);
+		FeaturePlan plan = FeaturePlan.of(eClass);
+		try (CSVEncoder printer = new CSVEncoder(fstream, this.csvFormat)) {
+			printer.printRecord(createRecord(eClass, plan.getAttributeNames(), plan.getNonContainmentReferenceNames(),
+					plan.getContainmentReferenceNames()));
 		}
 	}
 
+	/**
+	 * Create the header record of the empty CSV file of a class.
+	 * 
+	 * @param eClass
+	 *            EClass
+	 * @param attributes
+	 *            the names of the attributes.
+	 * @param nonContainmentReferences
+	 *            the names of the non-containment references.
+	 * @param containmentReferences
+	 *            the names of the containment references.
+	 * @return the header record.
+	 * @deprecated the header of a class is {@link FeaturePlan#getHeader()}, which
+	 *             this method returns. It is only kept for the subclasses
+	 *             overriding it.
+	 */
+	@Deprecated
 	protected Collection<String> createRecord(EClass eClass, Collection<String> attributes,
 			Collection<String> nonContainmentReferences, Collection<String> containmentReferences) {
-		Collection<String> record = new LinkedList<>();
-		record.add(CSVSettings.TO_CREATE_COLUMN);
-		record.add(CSVSettings.CREATION_DATE_COLUMN);
-		record.add(CSVSettings.CREATION_TIME_COLUMN);
-		record.add(CSVSettings.TO_UPDATE_COLUMN);
-		record.add(CSVSettings.LAST_UPDATE_DATE_COLUMN);
-		record.add(CSVSettings.LAST_UPDATE_TIME_COLUMN);
-		record.add(CSVSettings.TO_DELETE_COLUMN);
-		record.add(CSVSettings.DELETION_DATE_COLUMN);
-		record.add(CSVSettings.DELETION_TIME_COLUMN);
-		record.addAll(attributes);
-		record.addAll(nonContainmentReferences);
-		record.addAll(containmentReferences);
-		return record;
+		return FeaturePlan.of(eClass).getHeader();
 	}
 
 	protected String getCSVFileName(EClass eClass) {
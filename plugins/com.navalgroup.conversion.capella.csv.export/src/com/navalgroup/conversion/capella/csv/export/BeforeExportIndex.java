@@ -0,0 +1,354 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import com.navalgroup.conversion.capella.csv.core.CSVSettings;
+
+/**
+ * An index of the records of the previous export (the CSV files of the export
+ * directory, until they are replaced by the new ones). Each file is parsed
+ * once, when the export is prepared, and only the id, creation and deletion
+ * date/time columns of its records are kept, with a hash of their data cells
+ * for a delta export.
+ */
+public class BeforeExportIndex {
+
+	/**
+	 * The converter owning this index, used to parse the CSV files.
+	 */
+	protected CapellaToCSVConverter converter;
+
+	/**
+	 * The indexed records, by file name and then by id.
+	 */
+	protected Map<String, Map<String, Entry>> entriesByFile;
+
+	/**
+	 * The header of the indexed files, by file name.
+	 */
+	protected Map<String, String[]> headersByFile;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param converter
+	 *            the converter owning this index.
+	 */
+	public BeforeExportIndex(CapellaToCSVConverter converter) {
+		this.converter = converter;
+		this.entriesByFile = new HashMap<>();
+		this.headersByFile = new HashMap<>();
+	}
+
+	/**
+	 * Parse the given CSV file and index its records. Nothing is done if the file
+	 * does not exist.
+	 * 
+	 * @param csvFile
+	 *            the CSV file of the previous export.
+	 * @throws IOException
+	 *             if the file cannot be parsed.
+	 */
+	public void index(File csvFile) throws IOException {
+		if (!csvFile.exists()) {
+			return;
+		}
+		Map<String, Entry> entries = new HashMap<>();
+		// The same dates and times are repeated on most of the records of a file
+		Map<String, String> values = new HashMap<>();
+		boolean hashContent = this.converter.isDeltaExport();
+		try (CSVParser csvParser = this.converter.getCSVParser(csvFile)) {
+			List<String> header = csvParser.getHeaderNames();
+			int width = header.size();
+			this.headersByFile.put(csvFile.getName(), header.toArray(new String[width]));
+			for (CSVRecord rec : csvParser) {
+				// The ids are unique, they are not shared
+				String id = getValue(rec, CSVSettings.ID_COLUMN);
+				if (id != null) {
+					long contentHash = 0;
+					if (hashContent) {
+						contentHash = hash(rec, width);
+					}
+					entries.put(id,
+							new Entry(getSharedValue(rec, CSVSettings.CREATION_DATE_COLUMN, values),
+									getSharedValue(rec, CSVSettings.CREATION_TIME_COLUMN, values),
+									getSharedValue(rec, CSVSettings.DELETION_DATE_COLUMN, values),
+									getSharedValue(rec, CSVSettings.DELETION_TIME_COLUMN, values), contentHash));
+				}
+			}
+		}
+		this.entriesByFile.put(csvFile.getName(), entries);
+	}
+
+	private long hash(CSVRecord rec, int width) {
+		long hash = ContentHash.EMPTY;
+		for (int i = CSVSettings.MANAGEMENT_COLUMNS.size(); i < width; i++) {
+			// The missing cells are empty
+			String cell = null;
+			if (i < rec.size()) {
+				cell = rec.get(i);
+			}
+			hash = ContentHash.add(hash, cell);
+		}
+		return hash;
+	}
+
+	private String getValue(CSVRecord rec, String column) {
+		if (!rec.isSet(column)) {
+			return null;
+		}
+		String value = rec.get(column);
+		if (value == null || value.isEmpty()) {
+			return null;
+		}
+		return value;
+	}
+
+	private String getSharedValue(CSVRecord rec, String column, Map<String, String> values) {
+		String value = getValue(rec, column);
+		if (value == null) {
+			return null;
+		}
+		String sharedValue = values.putIfAbsent(value, value);
+		if (sharedValue != null) {
+			return sharedValue;
+		}
+		return value;
+	}
+
+	/**
+	 * Get the indexed record of the given id.
+	 * 
+	 * @param csvFile
+	 *            the CSV file of the previous export.
+	 * @param id
+	 *            the id of the model element.
+	 * @return the indexed record, or <code>null</code> if the element was not
+	 *         part of the previous export.
+	 */
+	public Entry get(File csvFile, String id) {
+		if (csvFile == null || id == null) {
+			return null;
+		}
+		Map<String, Entry> entries = this.entriesByFile.get(csvFile.getName());
+		if (entries == null) {
+			return null;
+		}
+		return entries.get(id);
+	}
+
+	/**
+	 * Get the header of an indexed file.
+	 * 
+	 * @param csvFile
+	 *            the CSV file of the previous export.
+	 * @return the header, or <code>null</code> if the file is not indexed.
+	 */
+	public String[] getHeader(File csvFile) {
+		return this.headersByFile.get(csvFile.getName());
+	}
+
+	/**
+	 * Handle the indexed records of the given file whose id passes the filter.
+	 * The file is not parsed again if none of its indexed ids passes the filter.
+	 * 
+	 * @param csvFile
+	 *            the CSV file of the previous export.
+	 * @param idFilter
+	 *            the ids of the records to handle.
+	 * @param handler
+	 *            the handler of the records.
+	 * @throws IOException
+	 *             if the file cannot be parsed or a record cannot be handled.
+	 */
+	public void forEachRecord(File csvFile, Predicate<String> idFilter, RecordHandler handler) throws IOException {
+		Map<String, Entry> entries = this.entriesByFile.get(csvFile.getName());
+		if (entries == null || !csvFile.exists() || entries.keySet().stream().noneMatch(idFilter)) {
+			return;
+		}
+		try (CSVParser csvParser = this.converter.getCSVParser(csvFile)) {
+			for (CSVRecord rec : csvParser) {
+				String id = getValue(rec, CSVSettings.ID_COLUMN);
+				if (id != null && idFilter.test(id)) {
+					handler.handle(rec);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Handle the records of the given file flagged as "To delete". Records with
+	 * an empty id or an id starting with <code>%</code> are ignored.
+	 * 
+	 * @param csvFile
+	 *            the CSV file of the previous export.
+	 * @param idFilter
+	 *            the ids of the records to handle.
+	 * @param handler
+	 *            the handler of the records.
+	 * @throws IOException
+	 *             if the file cannot be parsed or a record cannot be handled.
+	 */
+	public void forEachRecordToDelete(File csvFile, Predicate<String> idFilter, RecordHandler handler)
+			throws IOException {
+		if (!csvFile.exists()) {
+			return;
+		}
+		try (CSVParser csvParser = this.converter.getCSVParser(csvFile)) {
+			for (CSVRecord rec : csvParser) {
+				String id = rec.get(CSVSettings.ID_COLUMN);
+				if (isRecordToDelete(id, rec.get(CSVSettings.TO_DELETE_COLUMN)) && idFilter.test(id)) {
+					handler.handle(rec);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check if a record is flagged as "To delete".
+	 * 
+	 * @param id
+	 *            the id cell of the record.
+	 * @param toDelete
+	 *            the "To delete" cell of the record.
+	 * @return <code>true</code> if the record is flagged as "To delete".
+	 */
+	protected boolean isRecordToDelete(String id, String toDelete) {
+		// @CHECKSTYLE:OFF
+		return id != null && !id.isEmpty() && toDelete != null && !toDelete.isEmpty() && !id.trim().startsWith("%");
+		// @CHECKSTYLE:ON
+	}
+
+	/**
+	 * Release all indexed records.
+	 */
+	public void clear() {
+		this.entriesByFile.clear();
+		this.headersByFile.clear();
+	}
+
+	/**
+	 * A handler of the records of the previous export.
+	 */
+	@FunctionalInterface
+	public interface RecordHandler {
+
+		/**
+		 * Handle a record.
+		 * 
+		 * @param rec
+		 *            the record.
+		 * @throws IOException
+		 *             if the record cannot be handled.
+		 */
+		void handle(CSVRecord rec) throws IOException;
+	}
+
+	/**
+	 * The columns of a previous record kept by the index. Empty cells are
+	 * <code>null</code>.
+	 */
+	public static class Entry {
+
+		/**
+		 * Creation date.
+		 */
+		private final String creationDate;
+
+		/**
+		 * Creation time.
+		 */
+		private final String creationTime;
+
+		/**
+		 * Deletion date.
+		 */
+		private final String deletionDate;
+
+		/**
+		 * Deletion time.
+		 */
+		private final String deletionTime;
+
+		/**
+		 * Hash of the data cells, only computed for a delta export.
+		 */
+		private final long contentHash;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param creationDate
+		 *            String
+		 * @param creationTime
+		 *            String
+		 * @param deletionDate
+		 *            String
+		 * @param deletionTime
+		 *            String
+		 */
+		public Entry(String creationDate, String creationTime, String deletionDate, String deletionTime) {
+			this(creationDate, creationTime, deletionDate, deletionTime, 0);
+		}
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param creationDate
+		 *            String
+		 * @param creationTime
+		 *            String
+		 * @param deletionDate
+		 *            String
+		 * @param deletionTime
+		 *            String
+		 * @param contentHash
+		 *            the {@link ContentHash} of the data cells.
+		 */
+		public Entry(String creationDate, String creationTime, String deletionDate, String deletionTime,
+				long contentHash) {
+			this.creationDate = creationDate;
+			this.creationTime = creationTime;
+			this.deletionDate = deletionDate;
+			this.deletionTime = deletionTime;
+			this.contentHash = contentHash;
+		}
+
+		public String getCreationDate() {
+			return this.creationDate;
+		}
+
+		public String getCreationTime() {
+			return this.creationTime;
+		}
+
+		public String getDeletionDate() {
+			return this.deletionDate;
+		}
+
+		public String getDeletionTime() {
+			return this.deletionTime;
+		}
+
+		public long getContentHash() {
+			return this.contentHash;
+		}
+	}
+}
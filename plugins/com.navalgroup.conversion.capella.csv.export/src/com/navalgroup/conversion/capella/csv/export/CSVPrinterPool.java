@@ -0,0 +1,148 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.export;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.csv.CSVFormat;
+
+import com.navalgroup.conversion.capella.csv.core.CSVEncoder;
+import com.navalgroup.conversion.capella.csv.core.CSVFiles;
+
+/**
+ * An export-scoped pool of {@link CSVEncoder}s. Each CSV file is opened once
+ * (in append mode) the first time a record has to be written into it, and
+ * stays open until the pool is closed at the end of the export.
+ * <p>
+ * The files are not closed before the end of the export: during a depth-first
+ * export, records of the same classes come back all along the traversal, so
+ * closing the least recently used files would reopen them over and over, each
+ * reopen of a compressed file starting a new GZIP member. Since every CSV file
+ * of the export then stays open, each file only gets a small buffer
+ * ({@link #FILE_BUFFER_SIZE}).
+ * </p>
+ */
+public class CSVPrinterPool implements Closeable {
+
+	/**
+	 * The size of the buffer used to copy whole files: the concatenation of the
+	 * partial files of a parallel export and the writing of the archive.
+	 */
+	protected static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The size of the buffer of each CSV file opened by the pool. A record is a
+	 * few hundred characters, so an 8K buffer already writes tens of records at
+	 * once, which is the size of the byte buffer of the character encoder below
+	 * it anyway. A 64K buffer would save few writes, while costing tens of MB
+	 * for the several hundred classes of a model, times the parallelism of a
+	 * parallel export.
+	 */
+	protected static final int FILE_BUFFER_SIZE = 8 * 1024;
+
+	/**
+	 * The {@link CSVFormat} used to print records.
+	 */
+	protected CSVFormat csvFormat;
+
+	/**
+	 * The character set of the CSV files.
+	 */
+	protected Charset characterSet;
+
+	/**
+	 * The opened printers, by absolute file path.
+	 */
+	protected Map<String, CSVEncoder> printers;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param csvFormat
+	 *            CSVFormat
+	 * @param characterSet
+	 *            Charset
+	 */
+	public CSVPrinterPool(CSVFormat csvFormat, Charset characterSet) {
+		this.csvFormat = csvFormat;
+		this.characterSet = characterSet;
+		this.printers = new HashMap<>();
+	}
+
+	/**
+	 * Get the printer of an already opened CSV file.
+	 * 
+	 * @param csvFile
+	 *            the CSV file.
+	 * @return the printer, or <code>null</code> if the file has not been opened
+	 *         by this pool yet.
+	 */
+	public CSVEncoder get(File csvFile) {
+		return this.printers.get(csvFile.getAbsolutePath());
+	}
+
+	/**
+	 * Open the given CSV file and keep its printer until the pool is closed. The
+	 * header is only written if the file does not exist yet (or is empty).
+	 * 
+	 * @param csvFile
+	 *            the CSV file.
+	 * @param header
+	 *            the header record, may be <code>null</code> to never write a
+	 *            header.
+	 * @return the printer of the file.
+	 * @throws IOException
+	 *             if the file cannot be opened.
+	 */
+	public CSVEncoder open(File csvFile, String[] header) throws IOException {
+		CSVEncoder printer = get(csvFile);
+		if (printer == null) {
+			CSVFormat fileFormat = this.csvFormat;
+			if (header != null && csvFile.length() == 0) {
+				fileFormat = this.csvFormat.withHeader(header);
+			}
+			Writer writer = CSVFiles.newWriter(csvFile, this.characterSet, true, FILE_BUFFER_SIZE);
+			printer = new CSVEncoder(writer, fileFormat);
+			this.printers.put(csvFile.getAbsolutePath(), printer);
+		}
+		return printer;
+	}
+
+	/**
+	 * Flush and close all opened CSV files. Every file is closed even if closing
+	 * one of them fails, the first failure is then rethrown.
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be flushed or closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException failure = null;
+		for (CSVEncoder printer : this.printers.values()) {
+			try {
+				printer.close();
+			} catch (IOException e) {
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+		this.printers.clear();
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
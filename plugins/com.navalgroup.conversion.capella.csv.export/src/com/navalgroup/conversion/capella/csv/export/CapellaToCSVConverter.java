@@ -9,13 +9,12 @@
  ******************************************************************************/
 package com.navalgroup.conversion.capella.csv.export;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,36 +23,45 @@ import java.nio.file.StandardCopyOption;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVPrinter;
-import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.csv.QuoteMode;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
-import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.sirius.business.api.session.Session;
-import org.eclipse.sirius.viewpoint.DAnalysisSessionEObject;
 
 import com.navalgroup.conversion.capella.csv.core.CSVConstants;
+import com.navalgroup.conversion.capella.csv.core.CSVEncoder;
+import com.navalgroup.conversion.capella.csv.core.CSVFiles;
 import com.navalgroup.conversion.capella.csv.core.CSVSettings;
-import com.navalgroup.conversion.capella.csv.core.ConversionUtil;
+import com.navalgroup.conversion.capella.csv.core.ContainmentTraversal;
+import com.navalgroup.conversion.capella.csv.core.FeaturePlan;
 
 /**
  * A converter to CSV files from a given {@link EObject}. The conversion
@@ -65,6 +73,16 @@ import com.navalgroup.conversion.capella.csv.core.ConversionUtil;
  */
 public class CapellaToCSVConverter {
 
+	/**
+	 * The folder of the staging directory where a previous archive is extracted.
+	 */
+	private static final String ARCHIVE_FOLDER = "archive";
+
+	/**
+	 * The format of the dates of the records.
+	 */
+	protected static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
 	/**
 	 * The root element of the existing Capella source model.
 	 */
@@ -91,6 +109,78 @@ public class CapellaToCSVConverter {
 	 */
 	protected Session siriusSession;
 
+	/**
+	 * The CSV files opened during the current export.
+	 */
+	protected CSVPrinterPool printerPool;
+
+	/**
+	 * The records of the previous export, indexed when the export is prepared.
+	 */
+	protected BeforeExportIndex beforeExportIndex;
+
+	/**
+	 * The values of the features of the exported element, reused from one
+	 * element to the next.
+	 */
+	protected Object[] featureValues;
+
+	/**
+	 * The cells of the exported record, reused from one record to the next.
+	 */
+	protected RecordBuffer recordBuffer = new RecordBuffer();
+
+	/**
+	 * The builder of list cells, reused from one cell to the next.
+	 */
+	protected StringBuilder listCellBuilder = new StringBuilder();
+
+	/**
+	 * The date of the export.
+	 */
+	protected String exportDate;
+
+	/**
+	 * The time of the export.
+	 */
+	protected String exportTime;
+
+	/**
+	 * The directory where the CSV files are written before replacing the files of
+	 * the previous export.
+	 */
+	protected File stagingDirectory;
+
+	/**
+	 * The CSV files of the previous export, by name of the file replacing them.
+	 * The previous file of a class may not have the same name if the compression
+	 * of the files has changed.
+	 */
+	protected Map<String, File> inputFiles = Collections.emptyMap();
+
+	/**
+	 * The ids of all elements visited by the export, used to find the records of
+	 * the deleted elements.
+	 */
+	protected Set<String> liveIds = Collections.emptySet();
+
+	/**
+	 * The writer of the records changed since the previous export,
+	 * <code>null</code> if there is no delta export.
+	 */
+	protected DeltaExport deltaExport;
+
+	/**
+	 * The names of the CSV files regenerated by an incremental export,
+	 * <code>null</code> if all files are regenerated.
+	 */
+	protected Set<String> regeneratedFiles;
+
+	/**
+	 * If the CSV file of each class is regenerated by an incremental export.
+	 */
+	protected Map<EClass, Boolean> regeneratedClasses = new ConcurrentHashMap<>();
+
 	/**
 	 * For debugging.
 	 */
@@ -127,6 +217,30 @@ public class CapellaToCSVConverter {
 		}
 	}
 
+	/**
+	 * Constructor of a converter sharing the settings, the session and the index
+	 * of the previous export of another converter.
+	 * 
+	 * @param converter
+	 *            CapellaToCSVConverter
+	 */
+	protected CapellaToCSVConverter(CapellaToCSVConverter converter) {
+		this.rootElement = converter.rootElement;
+		this.csvSettings = converter.csvSettings;
+		this.csvFormat = converter.csvFormat;
+		this.afterImportFromCSVs = converter.afterImportFromCSVs;
+		this.siriusSession = converter.siriusSession;
+		this.beforeExportIndex = converter.beforeExportIndex;
+		this.exportDate = converter.exportDate;
+		this.exportTime = converter.exportTime;
+		this.stagingDirectory = converter.stagingDirectory;
+		this.inputFiles = converter.inputFiles;
+		this.liveIds = converter.liveIds;
+		this.deltaExport = converter.deltaExport;
+		this.regeneratedFiles = converter.regeneratedFiles;
+		this.regeneratedClasses = converter.regeneratedClasses;
+	}
+
 	/**
 	 * Generate CSVs.
 	 * 
@@ -136,16 +250,47 @@ public class CapellaToCSVConverter {
 	 */
 	public IStatus generateEObjectCSV(SubMonitor monitor) {
 		IStatus status = Status.OK_STATUS;
+		this.printerPool = new CSVPrinterPool(this.csvFormat, this.csvSettings.getCharacterSet());
+		this.beforeExportIndex = createBeforeExportIndex();
+		initExportTimestamp();
+		this.liveIds = createLiveIdSet();
+		this.deltaExport = null;
+		if (isDeltaExport()) {
+			this.deltaExport = createDeltaExport();
+		}
+		ExportChangeTracker changeTracker = getChangeTracker();
+		this.regeneratedFiles = null;
+		this.regeneratedClasses.clear();
+		if (changeTracker != null) {
+			this.regeneratedFiles = getRegeneratedFiles(changeTracker);
+		}
+		boolean done = false;
 		try {
 			if (this.rootElement != null) {
 				monitor.setWorkRemaining(100);
 				SubMonitor prepareMonitor = monitor.split(10);
-				// Create before copy of all existing csv file
+				// Index the previous export and create the staging directory
 				prepareExport(prepareMonitor);
+				if (this.deltaExport != null) {
+					this.deltaExport.prepare();
+				}
 				SubMonitor conversion = monitor.split(80);
-				this.generateEObjectCSV(this.rootElement, this.csvFormat, conversion);
+				if (this.regeneratedFiles != null && this.regeneratedFiles.isEmpty()) {
+					// Nothing changed since the previous export
+					conversion.done();
+				} else if (isParallelExport()) {
+					createParallelExport().run(conversion);
+				} else {
+					this.generateEObjectCSV(this.rootElement, this.csvFormat, conversion);
+				}
 				SubMonitor deleted = monitor.split(10);
 				this.generateDeletedEObjectCSV(this.csvFormat, deleted);
+				this.printerPool.close();
+				if (this.deltaExport != null) {
+					this.deltaExport.close();
+				}
+				publishExport();
+				done = true;
 			} else {
 				status = new Status(IStatus.ERROR, Activator.PLUGIN_ID,
 						"The root element of the main semantic resource cannot be found.");
@@ -159,6 +304,19 @@ public class CapellaToCSVConverter {
 			status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, e.getMessage(), e);
 		} catch (OperationCanceledException e) {
 			// No need to log something
+		} finally {
+			this.beforeExportIndex.clear();
+			this.inputFiles = Collections.emptyMap();
+			this.liveIds = Collections.emptySet();
+			try {
+				this.printerPool.close();
+				if (this.deltaExport != null) {
+					this.deltaExport.close();
+				}
+			} catch (IOException e) {
+				Activator.logError(e.getMessage(), e);
+				status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, e.getMessage(), e);
+			}
 		}
 		try {
 			deleteTempExportFiles();
@@ -166,237 +324,444 @@ public class CapellaToCSVConverter {
 			Activator.logError(e.getMessage(), e);
 			status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, e.getMessage(), e);
 		}
+		if (changeTracker != null) {
+			if (done && status.isOK()) {
+				changeTracker.exportDone(this.csvSettings.getConversionDirectoryPath(), this.csvFormat,
+						this.csvSettings.getCharacterSet(), isCompressedFiles());
+			} else {
+				changeTracker.invalidate();
+			}
+		}
 		return status;
 	}
 
 	protected void prepareExport(SubMonitor monitor) throws IOException {
+		Path conversionDirectory = Paths.get(this.csvSettings.getConversionDirectoryPath());
 		if (!this.afterImportFromCSVs) {
-			String conversionDirectoryPath = this.csvSettings.getConversionDirectoryPath();
-			List<Path> conversionFilesPaths = Files.list(Paths.get(conversionDirectoryPath))
-					.collect(Collectors.toList());
-			for (Path filePath : conversionFilesPaths) {
-				String filePathAsString = filePath.toString();
-				if (filePathAsString.endsWith(CSVConstants.BEFORE_CSV)) {
-					File f = filePath.toFile();
-					f.delete();
-				}
-			}
-			conversionFilesPaths = Files.list(Paths.get(conversionDirectoryPath)).collect(Collectors.toList());
-			for (Path filePath : conversionFilesPaths) {
-				String filePathAsString = filePath.toString();
-				if (filePathAsString.endsWith(CSVConstants.CSV_EXT)) {
-					String beforeCopyPath = filePath.toAbsolutePath().toString().replace(CSVConstants.CSV_EXT,
-							CSVConstants.BEFORE_CSV);
-					Files.copy(filePath, Paths.get(beforeCopyPath), StandardCopyOption.REPLACE_EXISTING);
-					File f = filePath.toFile();
-					f.delete();
+			// Copies of the previous export left by former versions
+			try (Stream<Path> files = Files.list(conversionDirectory)) {
+				List<Path> beforeFilesPaths = files.filter(f -> isBeforeFile(f.getFileName().toString()))
+						.collect(Collectors.toList());
+				for (Path filePath : beforeFilesPaths) {
+					Files.delete(filePath);
 				}
 			}
+		}
+		Path staging;
+		if (isArchiveExport()) {
+			// Only the archive is written in the export directory, the CSV files are written locally
+			staging = Files.createTempDirectory(CSVConstants.STAGING_FOLDER);
 		} else {
-			String conversionDirectoryPath = this.csvSettings.getConversionDirectoryPath();
-			conversionDirectoryPath += File.separator + CSVConstants.AFTER_FOLDER;
-			Path afterFolder = Paths.get(conversionDirectoryPath);
-			if (Files.exists(afterFolder) && Files.isDirectory(afterFolder)) {
-				List<Path> afterFilesPaths = Files.list(afterFolder).collect(Collectors.toList());
-				for (Path afterfilePath : afterFilesPaths) {
-					String filePathAsString = afterfilePath.toString();
-					if (filePathAsString.endsWith(CSVConstants.CSV_EXT)) {
-						File f = afterfilePath.toFile();
-						f.delete();
+			staging = conversionDirectory.resolve(CSVConstants.STAGING_FOLDER);
+			deleteDirectory(staging);
+			Files.createDirectory(staging);
+		}
+		this.stagingDirectory = staging.toFile();
+		this.inputFiles = new HashMap<>();
+		// The CSV files of a previous archive are extracted, the files next to it win over them
+		Path archive = conversionDirectory.resolve(CSVConstants.EXPORT_ARCHIVE);
+		if (Files.isRegularFile(archive)) {
+			for (Path filePath : extractArchive(archive, staging.resolve(ARCHIVE_FOLDER))) {
+				addInputFile(filePath);
+			}
+		}
+		// The previous export is read in place, it is replaced once the export is done
+		for (Path filePath : listCSVFiles(conversionDirectory)) {
+			addInputFile(filePath);
+		}
+		for (File inputFile : this.inputFiles.values()) {
+			this.beforeExportIndex.index(inputFile);
+		}
+	}
+
+	private void addInputFile(Path filePath) {
+		String fileName = filePath.getFileName().toString();
+		String outputFileName = getCSVFileName(CSVFiles.getTypeName(fileName));
+		// A file with the extension of the export wins over a file with the other one
+		File previousFile = this.inputFiles.get(outputFileName);
+		if (isRegenerated(fileName) && (previousFile == null || fileName.equals(outputFileName)
+				|| !previousFile.getName().equals(outputFileName))) {
+			this.inputFiles.put(outputFileName, filePath.toFile());
+		}
+	}
+
+	private List<Path> extractArchive(Path archive, Path directory) throws IOException {
+		List<Path> files = new ArrayList<>();
+		Files.createDirectories(directory);
+		try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+			for (ZipEntry entry : Collections.list(zipFile.entries())) {
+				if (CSVFiles.isCSVEntry(entry)) {
+					Path filePath = directory.resolve(entry.getName());
+					try (InputStream input = zipFile.getInputStream(entry)) {
+						Files.copy(input, filePath);
 					}
+					files.add(filePath);
 				}
-			} else {
-				Files.createDirectory(afterFolder);
 			}
 		}
+		return files;
 	}
 
-	protected void deleteTempExportFiles() throws IOException {
-		if (!this.afterImportFromCSVs) {
-			String conversionDirectoryPath = this.csvSettings.getConversionDirectoryPath();
-			List<Path> conversionFilesPaths = Files.list(Paths.get(conversionDirectoryPath))
-					.collect(Collectors.toList());
-			for (Path filePath : conversionFilesPaths) {
-				String filePathAsString = filePath.toString();
-				if (filePathAsString.endsWith(CSVConstants.BEFORE_CSV)) {
-					File f = filePath.toFile();
-					f.delete();
+	private boolean isBeforeFile(String fileName) {
+		String typeName = CSVFiles.getTypeName(fileName);
+		return typeName != null && typeName.endsWith(CSVConstants.BEFORE_SUFFIX);
+	}
+
+	/**
+	 * Replace the CSV files of the previous export by the CSV files of the
+	 * staging directory. Each file is renamed atomically where the file system
+	 * supports it, so a reader of the export directory sees either the previous
+	 * or the new content of a file. The export as a whole is not published
+	 * atomically: the export directory is the conversion directory of the user,
+	 * which also holds files that are not regenerated, so it cannot be swapped
+	 * with the staging directory. The files of the previous export which are not
+	 * exported anymore are then deleted.
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be renamed or deleted.
+	 */
+	protected void publishExport() throws IOException {
+		// Release the memory-mapped files of the previous export
+		this.beforeExportIndex.clear();
+		Path exportDirectory = getExportDirectory();
+		Path deltaDirectory = Paths.get(this.csvSettings.getConversionDirectoryPath(), CSVConstants.DELTA_FOLDER);
+		if (isArchiveExport()) {
+			publishArchive(exportDirectory);
+			// The archive replaces the CSV files of a previous export
+			for (Path filePath : listCSVFiles(exportDirectory)) {
+				Files.delete(filePath);
+			}
+			if (this.deltaExport != null) {
+				for (Path filePath : listCSVFiles(deltaDirectory)) {
+					Files.delete(filePath);
 				}
 			}
+		} else {
+			publish(this.stagingDirectory.toPath(), exportDirectory, this::isRegenerated);
+			if (this.deltaExport != null) {
+				publish(this.deltaExport.deltaDirectory.toPath(), deltaDirectory, csvFileName -> true);
+			}
+			if (this.regeneratedFiles == null) {
+				Files.deleteIfExists(exportDirectory.resolve(CSVConstants.EXPORT_ARCHIVE));
+			}
 		}
 	}
 
-	protected void generateEObjectCSV(EObject object, CSVFormat format, SubMonitor monitor) throws IOException {
-		monitor.setWorkRemaining(100);
-		File csvInputFile = getInputFile(object);
-		File csvOutputFile = getOutputFile(object);
-		String csvOutputFilePath = csvOutputFile.getAbsolutePath();
-
-		Map<String, CSVRecord> idToCSVRecordMap = new HashMap<>();
-		CSVParser csvParser = null;
-		if (csvInputFile != null && csvInputFile.exists()) {
-			csvParser = getCSVParser(csvInputFile);
-			if (csvParser != null) {
-				Collection<CSVRecord> existingCSVRecords = csvParser.getRecords();
-				existingCSVRecords.stream().forEach(rec -> {
-					String id = rec.get(CSVSettings.ID_COLUMN);
-					if (id != null && !id.isEmpty()) {
-						idToCSVRecordMap.put(id, rec);
-					}
-				});
+	/**
+	 * Write the CSV files of the staging directory, and the CSV files of the
+	 * delta export into a <code>delta</code> folder, as the entries of a single
+	 * archive. The archive is written in one pass into a temporary file, which
+	 * then replaces the archive of the previous export atomically.
+	 * 
+	 * @param exportDirectory
+	 *            the directory of the archive.
+	 * @throws IOException
+	 *             if the archive cannot be written.
+	 */
+	protected void publishArchive(Path exportDirectory) throws IOException {
+		Files.createDirectories(exportDirectory);
+		Path temporaryArchive = Files.createTempFile(exportDirectory, CSVConstants.STAGING_FOLDER, null);
+		try {
+			try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(
+					Files.newOutputStream(temporaryArchive), CSVPrinterPool.COPY_BUFFER_SIZE))) {
+				addArchiveEntries(zip, this.stagingDirectory.toPath(), "");
+				if (this.deltaExport != null) {
+					addArchiveEntries(zip, this.deltaExport.deltaDirectory.toPath(), CSVConstants.DELTA_FOLDER + "/");
+				}
 			}
+			move(temporaryArchive, exportDirectory.resolve(CSVConstants.EXPORT_ARCHIVE));
+		} finally {
+			Files.deleteIfExists(temporaryArchive);
 		}
+	}
 
-		Map<String, Object> attributes = ConversionUtil.getAttributes(object);
-		Map<String, Object> nonContainmentReferences = ConversionUtil.getNonContainmentReferences(object);
-		Map<String, Object> containmentReferences = ConversionUtil.getContainmentReferences(object);
+	private void addArchiveEntries(ZipOutputStream zip, Path directory, String prefix) throws IOException {
+		List<Path> filePaths = listCSVFiles(directory);
+		Collections.sort(filePaths);
+		for (Path filePath : filePaths) {
+			zip.putNextEntry(new ZipEntry(prefix + filePath.getFileName().toString()));
+			Files.copy(filePath, zip);
+			zip.closeEntry();
+		}
+	}
 
-		CSVFormat csvFormatWithHeader;
-		if (csvOutputFile != null && csvOutputFile.exists()) {
-			csvFormatWithHeader = format;
-		} else {
-			Collection<String> headerRecord = createHeaderRecord(attributes.keySet(), nonContainmentReferences.keySet(),
-					containmentReferences.keySet());
-			csvFormatWithHeader = format.withHeader(headerRecord.toArray(new String[headerRecord.size()]));
+	private void publish(Path fromDirectory, Path toDirectory, Predicate<String> isReplaced) throws IOException {
+		Files.createDirectories(toDirectory);
+		Set<String> publishedFiles = new HashSet<>();
+		for (Path filePath : listCSVFiles(fromDirectory)) {
+			String fileName = filePath.getFileName().toString();
+			move(filePath, toDirectory.resolve(fileName));
+			publishedFiles.add(fileName);
 		}
+		for (Path filePath : listCSVFiles(toDirectory)) {
+			String fileName = filePath.getFileName().toString();
+			if (!publishedFiles.contains(fileName) && isReplaced.test(fileName)) {
+				Files.delete(filePath);
+			}
+		}
+	}
 
-		Writer fstream = new OutputStreamWriter(new FileOutputStream(csvOutputFilePath, true),
-				this.csvSettings.getCharacterSet());
-		try (CSVPrinter printer = new CSVPrinter(fstream, csvFormatWithHeader)) {
-			printer.printRecord(createRecord(object, attributes.values(), nonContainmentReferences.values(),
-					containmentReferences.values(), idToCSVRecordMap));
+	private void move(Path source, Path target) throws IOException {
+		try {
+			// The staged files are next to the export directory, the rename is atomic on local file systems
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			// A reader may then see the target missing or partially written
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
 		}
+	}
 
-		if (csvParser != null) {
-			csvParser.close();
+	private List<Path> listCSVFiles(Path directory) throws IOException {
+		if (!Files.isDirectory(directory)) {
+			return Collections.emptyList();
 		}
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(f -> CSVFiles.isCSVFile(f.getFileName().toString()) && Files.isRegularFile(f))
+					.collect(Collectors.toList());
+		}
+	}
 
-		handleChildren(containmentReferences, format, monitor);
+	protected void deleteTempExportFiles() throws IOException {
+		if (this.stagingDirectory != null) {
+			deleteDirectory(this.stagingDirectory.toPath());
+			this.stagingDirectory = null;
+		}
 	}
 
-	protected void generateDeletedEObjectCSV(CSVFormat format, SubMonitor monitor) throws IOException {
-		String conversionDirectoryPath = this.csvSettings.getConversionDirectoryPath();
-		Collection<Path> inputFilePaths = new HashSet<>();
-		List<Path> conversionFilesPaths = Files.list(Paths.get(conversionDirectoryPath)).collect(Collectors.toList());
-		if (this.afterImportFromCSVs) {
-			for (Path filePath : conversionFilesPaths) {
-				String filePathAsString = filePath.toString();
-				if (!filePathAsString.endsWith(CSVConstants.BEFORE_CSV)
-						&& filePathAsString.endsWith(CSVConstants.CSV_EXT)) {
-					inputFilePaths.add(filePath);
-				}
-			}
-		} else {
-			for (Path filePath : conversionFilesPaths) {
-				String filePathAsString = filePath.toString();
-				if (filePathAsString.endsWith(CSVConstants.BEFORE_CSV)) {
-					inputFilePaths.add(filePath);
+	private void deleteDirectory(Path directory) throws IOException {
+		if (Files.exists(directory)) {
+			try (Stream<Path> paths = Files.walk(directory)) {
+				List<Path> sortedPaths = paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+				for (Path path : sortedPaths) {
+					Files.delete(path);
 				}
 			}
 		}
-		for (Path csvInputFilePath : inputFilePaths) {
-			generateDeletedRecords(format, csvInputFilePath);
+	}
+
+	/**
+	 * Get the directory of the CSV files once published.
+	 * 
+	 * @return the directory of the CSV files.
+	 */
+	protected Path getExportDirectory() {
+		if (this.afterImportFromCSVs) {
+			return Paths.get(this.csvSettings.getConversionDirectoryPath(), CSVConstants.AFTER_FOLDER);
 		}
+		return Paths.get(this.csvSettings.getConversionDirectoryPath());
 	}
 
-	protected EObject getEObjectById(String id) {
-		EObject eObject = null;
-		if (this.siriusSession == null) {
-			eObject = this.rootElement.eResource().getEObject(id);
-		} else {
-			Collection<Resource> semanticResource = this.siriusSession.getSemanticResources();
-			for (Resource eResource : semanticResource) {
-				eObject = eResource.getEObject(id);
-				if (eObject != null) {
-					break;
-				}
-			}
-			// search in fragments
-			if (eObject == null) {
-				EList<Resource> controlledResources = ((DAnalysisSessionEObject) this.siriusSession)
-						.getControlledResources();
-				for (Resource eResource : controlledResources) {
-					eObject = eResource.getEObject(id);
-					if (eObject != null) {
-						break;
-					}
-				}
-			}
+	/**
+	 * Get the editing domain of the exported model.
+	 * 
+	 * @return the editing domain of the Sirius session of the model, or
+	 *         <code>null</code> if the model is not in a session.
+	 */
+	protected TransactionalEditingDomain getEditingDomain() {
+		if (this.siriusSession != null) {
+			return this.siriusSession.getTransactionalEditingDomain();
 		}
-		return eObject;
+		return null;
 	}
 
-	protected void generateDeletedRecords(CSVFormat format, Path csvInputFilePath)
-			throws IOException, FileNotFoundException {
-		File csvInputFile = csvInputFilePath.toFile();
-		Collection<CSVRecord> deletedRecords = new HashSet<>();
-		CSVParser csvParser = null;
-		if (csvInputFile != null && csvInputFile.exists()) {
-			csvParser = getCSVParser(csvInputFile);
-			if (csvParser != null) {
-				Collection<CSVRecord> inputCSVRecords = csvParser.getRecords();
-				inputCSVRecords.stream().forEach(rec -> {
-					// @CHECKSTYLE:OFF
-					String id = rec.get(CSVSettings.ID_COLUMN);
-					String toDelete = rec.get(CSVSettings.TO_DELETE_COLUMN);
-					if (id != null && !id.isEmpty() && toDelete != null && !toDelete.isEmpty()
-							&& !id.trim().startsWith("%") && getEObjectById(id) == null) {
-						deletedRecords.add(rec);
-					}
-					// @CHECKSTYLE:ON
-				});
+	protected boolean isDeltaExport() {
+		return this.csvSettings.isDeltaExport() && !this.afterImportFromCSVs;
+	}
+
+	protected DeltaExport createDeltaExport() {
+		return new DeltaExport(this);
+	}
+
+	protected boolean isIncrementalExport() {
+		return this.csvSettings.isIncrementalExport() && !this.afterImportFromCSVs && !isArchiveExport();
+	}
+
+	protected boolean isArchiveExport() {
+		return this.csvSettings.isArchiveExport();
+	}
+
+	protected boolean isCompressedFiles() {
+		// The entries of an archive are already compressed
+		return this.csvSettings.isCompressedFiles() && !isArchiveExport();
+	}
+
+	/**
+	 * Get the tracker of the changes of the model, if the export is incremental.
+	 * 
+	 * @return the tracker of the changes of the model, or <code>null</code> if
+	 *         all CSV files are regenerated.
+	 */
+	protected ExportChangeTracker getChangeTracker() {
+		if (isIncrementalExport() && this.siriusSession != null) {
+			return ExportChangeTracker.install(this.siriusSession);
+		}
+		return null;
+	}
+
+	/**
+	 * Get the CSV files to regenerate: the files of the classes changed since the
+	 * previous export, and the files modified since then.
+	 * 
+	 * @param changeTracker
+	 *            ExportChangeTracker
+	 * @return the names of the files to regenerate, or <code>null</code> if all
+	 *         files are regenerated.
+	 */
+	protected Set<String> getRegeneratedFiles(ExportChangeTracker changeTracker) {
+		String conversionDirectoryPath = this.csvSettings.getConversionDirectoryPath();
+		Set<String> modifiedFiles = changeTracker.getModifiedFiles(conversionDirectoryPath);
+		Set<EClass> changedClasses = changeTracker.startExport(conversionDirectoryPath, this.csvFormat,
+				this.csvSettings.getCharacterSet(), isCompressedFiles());
+		if (changedClasses == null) {
+			return null;
+		}
+		for (EClass changedClass : changedClasses) {
+			modifiedFiles.add(getCSVFileName(changedClass));
+		}
+		return modifiedFiles;
+	}
+
+	protected boolean isRegenerated(String csvFileName) {
+		return this.regeneratedFiles == null || this.regeneratedFiles.contains(csvFileName);
+	}
+
+	protected boolean isRegenerated(EClass eClass) {
+		if (this.regeneratedFiles == null) {
+			return true;
+		}
+		return this.regeneratedClasses.computeIfAbsent(eClass, c -> isRegenerated(getCSVFileName(c)));
+	}
+
+	protected boolean isParallelExport() {
+		return this.csvSettings.getExportParallelism() > 1;
+	}
+
+	protected ParallelExport createParallelExport() {
+		return new ParallelExport(this);
+	}
+
+	protected void generateEObjectCSV(EObject object, CSVFormat format, SubMonitor monitor) throws IOException {
+		ContainmentTraversal.traverse(object, ContainmentTraversal::getExportedChildren, element -> {
+			monitor.setWorkRemaining(100).split(1);
+			String id = EcoreUtil.getID(element);
+			if (id != null) {
+				this.liveIds.add(id);
 			}
+			return generateEObjectRecord(element, format);
+		});
+	}
+
+	protected Set<String> createLiveIdSet() {
+		if (isParallelExport()) {
+			return ConcurrentHashMap.newKeySet();
 		}
-		final String csvOutputFilePath;
-		if (this.afterImportFromCSVs) {
-			csvOutputFilePath = Paths.get(csvInputFilePath.getParent().toString(), CSVConstants.AFTER_FOLDER,
-					csvInputFilePath.getFileName().toString()).toString();
-		} else {
-			csvOutputFilePath = csvInputFilePath.toString().replace(CSVConstants.BEFORE_CSV, CSVConstants.CSV_EXT);
+		return new HashSet<>();
+	}
+
+	/**
+	 * Check if the element of the given id has been visited by the export. The
+	 * elements outside of the exported containment tree have no record, they are
+	 * not visited.
+	 * 
+	 * @param id
+	 *            the id of the element.
+	 * @return <code>true</code> if the element still exists.
+	 */
+	protected boolean isLive(String id) {
+		return this.liveIds.contains(id);
+	}
+
+	/**
+	 * Write the record of the given element, without its content.
+	 * 
+	 * @param object
+	 *            EObject
+	 * @param format
+	 *            CSVFormat
+	 * @return <code>true</code> if the content of the element has to be exported.
+	 * @throws IOException
+	 *             if the record cannot be written.
+	 */
+	protected boolean generateEObjectRecord(EObject object, CSVFormat format) throws IOException {
+		if (!isRegenerated(object.eClass())) {
+			return true;
+		}
+		File csvOutputFile = getOutputFile(object);
+		File csvInputFile = getInputFile(object);
+		String id = EcoreUtil.getID(object);
+		BeforeExportIndex.Entry existingRecord = this.beforeExportIndex.get(csvInputFile, id);
+
+		FeaturePlan plan = FeaturePlan.of(object.eClass());
+		this.featureValues = plan.getValues(object, this.featureValues);
+		List<Object> values = Arrays.asList(this.featureValues);
+		int attributesEnd = plan.getAttributes().size();
+		int nonContainmentReferencesEnd = attributesEnd + plan.getNonContainmentReferences().size();
+
+		CSVEncoder printer = this.printerPool.get(csvOutputFile);
+		if (printer == null) {
+			Collection<String> headerRecord = createHeaderRecord(plan.getAttributeNames(),
+					plan.getNonContainmentReferenceNames(), plan.getContainmentReferenceNames());
+			printer = this.printerPool.open(csvOutputFile, headerRecord.toArray(new String[headerRecord.size()]));
+			this.recordBuffer.ensureCapacity(headerRecord.size());
 		}
-		if (!Files.exists(Paths.get(csvOutputFilePath))) {
-			return;
+		RecordBuffer record = createRecord(object, values.subList(0, attributesEnd),
+				values.subList(attributesEnd, nonContainmentReferencesEnd),
+				values.subList(nonContainmentReferencesEnd, plan.getFeatureCount()), existingRecord);
+		record.print(printer);
+		if (this.deltaExport != null) {
+			this.deltaExport.handleRecord(csvInputFile, csvOutputFile.getName(), plan.getHeader(), record,
+					existingRecord);
 		}
-		Writer fstream = new OutputStreamWriter(new FileOutputStream(csvOutputFilePath, true),
-				this.csvSettings.getCharacterSet());
-		try (CSVPrinter printer = new CSVPrinter(fstream, format)) {
-			for (CSVRecord deletedRecord : deletedRecords) {
-				printer.printRecord(deletedRecord);
+		return true;
+	}
+
+	protected void generateDeletedEObjectCSV(CSVFormat format, SubMonitor monitor) throws IOException {
+		for (Map.Entry<String, File> inputFile : this.inputFiles.entrySet()) {
+			generateDeletedRecords(format, inputFile.getValue().toPath());
+			if (this.deltaExport != null) {
+				this.deltaExport.handleDeletedRecords(inputFile.getValue(), inputFile.getKey());
 			}
 		}
-		if (csvParser != null) {
-			csvParser.close();
+	}
+
+	protected void generateDeletedRecords(CSVFormat format, Path csvInputFilePath)
+			throws IOException, FileNotFoundException {
+		String csvInputFileName = csvInputFilePath.getFileName().toString();
+		final File csvOutputFile = new File(this.stagingDirectory,
+				getCSVFileName(CSVFiles.getTypeName(csvInputFileName)));
+		CSVEncoder printer = this.printerPool.get(csvOutputFile);
+		if (printer == null) {
+			if (!csvOutputFile.exists()) {
+				return;
+			}
+			printer = this.printerPool.open(csvOutputFile, null);
 		}
+		final CSVEncoder deletedRecordsPrinter = printer;
+		this.beforeExportIndex.forEachRecordToDelete(csvInputFilePath.toFile(), id -> !isLive(id),
+				deletedRecordsPrinter::printRecord);
 	}
 
 	protected File getInputFile(EObject object) {
-		String csvInputFilePath = this.csvSettings.getConversionDirectoryPath() + File.separator
-				+ getCSVFileName(object);
-		File csvInputFile = new File(csvInputFilePath);
-
-		if (!this.afterImportFromCSVs) {
-			String beforeCopyPath = this.csvSettings.getConversionDirectoryPath() + File.separator
-					+ getCSVFileNameWithSuffix(object, CSVConstants.BEFORE_SUFFIX);
-			csvInputFile = new File(beforeCopyPath);
+		String csvFileName = getCSVFileName(object);
+		File inputFile = this.inputFiles.get(csvFileName);
+		if (inputFile == null) {
+			return new File(this.csvSettings.getConversionDirectoryPath(), csvFileName);
 		}
-		return csvInputFile;
+		return inputFile;
 	}
 
 	protected File getOutputFile(EObject object) {
-		final File csvOutputFile;
-		if (this.afterImportFromCSVs) {
-			csvOutputFile = new File(this.csvSettings.getConversionDirectoryPath() + File.separator
-					+ CSVConstants.AFTER_FOLDER + File.separator + getCSVFileName(object));
-		} else {
-			csvOutputFile = new File(
-					this.csvSettings.getConversionDirectoryPath() + File.separator + getCSVFileName(object));
-		}
-		return csvOutputFile;
+		return new File(this.stagingDirectory, getCSVFileName(object));
 	}
 
 	protected CSVParser getCSVParser(File csvOutputFile) throws IOException {
+		return new CSVParser(CSVFiles.newReader(csvOutputFile, this.csvSettings.getCharacterSet()),
+				getCSVParserFormat());
+	}
+
+	protected CSVFormat getCSVParserFormat() {
 		// @formatter:off
-		CSVFormat csvParserFormat = CSVFormat.EXCEL
+		return CSVFormat.EXCEL
 				.withDelimiter(this.csvSettings.getFieldDelimiter())
 				.withQuoteMode(QuoteMode.ALL_NON_NULL)
 				.withQuote(this.csvSettings.getTextDelimiter())
@@ -405,33 +770,39 @@ public class CapellaToCSVConverter {
 				.withIgnoreEmptyLines()
 				.withNullString("");
 		// @formatter:on
-		return new CSVParser(new FileReader(csvOutputFile), csvParserFormat);
-	}
-
-	protected Collection<String> createHeaderRecord(Set<String> attributes, Set<String> nonContainmentReferences,
-			Set<String> containmentReferences) {
-		Collection<String> record = new LinkedList<>();
-		record.add(CSVSettings.TO_CREATE_COLUMN);
-		record.add(CSVSettings.CREATION_DATE_COLUMN);
-		record.add(CSVSettings.CREATION_TIME_COLUMN);
-		record.add(CSVSettings.TO_UPDATE_COLUMN);
-		record.add(CSVSettings.LAST_UPDATE_DATE_COLUMN);
-		record.add(CSVSettings.LAST_UPDATE_TIME_COLUMN);
-		record.add(CSVSettings.TO_DELETE_COLUMN);
-		record.add(CSVSettings.DELETION_DATE_COLUMN);
-		record.add(CSVSettings.DELETION_TIME_COLUMN);
+	}
+
+	protected BeforeExportIndex createBeforeExportIndex() {
+		// The extracted files of an archive are deleted at the end of the export, they are not mapped
+		if (this.csvSettings.isMappedBeforeExportIndex() && !isArchiveExport()
+				&& MappedBeforeExportIndex.isSupported()) {
+			return new MappedBeforeExportIndex(this);
+		}
+		return new BeforeExportIndex(this);
+	}
+
+	protected Collection<String> createHeaderRecord(Collection<String> attributes,
+			Collection<String> nonContainmentReferences, Collection<String> containmentReferences) {
+		Collection<String> record = new LinkedList<>(CSVSettings.MANAGEMENT_COLUMNS);
 		record.addAll(attributes);
 		record.addAll(nonContainmentReferences);
 		record.addAll(containmentReferences);
 		return record;
 	}
 
-	protected Collection<Object> createRecord(EObject object, Collection<Object> attributes,
+	protected RecordBuffer createRecord(EObject object, Collection<Object> attributes,
 			Collection<Object> nonContainmentReferences, Collection<Object> containmentReferences,
-			Map<String, CSVRecord> idToCSVRecordMap) {
-		CSVRecord existingRecord = idToCSVRecordMap.get(EcoreUtil.getID(object));
+			BeforeExportIndex.Entry existingRecord) {
+		RecordBuffer record = this.recordBuffer;
+		record.clear();
+		managementRecordPart(object, existingRecord, record);
+		record.addAll(attributes);
+		referencesRecordPart(nonContainmentReferences, record);
+		referencesRecordPart(containmentReferences, record);
+		return record;
+	}
 
-		LinkedList<Object> record = new LinkedList<>();
+	protected void managementRecordPart(EObject object, BeforeExportIndex.Entry existingRecord, RecordBuffer record) {
 		record.add(handleCreationField(object));
 		record.add(handleCreationDateField(object, existingRecord));
 		record.add(handleCreationTimeField(object, existingRecord));
@@ -441,29 +812,38 @@ public class CapellaToCSVConverter {
 		record.add(handleDeletionField(object));
 		record.add(handleDeletionDateField(object, existingRecord));
 		record.add(handleDeletionTimeField(object, existingRecord));
-		record.addAll(attributes);
-		record.addAll(referencesRecordPart(nonContainmentReferences));
-		record.addAll(referencesRecordPart(containmentReferences));
-		return record;
+	}
+
+	/**
+	 * Compute the date and time of the export, used for all records.
+	 */
+	protected void initExportTimestamp() {
+		OffsetDateTime now = OffsetDateTime.now();
+		this.exportDate = now.format(DATE_FORMATTER);
+		this.exportTime = now.toOffsetTime().format(DateTimeFormatter.ISO_OFFSET_TIME);
 	}
 
 	protected String genTodayDate() {
-		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-		return OffsetDateTime.now().format(formatter);
+		if (this.exportDate != null) {
+			return this.exportDate;
+		}
+		return OffsetDateTime.now().format(DATE_FORMATTER);
 	}
 
 	protected String genNowTime() {
-		DateTimeFormatter formatter = DateTimeFormatter.ISO_OFFSET_TIME;
-		return OffsetTime.now().format(formatter);
+		if (this.exportTime != null) {
+			return this.exportTime;
+		}
+		return OffsetTime.now().format(DateTimeFormatter.ISO_OFFSET_TIME);
 	}
 
 	protected String handleCreationField(EObject object) {
 		return null;
 	}
 
-	protected String handleCreationDateField(EObject object, CSVRecord existingRecord) {
+	protected String handleCreationDateField(EObject object, BeforeExportIndex.Entry existingRecord) {
 		if (existingRecord != null) {
-			String existingDate = existingRecord.get(CSVSettings.CREATION_DATE_COLUMN);
+			String existingDate = existingRecord.getCreationDate();
 			if (existingDate != null && !existingDate.isEmpty()) {
 				return existingDate;
 			}
@@ -471,9 +851,9 @@ public class CapellaToCSVConverter {
 		return genTodayDate();
 	}
 
-	protected String handleCreationTimeField(EObject object, CSVRecord existingRecord) {
+	protected String handleCreationTimeField(EObject object, BeforeExportIndex.Entry existingRecord) {
 		if (existingRecord != null) {
-			String existingTime = existingRecord.get(CSVSettings.CREATION_TIME_COLUMN);
+			String existingTime = existingRecord.getCreationTime();
 			if (existingTime != null && !existingTime.isEmpty()) {
 				return existingTime;
 			}
@@ -485,11 +865,11 @@ public class CapellaToCSVConverter {
 		return null;
 	}
 
-	protected String handleLastUpdateDateField(EObject object, CSVRecord existingRecord) {
+	protected String handleLastUpdateDateField(EObject object, BeforeExportIndex.Entry existingRecord) {
 		return genTodayDate();
 	}
 
-	protected String handleLastUpdateTimeField(EObject object, CSVRecord existingRecord) {
+	protected String handleLastUpdateTimeField(EObject object, BeforeExportIndex.Entry existingRecord) {
 		return genNowTime();
 	}
 
@@ -497,9 +877,9 @@ public class CapellaToCSVConverter {
 		return null;
 	}
 
-	protected String handleDeletionDateField(EObject object, CSVRecord existingRecord) {
+	protected String handleDeletionDateField(EObject object, BeforeExportIndex.Entry existingRecord) {
 		if (existingRecord != null) {
-			String existingDate = existingRecord.get(CSVSettings.DELETION_DATE_COLUMN);
+			String existingDate = existingRecord.getDeletionDate();
 			if (existingDate != null && !existingDate.isEmpty()) {
 				return existingDate;
 			}
@@ -507,9 +887,9 @@ public class CapellaToCSVConverter {
 		return null;
 	}
 
-	protected String handleDeletionTimeField(EObject object, CSVRecord existingRecord) {
+	protected String handleDeletionTimeField(EObject object, BeforeExportIndex.Entry existingRecord) {
 		if (existingRecord != null) {
-			String existingTime = existingRecord.get(CSVSettings.DELETION_TIME_COLUMN);
+			String existingTime = existingRecord.getDeletionTime();
 			if (existingTime != null && !existingTime.isEmpty()) {
 				return existingTime;
 			}
@@ -517,61 +897,62 @@ public class CapellaToCSVConverter {
 		return null;
 	}
 
-	protected Collection<Object> referencesRecordPart(Collection<Object> references) {
-		Collection<Object> record = new LinkedList<>();
+	protected void referencesRecordPart(Collection<Object> references, RecordBuffer record) {
 		for (Object ref : references) {
 			if (ref instanceof EObject) {
 				record.add(EcoreUtil.getID((EObject) ref));
 				nbReferences++;
 			} else if (ref instanceof Collection<?>) {
-				Collection<String> arrayCell = new LinkedList<>();
+				StringBuilder arrayCell = startListCell();
 				for (Object valueItem : (Collection<?>) ref) {
 					if (valueItem instanceof EObject) {
-						arrayCell.add(EcoreUtil.getID((EObject) valueItem));
+						addListCellItem(arrayCell, EcoreUtil.getID((EObject) valueItem));
 						nbReferences++;
 					}
 				}
-				if (arrayCell.isEmpty()) {
-					record.add(null);
-				} else {
-					record.add(CSVSettings.LIST_BEGIN + String.join(CSVSettings.LIST_SEPARATOR, arrayCell)
-							+ CSVSettings.LIST_END);
-				}
+				record.add(endListCell(arrayCell));
 			} else if (ref == null) {
 				record.add(null);
 			}
 		}
-		return record;
 	}
 
-	protected void handleChildren(Map<String, Object> containmentReferences, CSVFormat format, SubMonitor monitor)
-			throws IOException {
-		SubMonitor subMonitor = monitor.split(1);
-		for (Entry<String, Object> entry : containmentReferences.entrySet()) {
-			Object value = entry.getValue();
-			if (value instanceof EObject) {
-				generateEObjectCSV((EObject) value, format, subMonitor);
-			} else if (value instanceof Collection<?>) {
-				handleManyChildren(value, format, subMonitor);
-			}
+	protected StringBuilder startListCell() {
+		StringBuilder arrayCell = this.listCellBuilder;
+		arrayCell.setLength(0);
+		return arrayCell;
+	}
+
+	protected void addListCellItem(StringBuilder arrayCell, String item) {
+		if (arrayCell.length() == 0) {
+			arrayCell.append(CSVSettings.LIST_BEGIN);
+		} else {
+			arrayCell.append(CSVSettings.LIST_SEPARATOR);
 		}
+		arrayCell.append(item);
 	}
 
-	protected void handleManyChildren(Object value, CSVFormat format, SubMonitor monitor) throws IOException {
-		for (Object valueItem : (Collection<?>) value) {
-			if (valueItem instanceof EObject) {
-				generateEObjectCSV((EObject) valueItem, format, monitor);
-			}
+	protected String endListCell(StringBuilder arrayCell) {
+		if (arrayCell.length() == 0) {
+			return null;
 		}
+		return arrayCell.append(CSVSettings.LIST_END).toString();
 	}
 
 	protected String getCSVFileName(EObject object) {
-		return object.eClass().getEPackage().getName() + "." + object.eClass().getName() + CSVConstants.CSV_EXT;
+		return getCSVFileName(object.eClass());
+	}
+
+	protected String getCSVFileName(EClass eClass) {
+		return getCSVFileName(eClass.getEPackage().getName() + "." + eClass.getName());
+	}
+
+	protected String getCSVFileName(String typeName) {
+		return typeName + CSVFiles.getExtension(isCompressedFiles());
 	}
 
 	protected String getCSVFileNameWithSuffix(EObject object, String suffix) {
-		return object.eClass().getEPackage().getName() + "." + object.eClass().getName() + suffix
-				+ CSVConstants.CSV_EXT;
+		return getCSVFileName(object.eClass().getEPackage().getName() + "." + object.eClass().getName() + suffix);
 	}
 
 	public void setAfterImportFromCSVs(boolean after) {
@@ -0,0 +1,57 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.export;
+
+/**
+ * A 64-bit FNV-1a hash of the data cells of a record, used to detect the
+ * records updated since the previous export without keeping their content.
+ * Empty and <code>null</code> cells hash the same; the records of the previous
+ * export are hashed up to the width of their header, their missing cells being
+ * hashed as empty ones.
+ */
+public final class ContentHash {
+
+	/**
+	 * The hash of a record without cells.
+	 */
+	public static final long EMPTY = 0xcbf29ce484222325L;
+
+	/**
+	 * The FNV prime.
+	 */
+	private static final long PRIME = 0x100000001b3L;
+
+	/**
+	 * Mixed after each cell, so that the cells boundaries are part of the hash.
+	 */
+	private static final char CELL_SEPARATOR = '\u001f';
+
+	private ContentHash() {
+	}
+
+	/**
+	 * Add a cell to a hash.
+	 * 
+	 * @param hash
+	 *            the hash of the previous cells.
+	 * @param cell
+	 *            the value of the cell, may be <code>null</code>.
+	 * @return the hash of the previous cells and this one.
+	 */
+	public static long add(long hash, CharSequence cell) {
+		long result = hash;
+		if (cell != null) {
+			for (int i = 0; i < cell.length(); i++) {
+				result = (result ^ cell.charAt(i)) * PRIME;
+			}
+		}
+		return (result ^ CELL_SEPARATOR) * PRIME;
+	}
+}
@@ -0,0 +1,261 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.csv.CSVRecord;
+
+import com.navalgroup.conversion.capella.csv.core.CSVConstants;
+import com.navalgroup.conversion.capella.csv.core.CSVEncoder;
+import com.navalgroup.conversion.capella.csv.core.CSVSettings;
+
+/**
+ * Writes the records created, updated or deleted since the previous export
+ * into the {@link CSVConstants#DELTA_FOLDER} folder of the export, with their
+ * "To create", "To update" or "To delete" cell marked.
+ * <p>
+ * The records are compared with the records of the previous export through
+ * the content hash kept by the {@link BeforeExportIndex}. A record is updated if one of its data cells
+ * changed, the management cells (dates, times and marks) are ignored. A record
+ * is deleted if its element is no longer exported, unless it was already marked
+ * "To delete" in the previous export.
+ * </p>
+ */
+public class DeltaExport {
+
+	/**
+	 * The mark of the "To create", "To update" and "To delete" cells.
+	 */
+	public static final String MARK = "x";
+
+	/**
+	 * The index of the "To create" cell.
+	 */
+	private static final int TO_CREATE_CELL = CSVSettings.MANAGEMENT_COLUMNS.indexOf(CSVSettings.TO_CREATE_COLUMN);
+
+	/**
+	 * The index of the "To update" cell.
+	 */
+	private static final int TO_UPDATE_CELL = CSVSettings.MANAGEMENT_COLUMNS.indexOf(CSVSettings.TO_UPDATE_COLUMN);
+
+	/**
+	 * The index of the "To delete" cell.
+	 */
+	private static final int TO_DELETE_CELL = CSVSettings.MANAGEMENT_COLUMNS.indexOf(CSVSettings.TO_DELETE_COLUMN);
+
+	/**
+	 * The index of the "Deletion date" cell.
+	 */
+	private static final int DELETION_DATE_CELL = CSVSettings.MANAGEMENT_COLUMNS
+			.indexOf(CSVSettings.DELETION_DATE_COLUMN);
+
+	/**
+	 * The index of the "Deletion time" cell.
+	 */
+	private static final int DELETION_TIME_CELL = CSVSettings.MANAGEMENT_COLUMNS
+			.indexOf(CSVSettings.DELETION_TIME_COLUMN);
+
+	/**
+	 * The converter running the export.
+	 */
+	protected CapellaToCSVConverter converter;
+
+	/**
+	 * The folder of the delta files, in the staging directory.
+	 */
+	protected File deltaDirectory;
+
+	/**
+	 * The printers of the delta files.
+	 */
+	protected CSVPrinterPool printerPool;
+
+	/**
+	 * If the header of the previous export is the header of this export, by file
+	 * name of the previous export. The content hashes of the previous records are only comparable
+	 * if it is.
+	 */
+	protected Map<String, Boolean> sameHeaders = new ConcurrentHashMap<>();
+
+	/**
+	 * The cells of a deleted record.
+	 */
+	protected RecordBuffer deletedRecord = new RecordBuffer();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param converter
+	 *            the converter running the export.
+	 */
+	public DeltaExport(CapellaToCSVConverter converter) {
+		this.converter = converter;
+		this.printerPool = new CSVPrinterPool(converter.csvFormat, converter.csvSettings.getCharacterSet());
+	}
+
+	/**
+	 * Create the folder of the delta files in the staging directory of the
+	 * export.
+	 * 
+	 * @throws IOException
+	 *             if the folder cannot be created.
+	 */
+	public void prepare() throws IOException {
+		this.deltaDirectory = Files
+				.createDirectory(this.converter.stagingDirectory.toPath().resolve(CSVConstants.DELTA_FOLDER))
+				.toFile();
+	}
+
+	/**
+	 * Write the given exported record if it is created or updated since the
+	 * previous export.
+	 * 
+	 * @param csvInputFile
+	 *            the CSV file of the previous export.
+	 * @param csvFileName
+	 *            the name of the CSV file of the record.
+	 * @param header
+	 *            the header of the CSV file.
+	 * @param record
+	 *            the exported record.
+	 * @param existingRecord
+	 *            the record of the previous export, <code>null</code> if the
+	 *            element is created.
+	 * @throws IOException
+	 *             if the record cannot be written.
+	 */
+	public void handleRecord(File csvInputFile, String csvFileName, List<String> header, RecordBuffer record,
+			BeforeExportIndex.Entry existingRecord) throws IOException {
+		int markedCell;
+		if (existingRecord == null) {
+			markedCell = TO_CREATE_CELL;
+		} else if (!isSameHeader(csvInputFile, header) || existingRecord.getContentHash() != hash(record)) {
+			markedCell = TO_UPDATE_CELL;
+		} else {
+			return;
+		}
+		Object previousValue = record.get(markedCell);
+		record.set(markedCell, MARK);
+		print(csvFileName, header, record);
+		record.set(markedCell, previousValue);
+	}
+
+	/**
+	 * Write the records of the given file of the previous export whose element is
+	 * no longer exported.
+	 * 
+	 * @param csvInputFile
+	 *            the CSV file of the previous export.
+	 * @param csvFileName
+	 *            the name of the CSV file of the records.
+	 * @throws IOException
+	 *             if the records cannot be written.
+	 */
+	public void handleDeletedRecords(File csvInputFile, String csvFileName) throws IOException {
+		String[] header = this.converter.beforeExportIndex.getHeader(csvInputFile);
+		if (header == null) {
+			return;
+		}
+		List<String> headerRecord = Arrays.asList(header);
+		int idCell = headerRecord.indexOf(CSVSettings.ID_COLUMN);
+		if (idCell < 0) {
+			return;
+		}
+		// The records of the elements still exported are not decoded
+		this.converter.beforeExportIndex.forEachRecord(csvInputFile, id -> !this.converter.isLive(id), rec -> {
+			String id = rec.get(idCell);
+			if (!isDeleted(rec, id)) {
+				return;
+			}
+			RecordBuffer record = this.deletedRecord;
+			record.clear();
+			record.ensureCapacity(rec.size());
+			for (int i = 0; i < rec.size(); i++) {
+				record.add(rec.get(i));
+			}
+			record.set(TO_DELETE_CELL, MARK);
+			record.set(DELETION_DATE_CELL, this.converter.genTodayDate());
+			record.set(DELETION_TIME_CELL, this.converter.genNowTime());
+			print(csvFileName, headerRecord, record);
+		});
+	}
+
+	/**
+	 * Check if a record of the previous export has to be written as deleted,
+	 * when its element is no longer exported.
+	 * 
+	 * @param rec
+	 *            the record of the previous export.
+	 * @param id
+	 *            the id of the record.
+	 * @return <code>true</code> if the record has to be written as deleted.
+	 */
+	protected boolean isDeleted(CSVRecord rec, String id) {
+		if (id == null || id.isEmpty() || id.trim().startsWith("%") || rec.size() <= DELETION_TIME_CELL) {
+			return false;
+		}
+		String toDelete = rec.get(TO_DELETE_CELL);
+		return toDelete == null || toDelete.isEmpty();
+	}
+
+	private boolean isSameHeader(File csvInputFile, List<String> header) {
+		return this.sameHeaders.computeIfAbsent(csvInputFile.getName(), k -> {
+			String[] previousHeader = this.converter.beforeExportIndex.getHeader(csvInputFile);
+			return previousHeader != null && Arrays.asList(previousHeader).equals(header);
+		});
+	}
+
+	/**
+	 * Compute the content hash of the data cells of an exported record.
+	 * 
+	 * @param record
+	 *            the exported record.
+	 * @return the content hash.
+	 */
+	protected long hash(RecordBuffer record) {
+		long hash = ContentHash.EMPTY;
+		for (int i = CSVSettings.MANAGEMENT_COLUMNS.size(); i < record.size(); i++) {
+			Object value = record.get(i);
+			if (value == null) {
+				hash = ContentHash.add(hash, null);
+			} else {
+				hash = ContentHash.add(hash, value.toString());
+			}
+		}
+		return hash;
+	}
+
+	private synchronized void print(String csvFileName, List<String> header, RecordBuffer record)
+			throws IOException {
+		File deltaFile = new File(this.deltaDirectory, csvFileName);
+		CSVEncoder printer = this.printerPool.get(deltaFile);
+		if (printer == null) {
+			printer = this.printerPool.open(deltaFile, header.toArray(new String[header.size()]));
+		}
+		record.print(printer);
+	}
+
+	/**
+	 * Close the delta files.
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be closed.
+	 */
+	public void close() throws IOException {
+		this.printerPool.close();
+	}
+}
@@ -0,0 +1,357 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.export;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.csv.CSVFormat;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.transaction.NotificationFilter;
+import org.eclipse.emf.transaction.ResourceSetChangeEvent;
+import org.eclipse.emf.transaction.ResourceSetListenerImpl;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.sirius.business.api.session.Session;
+import org.eclipse.sirius.business.api.session.SessionListener;
+
+import com.navalgroup.conversion.capella.csv.core.CSVFiles;
+
+/**
+ * Records the classes of the elements changed since the last export of an
+ * editing domain: the classes of the modified elements, and the classes of the
+ * elements added or removed with all their content.
+ * <p>
+ * The tracker also remembers the directory, the format and the CSV files of
+ * the last export, so that an incremental export is only done on top of a
+ * complete and unchanged previous export. Any change the tracker cannot map to
+ * classes (a resource loaded or unloaded, an identifier modified) invalidates
+ * the previous export, and the next export is then complete.
+ * </p>
+ * <p>
+ * The tracker of an editing domain is found through an adapter of its resource
+ * set, so that nothing outlives the resource set. The tracker of a session is
+ * uninstalled when the session closes.
+ * </p>
+ */
+public class ExportChangeTracker extends ResourceSetListenerImpl {
+
+	/**
+	 * The classes changed since the last export.
+	 */
+	private final Set<EClass> dirtyClasses = new HashSet<>();
+
+	/**
+	 * The directory of the last export, <code>null</code> if there is no valid
+	 * previous export.
+	 */
+	private String exportDirectoryPath;
+
+	/**
+	 * The format of the last export.
+	 */
+	private CSVFormat exportFormat;
+
+	/**
+	 * The character set of the last export.
+	 */
+	private Charset exportCharset;
+
+	/**
+	 * If the CSV files of the last export are compressed.
+	 */
+	private boolean exportCompressed;
+
+	/**
+	 * The last modification time of each CSV file of the last export, by file
+	 * name.
+	 */
+	private Map<String, Long> exportedFiles = Collections.emptyMap();
+
+	/**
+	 * Constructor.
+	 */
+	protected ExportChangeTracker() {
+		super(NotificationFilter.NOT_TOUCH);
+	}
+
+	/**
+	 * Get the tracker of the editing domain of the given session, installing it
+	 * the first time until the session closes.
+	 * 
+	 * @param session
+	 *            Session
+	 * @return the tracker of the session, or <code>null</code> if the session
+	 *         has no editing domain.
+	 */
+	public static ExportChangeTracker install(Session session) {
+		TransactionalEditingDomain domain = session.getTransactionalEditingDomain();
+		if (domain == null) {
+			return null;
+		}
+		synchronized (ExportChangeTracker.class) {
+			ExportChangeTracker tracker = getTracker(domain);
+			if (tracker == null) {
+				ExportChangeTracker sessionTracker = install(domain);
+				session.addListener(new SessionListener() {
+					@Override
+					public void notify(int changeKind) {
+						if (changeKind == SessionListener.CLOSING) {
+							sessionTracker.uninstall();
+						}
+					}
+				});
+				tracker = sessionTracker;
+			}
+			return tracker;
+		}
+	}
+
+	/**
+	 * Get the tracker of the given editing domain, installing it the first time
+	 * until {@link #uninstall()}.
+	 * 
+	 * @param domain
+	 *            TransactionalEditingDomain
+	 * @return the tracker of the editing domain.
+	 */
+	public static ExportChangeTracker install(TransactionalEditingDomain domain) {
+		synchronized (ExportChangeTracker.class) {
+			ExportChangeTracker tracker = getTracker(domain);
+			if (tracker == null) {
+				tracker = new ExportChangeTracker();
+				domain.addResourceSetListener(tracker);
+				domain.getResourceSet().eAdapters().add(new TrackerAdapter(tracker));
+			}
+			return tracker;
+		}
+	}
+
+	private static ExportChangeTracker getTracker(TransactionalEditingDomain domain) {
+		TrackerAdapter adapter = (TrackerAdapter) EcoreUtil.getExistingAdapter(domain.getResourceSet(),
+				ExportChangeTracker.class);
+		if (adapter == null) {
+			return null;
+		}
+		return adapter.tracker;
+	}
+
+	/**
+	 * Stop tracking the changes of the editing domain.
+	 */
+	public void uninstall() {
+		synchronized (ExportChangeTracker.class) {
+			TransactionalEditingDomain domain = getTarget();
+			if (domain != null) {
+				ResourceSet resourceSet = domain.getResourceSet();
+				resourceSet.eAdapters().removeIf(
+						adapter -> adapter instanceof TrackerAdapter && ((TrackerAdapter) adapter).tracker == this);
+				domain.removeResourceSetListener(this);
+			}
+		}
+		invalidate();
+	}
+
+	@Override
+	public boolean isPostcommitOnly() {
+		return true;
+	}
+
+	@Override
+	public void resourceSetChanged(ResourceSetChangeEvent event) {
+		synchronized (this) {
+			for (Notification notification : event.getNotifications()) {
+				handleNotification(notification);
+			}
+		}
+	}
+
+	/**
+	 * Record the classes changed by a notification.
+	 * 
+	 * @param notification
+	 *            Notification
+	 */
+	protected void handleNotification(Notification notification) {
+		Object notifier = notification.getNotifier();
+		Object feature = notification.getFeature();
+		if (notifier instanceof EObject) {
+			EObject object = (EObject) notifier;
+			if (feature == object.eClass().getEIDAttribute()) {
+				// The identifier is used by the records of the referencing elements
+				invalidate();
+			} else {
+				this.dirtyClasses.add(object.eClass());
+				if (feature instanceof EReference && ((EReference) feature).isContainment()) {
+					addContentClasses(notification.getOldValue());
+					addContentClasses(notification.getNewValue());
+				}
+			}
+		} else if (notifier instanceof Resource) {
+			if (notification.getFeatureID(Resource.class) == Resource.RESOURCE__CONTENTS) {
+				addContentClasses(notification.getOldValue());
+				addContentClasses(notification.getNewValue());
+			} else if (notification.getFeatureID(Resource.class) == Resource.RESOURCE__IS_LOADED) {
+				invalidate();
+			}
+		}
+	}
+
+	private void addContentClasses(Object value) {
+		if (value instanceof EObject) {
+			EObject object = (EObject) value;
+			this.dirtyClasses.add(object.eClass());
+			for (Iterator<EObject> it = object.eAllContents(); it.hasNext();) {
+				this.dirtyClasses.add(it.next().eClass());
+			}
+		} else if (value instanceof Collection<?>) {
+			for (Object valueItem : (Collection<?>) value) {
+				addContentClasses(valueItem);
+			}
+		}
+	}
+
+	/**
+	 * Start an export, returning the classes changed since the previous export
+	 * done in the same directory with the same format. The changes done from now
+	 * on are recorded for the next export.
+	 * 
+	 * @param directoryPath
+	 *            the directory of the export.
+	 * @param format
+	 *            the format of the export.
+	 * @param charset
+	 *            the character set of the export.
+	 * @param compressed
+	 *            if the CSV files of the export are compressed.
+	 * @return the changed classes, or <code>null</code> if the export has to be
+	 *         complete.
+	 */
+	public synchronized Set<EClass> startExport(String directoryPath, CSVFormat format, Charset charset,
+			boolean compressed) {
+		Set<EClass> changes = null;
+		if (directoryPath.equals(this.exportDirectoryPath) && format.equals(this.exportFormat)
+				&& charset.equals(this.exportCharset) && compressed == this.exportCompressed) {
+			changes = new HashSet<>(this.dirtyClasses);
+		}
+		this.dirtyClasses.clear();
+		this.exportDirectoryPath = null;
+		return changes;
+	}
+
+	/**
+	 * Get the CSV files of the previous export modified or deleted since then,
+	 * and the CSV files added since then.
+	 * 
+	 * @param directoryPath
+	 *            the directory of the export.
+	 * @return the names of the modified files.
+	 */
+	public synchronized Set<String> getModifiedFiles(String directoryPath) {
+		Map<String, Long> files = listCSVFiles(directoryPath);
+		Set<String> modifiedFiles = new HashSet<>();
+		for (Map.Entry<String, Long> file : files.entrySet()) {
+			if (!file.getValue().equals(this.exportedFiles.get(file.getKey()))) {
+				modifiedFiles.add(file.getKey());
+			}
+		}
+		for (String fileName : this.exportedFiles.keySet()) {
+			if (!files.containsKey(fileName)) {
+				modifiedFiles.add(fileName);
+			}
+		}
+		return modifiedFiles;
+	}
+
+	/**
+	 * Record a successful export, the base of the next incremental export.
+	 * 
+	 * @param directoryPath
+	 *            the directory of the export.
+	 * @param format
+	 *            the format of the export.
+	 * @param charset
+	 *            the character set of the export.
+	 * @param compressed
+	 *            if the CSV files of the export are compressed.
+	 */
+	public synchronized void exportDone(String directoryPath, CSVFormat format, Charset charset,
+			boolean compressed) {
+		this.exportDirectoryPath = directoryPath;
+		this.exportFormat = format;
+		this.exportCharset = charset;
+		this.exportCompressed = compressed;
+		this.exportedFiles = listCSVFiles(directoryPath);
+	}
+
+	/**
+	 * Forget the previous export, the next export is complete.
+	 */
+	public synchronized void invalidate() {
+		this.exportDirectoryPath = null;
+		this.exportFormat = null;
+		this.exportCharset = null;
+		this.exportCompressed = false;
+		this.exportedFiles = Collections.emptyMap();
+		this.dirtyClasses.clear();
+	}
+
+	private static Map<String, Long> listCSVFiles(String directoryPath) {
+		Map<String, Long> files = new HashMap<>();
+		File[] directoryFiles = new File(directoryPath).listFiles();
+		if (directoryFiles != null) {
+			for (File file : directoryFiles) {
+				if (CSVFiles.isCSVFile(file.getName())) {
+					files.put(file.getName(), file.lastModified());
+				}
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * The adapter of the resource set of an editing domain giving its tracker.
+	 */
+	private static final class TrackerAdapter extends AdapterImpl {
+
+		/**
+		 * The tracker of the editing domain.
+		 */
+		private final ExportChangeTracker tracker;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param tracker
+		 *            the tracker of the editing domain.
+		 */
+		TrackerAdapter(ExportChangeTracker tracker) {
+			this.tracker = tracker;
+		}
+
+		@Override
+		public boolean isAdapterForType(Object type) {
+			return type == ExportChangeTracker.class;
+		}
+	}
+}
@@ -0,0 +1,929 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import com.navalgroup.conversion.capella.csv.core.CSVFiles;
+import com.navalgroup.conversion.capella.csv.core.CSVSettings;
+
+/**
+ * An index of the records of the previous export backed by memory-mapped
+ * files. Only the byte offset and length of each record is kept in memory, in
+ * primitive arrays, with a table of the 64-bit hashes of the ids; the ids and
+ * the cells of a record are decoded from the mapped file when they are needed.
+ * <p>
+ * The character sets used for the CSV files (windows-1252, UTF-8 and
+ * ISO-8859-1) all encode the field and text delimiters and the line separators
+ * as single ASCII bytes, which allows the records to be delimited without
+ * decoding the file. Files which cannot be mapped are indexed in memory, small
+ * files are read into a heap buffer instead of being mapped.
+ * </p>
+ * <p>
+ * A file is mapped by chunks of at most {@link #CHUNK_SIZE} bytes, so files of
+ * any size can be mapped. The mappings are released by {@link #clear()},
+ * before the files of the previous export are replaced: Windows does not allow
+ * a file to be replaced while it is mapped (see {@link #isSupported()}).
+ * </p>
+ */
+public class MappedBeforeExportIndex extends BeforeExportIndex {
+
+	/**
+	 * The default size of the chunks of a mapped file.
+	 */
+	public static final int CHUNK_SIZE = 1 << 30;
+
+	/**
+	 * Carriage return.
+	 */
+	private static final byte CR = '\r';
+
+	/**
+	 * Line feed.
+	 */
+	private static final byte LF = '\n';
+
+	/**
+	 * The greatest value of an ASCII character.
+	 */
+	private static final char MAX_ASCII = 0x7F;
+
+	/**
+	 * The initial capacity of the record arrays of a file.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * The initial capacity of the cell arrays of a record.
+	 */
+	private static final int INITIAL_CELL_CAPACITY = 64;
+
+	/**
+	 * The size up to which a file is read into a heap buffer rather than mapped.
+	 */
+	private static final long HEAP_BUFFER_MAX_SIZE = 1024 * 1024;
+
+	/**
+	 * The indexed files, by file name.
+	 */
+	protected Map<String, MappedFile> mappedFiles;
+
+	/**
+	 * The number of bits of the offset of a byte in its chunk.
+	 */
+	private final int chunkShift;
+
+	/**
+	 * The scanner reading the records of the indexed files.
+	 */
+	private final RecordScanner fileScanner = new RecordScanner();
+
+	/**
+	 * The scanner of each thread looking up the records of the indexed files,
+	 * the exported elements being looked up by the threads of a parallel export.
+	 */
+	private final ThreadLocal<RecordScanner> lookupScanners = ThreadLocal.withInitial(RecordScanner::new);
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param converter
+	 *            the converter owning this index.
+	 */
+	public MappedBeforeExportIndex(CapellaToCSVConverter converter) {
+		this(converter, CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param converter
+	 *            the converter owning this index.
+	 * @param chunkSize
+	 *            the size of the chunks of a mapped file, a power of two.
+	 */
+	public MappedBeforeExportIndex(CapellaToCSVConverter converter, int chunkSize) {
+		super(converter);
+		if (chunkSize <= 0 || Integer.bitCount(chunkSize) != 1) {
+			throw new IllegalArgumentException("The size of the chunks must be a power of two: " + chunkSize);
+		}
+		this.mappedFiles = new HashMap<>();
+		this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+	}
+
+	/**
+	 * Check if the files of the previous export can be mapped. The export
+	 * replaces them once done, which fails on Windows while they are mapped: the
+	 * mappings must then be released explicitly, which relies on the internals of
+	 * the JVM.
+	 * 
+	 * @return <code>false</code> on Windows if the JVM does not allow to release
+	 *         a mapping.
+	 */
+	public static boolean isSupported() {
+		return Unmapper.isAvailable()
+				|| !System.getProperty("os.name", "").startsWith("Windows"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Override
+	public void index(File csvFile) throws IOException {
+		if (!csvFile.exists()) {
+			return;
+		}
+		if (CSVFiles.isCompressed(csvFile)) {
+			// A compressed file is decompressed as a stream and indexed in memory
+			super.index(csvFile);
+			return;
+		}
+		CSVSettings csvSettings = this.converter.csvSettings;
+		Character textDelimiter = csvSettings.getTextDelimiter();
+		if (csvSettings.getFieldDelimiter() > MAX_ASCII || (textDelimiter != null && textDelimiter > MAX_ASCII)) {
+			Activator.logWarning(
+					"The file " + csvFile.getName() + " cannot be memory-mapped, it is indexed in memory.");
+			super.index(csvFile);
+			return;
+		}
+		ByteBuffer[] chunks;
+		long length = csvFile.length();
+		if (length <= HEAP_BUFFER_MAX_SIZE && length <= 1L << this.chunkShift) {
+			chunks = new ByteBuffer[] { ByteBuffer.wrap(Files.readAllBytes(csvFile.toPath())) };
+		} else {
+			chunks = map(csvFile);
+		}
+		MappedFile mappedFile = new MappedFile(chunks);
+		// Released by clear() even if the file cannot be scanned
+		this.mappedFiles.put(csvFile.getName(), mappedFile);
+		mappedFile.scan();
+	}
+
+	private ByteBuffer[] map(File csvFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(csvFile.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long chunkSize = 1L << this.chunkShift;
+			ByteBuffer[] chunks = new ByteBuffer[(int) ((size + chunkSize - 1) >>> this.chunkShift)];
+			try {
+				for (int i = 0; i < chunks.length; i++) {
+					long position = (long) i << this.chunkShift;
+					chunks[i] = channel.map(MapMode.READ_ONLY, position, Math.min(chunkSize, size - position));
+				}
+			} catch (IOException e) {
+				for (ByteBuffer chunk : chunks) {
+					Unmapper.unmap(chunk);
+				}
+				throw e;
+			}
+			return chunks;
+		}
+	}
+
+	@Override
+	public Entry get(File csvFile, String id) {
+		if (csvFile == null || id == null) {
+			return null;
+		}
+		MappedFile mappedFile = this.mappedFiles.get(csvFile.getName());
+		if (mappedFile == null) {
+			return super.get(csvFile, id);
+		}
+		return mappedFile.getEntry(id);
+	}
+
+	@Override
+	public String[] getHeader(File csvFile) {
+		MappedFile mappedFile = this.mappedFiles.get(csvFile.getName());
+		if (mappedFile == null) {
+			return super.getHeader(csvFile);
+		}
+		return mappedFile.header;
+	}
+
+	@Override
+	public void forEachRecord(File csvFile, Predicate<String> idFilter, RecordHandler handler) throws IOException {
+		MappedFile mappedFile = this.mappedFiles.get(csvFile.getName());
+		if (mappedFile == null) {
+			super.forEachRecord(csvFile, idFilter, handler);
+			return;
+		}
+		mappedFile.forEachRecord(idFilter, handler);
+	}
+
+	@Override
+	public void forEachRecordToDelete(File csvFile, Predicate<String> idFilter, RecordHandler handler)
+			throws IOException {
+		MappedFile mappedFile = this.mappedFiles.get(csvFile.getName());
+		if (mappedFile == null) {
+			super.forEachRecordToDelete(csvFile, idFilter, handler);
+			return;
+		}
+		mappedFile.forEachRecordToDelete(idFilter, handler);
+	}
+
+	/**
+	 * Forget all indexed files and release the mappings of the mapped files. The
+	 * index must not be used by another thread meanwhile.
+	 */
+	@Override
+	public void clear() {
+		super.clear();
+		this.fileScanner.file = null;
+		this.lookupScanners.remove();
+		for (MappedFile mappedFile : this.mappedFiles.values()) {
+			mappedFile.unmap();
+		}
+		this.mappedFiles.clear();
+	}
+
+	/**
+	 * A memory-mapped CSV file and the offsets of its records.
+	 * <p>
+	 * The records are found by id through an open-addressing table of the
+	 * 64-bit {@link ContentHash} of their id and of their index. Ids with the
+	 * same hash are told apart by decoding the id of the record.
+	 * </p>
+	 */
+	protected class MappedFile {
+
+		/**
+		 * The content of the file, by chunks of
+		 * <code>1 &lt;&lt; chunkShift</code> bytes.
+		 */
+		private final ByteBuffer[] chunks;
+
+		/**
+		 * The size of the file.
+		 */
+		private final long length;
+
+		/**
+		 * The mask of the offset of a byte in its chunk.
+		 */
+		private final long chunkMask;
+
+		/**
+		 * The field delimiter.
+		 */
+		private final byte delimiter;
+
+		/**
+		 * The text delimiter, or <code>-1</code> if there is none.
+		 */
+		private final int quote;
+
+		/**
+		 * The character set of the file.
+		 */
+		private final Charset characterSet;
+
+		/**
+		 * The header of the file.
+		 */
+		private String[] header;
+
+		/**
+		 * Index of the id column, or <code>-1</code>.
+		 */
+		private int idColumn = -1;
+
+		/**
+		 * Index of the "To delete" column, or <code>-1</code>.
+		 */
+		private int toDeleteColumn = -1;
+
+		/**
+		 * Index of the creation date column, or <code>-1</code>.
+		 */
+		private int creationDateColumn = -1;
+
+		/**
+		 * Index of the creation time column, or <code>-1</code>.
+		 */
+		private int creationTimeColumn = -1;
+
+		/**
+		 * Index of the deletion date column, or <code>-1</code>.
+		 */
+		private int deletionDateColumn = -1;
+
+		/**
+		 * Index of the deletion time column, or <code>-1</code>.
+		 */
+		private int deletionTimeColumn = -1;
+
+		/**
+		 * The number of records.
+		 */
+		private int size;
+
+		/**
+		 * The byte offset of each record.
+		 */
+		private long[] offsets = new long[INITIAL_CAPACITY];
+
+		/**
+		 * The byte length of each record, line separator excluded.
+		 */
+		private int[] lengths = new int[INITIAL_CAPACITY];
+
+		/**
+		 * The records flagged as "To delete".
+		 */
+		private final BitSet recordsToDelete = new BitSet();
+
+		/**
+		 * The hash of the id of the record of each slot of the id table.
+		 */
+		private long[] idHashes = new long[INITIAL_CAPACITY * 2];
+
+		/**
+		 * The index of the record of each slot of the id table, plus one, or
+		 * <code>0</code> for an empty slot.
+		 */
+		private int[] idRecords = new int[INITIAL_CAPACITY * 2];
+
+		/**
+		 * The number of distinct ids.
+		 */
+		private int idCount;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param chunks
+		 *            the content of the file, by chunks.
+		 */
+		MappedFile(ByteBuffer[] chunks) {
+			this.chunks = chunks;
+			long fileLength = 0;
+			for (ByteBuffer chunk : chunks) {
+				fileLength += chunk.limit();
+			}
+			this.length = fileLength;
+			this.chunkMask = (1L << MappedBeforeExportIndex.this.chunkShift) - 1;
+			CSVSettings csvSettings = MappedBeforeExportIndex.this.converter.csvSettings;
+			this.delimiter = (byte) csvSettings.getFieldDelimiter().charValue();
+			Character textDelimiter = csvSettings.getTextDelimiter();
+			if (textDelimiter != null) {
+				this.quote = textDelimiter.charValue();
+			} else {
+				this.quote = -1;
+			}
+			this.characterSet = csvSettings.getCharacterSet();
+		}
+
+		/**
+		 * Get a byte of the file.
+		 * 
+		 * @param position
+		 *            the offset of the byte.
+		 * @return the byte.
+		 */
+		private byte get(long position) {
+			return this.chunks[(int) (position >>> MappedBeforeExportIndex.this.chunkShift)]
+					.get((int) (position & this.chunkMask));
+		}
+
+		/**
+		 * Read the header and the offsets of all records of the file.
+		 */
+		void scan() {
+			RecordScanner scanner = MappedBeforeExportIndex.this.fileScanner;
+			scanner.reset(this, 0);
+			if (!scanner.next()) {
+				this.header = new String[0];
+				return;
+			}
+			this.header = new String[scanner.cellCount];
+			for (int i = 0; i < scanner.cellCount; i++) {
+				String column = scanner.decode(i);
+				this.header[i] = column;
+				if (CSVSettings.ID_COLUMN.equals(column)) {
+					this.idColumn = i;
+				} else if (CSVSettings.TO_DELETE_COLUMN.equals(column)) {
+					this.toDeleteColumn = i;
+				} else if (CSVSettings.CREATION_DATE_COLUMN.equals(column)) {
+					this.creationDateColumn = i;
+				} else if (CSVSettings.CREATION_TIME_COLUMN.equals(column)) {
+					this.creationTimeColumn = i;
+				} else if (CSVSettings.DELETION_DATE_COLUMN.equals(column)) {
+					this.deletionDateColumn = i;
+				} else if (CSVSettings.DELETION_TIME_COLUMN.equals(column)) {
+					this.deletionTimeColumn = i;
+				}
+			}
+			RecordScanner lookupScanner = MappedBeforeExportIndex.this.lookupScanners.get();
+			while (scanner.next()) {
+				String id = scanner.decode(this.idColumn);
+				if (id == null) {
+					continue;
+				}
+				if (this.size == this.offsets.length) {
+					this.offsets = Arrays.copyOf(this.offsets, this.size * 2);
+					this.lengths = Arrays.copyOf(this.lengths, this.size * 2);
+				}
+				this.offsets[this.size] = scanner.recordStart;
+				this.lengths[this.size] = (int) (scanner.recordEnd - scanner.recordStart);
+				if (isRecordToDelete(id, scanner.decode(this.toDeleteColumn))) {
+					this.recordsToDelete.set(this.size);
+				}
+				putId(id, this.size, lookupScanner);
+				this.size++;
+			}
+			scanner.file = null;
+		}
+
+		/**
+		 * Set the record of an id, replacing the previous record of the same id.
+		 * 
+		 * @param id
+		 *            the id.
+		 * @param index
+		 *            the index of the record.
+		 * @param scanner
+		 *            the scanner used to read the ids of the records.
+		 */
+		private void putId(String id, int index, RecordScanner scanner) {
+			long hash = ContentHash.add(ContentHash.EMPTY, id);
+			int slot = findSlot(id, hash, scanner);
+			if (this.idRecords[slot] == 0) {
+				this.idHashes[slot] = hash;
+				this.idCount++;
+			}
+			this.idRecords[slot] = index + 1;
+			if (this.idCount * 4 > this.idRecords.length * 3) {
+				growIdTable();
+			}
+		}
+
+		/**
+		 * Find the slot of an id, or the empty slot where it would be stored. The
+		 * record of each slot with the same hash is read by the given scanner to
+		 * compare its id, the scanner is left on the record of the id if found.
+		 * 
+		 * @param id
+		 *            the id.
+		 * @param hash
+		 *            the hash of the id.
+		 * @param scanner
+		 *            the scanner used to read the ids of the records.
+		 * @return the slot.
+		 */
+		private int findSlot(String id, long hash, RecordScanner scanner) {
+			int mask = this.idRecords.length - 1;
+			int slot = mix(hash) & mask;
+			while (this.idRecords[slot] != 0) {
+				if (this.idHashes[slot] == hash) {
+					scanner.readAt(this, this.offsets[this.idRecords[slot] - 1]);
+					if (id.equals(scanner.decode(this.idColumn))) {
+						return slot;
+					}
+				}
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		private void growIdTable() {
+			long[] oldHashes = this.idHashes;
+			int[] oldRecords = this.idRecords;
+			this.idHashes = new long[oldHashes.length * 2];
+			this.idRecords = new int[oldRecords.length * 2];
+			int mask = this.idRecords.length - 1;
+			for (int i = 0; i < oldRecords.length; i++) {
+				if (oldRecords[i] != 0) {
+					// The ids of the table are distinct, no need to compare them
+					int slot = mix(oldHashes[i]) & mask;
+					while (this.idRecords[slot] != 0) {
+						slot = (slot + 1) & mask;
+					}
+					this.idHashes[slot] = oldHashes[i];
+					this.idRecords[slot] = oldRecords[i];
+				}
+			}
+		}
+
+		private int mix(long hash) {
+			long h = hash ^ (hash >>> 33);
+			h *= 0xFF51AFD7ED558CCDL;
+			h ^= h >>> 33;
+			return (int) h;
+		}
+
+		/**
+		 * Decode the indexed columns of the record of the given id.
+		 * 
+		 * @param id
+		 *            the id of the model element.
+		 * @return the indexed columns, or <code>null</code> if the element was
+		 *         not part of the previous export.
+		 */
+		Entry getEntry(String id) {
+			RecordScanner scanner = MappedBeforeExportIndex.this.lookupScanners.get();
+			int slot = findSlot(id, ContentHash.add(ContentHash.EMPTY, id), scanner);
+			if (this.idRecords[slot] == 0) {
+				return null;
+			}
+			// The scanner has read the record of the id
+			long contentHash = 0;
+			if (MappedBeforeExportIndex.this.converter.isDeltaExport()) {
+				contentHash = ContentHash.EMPTY;
+				// The missing cells are decoded as empty ones
+				for (int i = CSVSettings.MANAGEMENT_COLUMNS.size(); i < this.header.length; i++) {
+					contentHash = ContentHash.add(contentHash, scanner.decode(i));
+				}
+			}
+			return new Entry(scanner.decode(this.creationDateColumn), scanner.decode(this.creationTimeColumn),
+					scanner.decode(this.deletionDateColumn), scanner.decode(this.deletionTimeColumn),
+					contentHash);
+		}
+
+		/**
+		 * Decode and handle the records flagged as "To delete".
+		 * 
+		 * @param idFilter
+		 *            the ids of the records to handle.
+		 * @param handler
+		 *            the handler of the records.
+		 * @throws IOException
+		 *             if a record cannot be decoded or handled.
+		 */
+		void forEachRecordToDelete(Predicate<String> idFilter, RecordHandler handler) throws IOException {
+			if (this.recordsToDelete.isEmpty()) {
+				return;
+			}
+			CSVFormat recordFormat = getRecordFormat();
+			for (int index = this.recordsToDelete.nextSetBit(0); index >= 0; index = this.recordsToDelete
+					.nextSetBit(index + 1)) {
+				handle(index, recordFormat, idFilter, handler);
+			}
+		}
+
+		/**
+		 * Decode and handle the records whose id passes the filter, without
+		 * decoding the others.
+		 * 
+		 * @param idFilter
+		 *            the ids of the records to handle.
+		 * @param handler
+		 *            the handler of the records.
+		 * @throws IOException
+		 *             if a record cannot be decoded or handled.
+		 */
+		void forEachRecord(Predicate<String> idFilter, RecordHandler handler) throws IOException {
+			CSVFormat recordFormat = getRecordFormat();
+			for (int index = 0; index < this.size; index++) {
+				handle(index, recordFormat, idFilter, handler);
+			}
+		}
+
+		private CSVFormat getRecordFormat() {
+			return MappedBeforeExportIndex.this.converter.getCSVParserFormat().withHeader(this.header)
+					.withSkipHeaderRecord(false);
+		}
+
+		private void handle(int index, CSVFormat recordFormat, Predicate<String> idFilter, RecordHandler handler)
+				throws IOException {
+			RecordScanner scanner = MappedBeforeExportIndex.this.lookupScanners.get();
+			scanner.readAt(this, this.offsets[index]);
+			if (idFilter.test(scanner.decode(this.idColumn))) {
+				String recordText = decode(this.offsets[index], this.offsets[index] + this.lengths[index]);
+				try (CSVParser recordParser = CSVParser.parse(recordText, recordFormat)) {
+					for (CSVRecord rec : recordParser) {
+						handler.handle(rec);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Decode a range of bytes of the file.
+		 * 
+		 * @param start
+		 *            the first byte, inclusive.
+		 * @param end
+		 *            the last byte, exclusive.
+		 * @return the decoded characters.
+		 */
+		private String decode(long start, long end) {
+			if (end <= start) {
+				return ""; //$NON-NLS-1$
+			}
+			int chunkShift = MappedBeforeExportIndex.this.chunkShift;
+			int chunk = (int) (start >>> chunkShift);
+			if (chunk == (int) ((end - 1) >>> chunkShift)) {
+				ByteBuffer slice = this.chunks[chunk].duplicate();
+				long chunkStart = (long) chunk << chunkShift;
+				slice.limit((int) (end - chunkStart)).position((int) (start - chunkStart));
+				return this.characterSet.decode(slice).toString();
+			}
+			// The range spans several chunks
+			byte[] bytes = new byte[(int) (end - start)];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = get(start + i);
+			}
+			return new String(bytes, this.characterSet);
+		}
+
+		/**
+		 * Release the mapping of the file, which must not be read anymore.
+		 */
+		void unmap() {
+			for (ByteBuffer chunk : this.chunks) {
+				Unmapper.unmap(chunk);
+			}
+		}
+	}
+
+	/**
+	 * Splits the record starting at a given offset of a file into cells, without
+	 * decoding them.
+	 */
+	private class RecordScanner {
+
+		/**
+		 * The file read.
+		 */
+		private MappedFile file;
+
+		/**
+		 * The current offset.
+		 */
+		private long position;
+
+		/**
+		 * The offset of the last record read.
+		 */
+		private long recordStart;
+
+		/**
+		 * The end of the last record read, line separator excluded.
+		 */
+		private long recordEnd;
+
+		/**
+		 * The number of cells of the last record read.
+		 */
+		private int cellCount;
+
+		/**
+		 * The first byte of each cell, text delimiters excluded.
+		 */
+		private long[] cellStarts = new long[INITIAL_CELL_CAPACITY];
+
+		/**
+		 * The last byte of each cell (exclusive), text delimiters excluded.
+		 */
+		private long[] cellEnds = new long[INITIAL_CELL_CAPACITY];
+
+		/**
+		 * The cells surrounded by text delimiters.
+		 */
+		private final BitSet quotedCells = new BitSet();
+
+		/**
+		 * Start reading a file at the given offset.
+		 * 
+		 * @param mappedFile
+		 *            the file.
+		 * @param offset
+		 *            the offset of the first record to read.
+		 */
+		void reset(MappedFile mappedFile, long offset) {
+			this.file = mappedFile;
+			this.position = offset;
+		}
+
+		/**
+		 * Read the record starting at the given offset of a file.
+		 * 
+		 * @param mappedFile
+		 *            the file.
+		 * @param offset
+		 *            the offset of a record.
+		 */
+		void readAt(MappedFile mappedFile, long offset) {
+			reset(mappedFile, offset);
+			next();
+		}
+
+		/**
+		 * Read the next record. Empty lines are skipped.
+		 * 
+		 * @return <code>false</code> if the end of the file is reached.
+		 */
+		boolean next() {
+			MappedFile content = this.file;
+			long limit = content.length;
+			while (this.position < limit && isLineSeparator(content.get(this.position))) {
+				this.position++;
+			}
+			if (this.position >= limit) {
+				return false;
+			}
+			this.recordStart = this.position;
+			this.cellCount = 0;
+			this.quotedCells.clear();
+			boolean endOfRecord = false;
+			while (!endOfRecord) {
+				long cellStart = this.position;
+				long cellEnd;
+				boolean quoted = content.quote >= 0 && this.position < limit
+						&& content.get(this.position) == content.quote;
+				if (quoted) {
+					this.position++;
+					cellStart = this.position;
+					while (this.position < limit && !isClosingQuote(content, limit)) {
+						this.position++;
+					}
+					cellEnd = this.position;
+					this.position = Math.min(this.position + 1, limit);
+					skipToCellEnd(content, limit);
+				} else {
+					skipToCellEnd(content, limit);
+					cellEnd = this.position;
+				}
+				addCell(cellStart, cellEnd, quoted);
+				if (this.position < limit && content.get(this.position) == content.delimiter) {
+					this.position++;
+				} else {
+					endOfRecord = true;
+				}
+			}
+			this.recordEnd = this.position;
+			if (this.position < limit && content.get(this.position) == CR) {
+				this.position++;
+			}
+			if (this.position < limit && content.get(this.position) == LF) {
+				this.position++;
+			}
+			return true;
+		}
+
+		private void skipToCellEnd(MappedFile content, long limit) {
+			while (this.position < limit && content.get(this.position) != content.delimiter
+					&& !isLineSeparator(content.get(this.position))) {
+				this.position++;
+			}
+		}
+
+		private boolean isClosingQuote(MappedFile content, long limit) {
+			if (content.get(this.position) != content.quote) {
+				return false;
+			}
+			if (this.position + 1 < limit && content.get(this.position + 1) == content.quote) {
+				// Escaped text delimiter
+				this.position++;
+				return false;
+			}
+			return true;
+		}
+
+		private boolean isLineSeparator(byte b) {
+			return b == CR || b == LF;
+		}
+
+		private void addCell(long cellStart, long cellEnd, boolean quoted) {
+			if (this.cellCount == this.cellStarts.length) {
+				this.cellStarts = Arrays.copyOf(this.cellStarts, this.cellCount * 2);
+				this.cellEnds = Arrays.copyOf(this.cellEnds, this.cellCount * 2);
+			}
+			this.cellStarts[this.cellCount] = cellStart;
+			this.cellEnds[this.cellCount] = cellEnd;
+			if (quoted) {
+				this.quotedCells.set(this.cellCount);
+			}
+			this.cellCount++;
+		}
+
+		/**
+		 * Decode a cell of the last record read.
+		 * 
+		 * @param cell
+		 *            the index of the cell.
+		 * @return the value of the cell, or <code>null</code> if it is empty or
+		 *         missing.
+		 */
+		String decode(int cell) {
+			if (cell < 0 || cell >= this.cellCount || this.cellStarts[cell] == this.cellEnds[cell]) {
+				return null;
+			}
+			String value = this.file.decode(this.cellStarts[cell], this.cellEnds[cell]);
+			if (this.quotedCells.get(cell)) {
+				String quoteAsString = String.valueOf((char) this.file.quote);
+				value = value.replace(quoteAsString + quoteAsString, quoteAsString);
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * Releases the mapping of a mapped buffer before it is garbage collected,
+	 * through the internals of the JVM: <code>sun.misc.Unsafe</code> since Java
+	 * 9, the cleaner of the buffer on Java 8.
+	 */
+	private static final class Unmapper {
+
+		/**
+		 * The <code>sun.misc.Unsafe</code> instance, <code>null</code> on Java 8.
+		 */
+		private static final Object UNSAFE;
+
+		/**
+		 * <code>Unsafe.invokeCleaner(ByteBuffer)</code> since Java 9,
+		 * <code>DirectBuffer.cleaner()</code> on Java 8, or <code>null</code> if
+		 * none is available.
+		 */
+		private static final Method CLEANER_METHOD;
+
+		/**
+		 * <code>Cleaner.clean()</code> on Java 8.
+		 */
+		private static final Method CLEAN_METHOD;
+
+		static {
+			Object unsafe = null;
+			Method cleanerMethod = null;
+			Method cleanMethod = null;
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+				cleanerMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class); //$NON-NLS-1$
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+				theUnsafe.setAccessible(true);
+				unsafe = theUnsafe.get(null);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				unsafe = null;
+				try {
+					cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner"); //$NON-NLS-1$ //$NON-NLS-2$
+					cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean"); //$NON-NLS-1$ //$NON-NLS-2$
+				} catch (ReflectiveOperationException | RuntimeException e2) {
+					cleanerMethod = null;
+				}
+			}
+			UNSAFE = unsafe;
+			CLEANER_METHOD = cleanerMethod;
+			CLEAN_METHOD = cleanMethod;
+		}
+
+		private Unmapper() {
+		}
+
+		/**
+		 * Check if the mappings can be released explicitly.
+		 * 
+		 * @return <code>true</code> if the mappings can be released.
+		 */
+		static boolean isAvailable() {
+			return CLEANER_METHOD != null;
+		}
+
+		/**
+		 * Release the mapping of a buffer, which must not be read anymore. Nothing
+		 * is done for a heap buffer, or if the mapping cannot be released: it is
+		 * then released once the buffer is garbage collected.
+		 * 
+		 * @param buffer
+		 *            the buffer, may be <code>null</code>.
+		 */
+		static void unmap(ByteBuffer buffer) {
+			if (buffer == null || !buffer.isDirect() || !isAvailable()) {
+				return;
+			}
+			try {
+				if (UNSAFE != null) {
+					CLEANER_METHOD.invoke(UNSAFE, buffer);
+				} else {
+					Object cleaner = CLEANER_METHOD.invoke(buffer);
+					if (cleaner != null) {
+						CLEAN_METHOD.invoke(cleaner);
+					}
+				}
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				Activator.logWarning("The mapping of a file of the previous export cannot be released.", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,569 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.export;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.polarsys.capella.core.data.cs.BlockArchitecture;
+
+import com.navalgroup.conversion.capella.csv.core.CSVConstants;
+import com.navalgroup.conversion.capella.csv.core.CSVEncoder;
+import com.navalgroup.conversion.capella.csv.core.CSVFiles;
+import com.navalgroup.conversion.capella.csv.core.ContainmentTraversal;
+import com.navalgroup.conversion.capella.csv.core.ConversionUtil;
+
+/**
+ * Exports the model on several threads. The containment tree is split into
+ * {@link ForkJoinPool} tasks at each {@link BlockArchitecture} and at each
+ * package directly owned by a {@link BlockArchitecture}. Each task writes the
+ * records of its subtree into partial files, which are concatenated per CSV
+ * file once all tasks are done. The records of the {@link DeltaExport} are
+ * written into partial files as well.
+ * <p>
+ * The partial files are concatenated in the order of the containment tree, so
+ * the records of the CSV files and of the delta files are written in the same
+ * order as a single-threaded export.
+ * </p>
+ * <p>
+ * The tasks run while the calling thread holds an exclusive (read-only)
+ * transaction on the editing domain of the session, so that the model cannot
+ * be modified during the export. Before forking the tasks, the calling thread
+ * resolves all the proxies of the exported tree with
+ * {@link EcoreUtil#resolveAll(EObject)} and creates the task of each split
+ * point, whose body is a privileged runnable of this transaction run by a
+ * worker thread.
+ * </p>
+ */
+public class ParallelExport {
+
+	/**
+	 * The prefix of the directory of the partial files.
+	 */
+	private static final String PARTIAL_DIRECTORY_PREFIX = ".partial";
+
+	/**
+	 * The converter running the export.
+	 */
+	protected CapellaToCSVConverter converter;
+
+	/**
+	 * The directory of the partial files.
+	 */
+	protected Path partialDirectory;
+
+	/**
+	 * The number of directories of partial files already created.
+	 */
+	protected int nbChunks;
+
+	/**
+	 * The header of each CSV file, by file name.
+	 */
+	protected Map<String, String[]> headers = new ConcurrentHashMap<>();
+
+	/**
+	 * The monitor of the export, used to cancel the tasks.
+	 */
+	protected IProgressMonitor monitor;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param converter
+	 *            the converter running the export.
+	 */
+	public ParallelExport(CapellaToCSVConverter converter) {
+		this.converter = converter;
+	}
+
+	/**
+	 * Export the root element of the converter and all its content.
+	 * 
+	 * @param exportMonitor
+	 *            SubMonitor
+	 * @throws IOException
+	 *             if a CSV file cannot be written.
+	 */
+	public void run(SubMonitor exportMonitor) throws IOException {
+		this.monitor = exportMonitor;
+		this.partialDirectory = Files.createTempDirectory(this.converter.stagingDirectory.toPath(),
+				PARTIAL_DIRECTORY_PREFIX);
+		try {
+			TransactionalEditingDomain domain = this.converter.getEditingDomain();
+			List<ExportTask> rootTask = new ArrayList<>(1);
+			Runnable export = () -> {
+				// The worker threads must not resolve proxies, see the class documentation
+				EcoreUtil.resolveAll(this.converter.rootElement);
+				rootTask.add(createTask(this.converter.rootElement, domain));
+				invoke(rootTask.get(0));
+			};
+			try {
+				if (domain != null) {
+					domain.runExclusive(export);
+				} else {
+					export.run();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			exportMonitor.checkCanceled();
+			merge(rootTask.get(0));
+		} finally {
+			deletePartialDirectory();
+		}
+		exportMonitor.done();
+	}
+
+	private void invoke(ExportTask rootTask) {
+		ForkJoinPool pool = new ForkJoinPool(this.converter.csvSettings.getExportParallelism());
+		try {
+			pool.invoke(rootTask);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Create the task of the subtree of the given element and the tasks of the
+	 * split points of this subtree. Called by the thread owning the transaction,
+	 * if any.
+	 * 
+	 * @param root
+	 *            the root of the subtree.
+	 * @param domain
+	 *            the editing domain whose transaction is held by the calling
+	 *            thread, or <code>null</code> if there is none.
+	 * @return the task.
+	 */
+	protected ExportTask createTask(EObject root, TransactionalEditingDomain domain) {
+		ExportTask task = new ExportTask(root);
+		ContainmentTraversal.traverse(root, ContainmentTraversal::getExportedChildren, object -> {
+			if (object != root && isSplitPoint(object)) {
+				task.splitTasks.put(object, createTask(object, domain));
+				return false;
+			}
+			return true;
+		});
+		if (domain != null) {
+			// Created by the owner of the transaction, to be run by a worker thread
+			task.body = domain.createPrivilegedRunnable(task::export);
+		} else {
+			task.body = task::export;
+		}
+		return task;
+	}
+
+	/**
+	 * Check if the subtree of the given element is exported by its own task.
+	 * 
+	 * @param object
+	 *            EObject
+	 * @return if the subtree of the given element is exported by its own task.
+	 */
+	protected boolean isSplitPoint(EObject object) {
+		return object instanceof BlockArchitecture
+				|| (ConversionUtil.isPackage(object) && object.eContainer() instanceof BlockArchitecture);
+	}
+
+	/**
+	 * Create a new directory of partial files.
+	 * 
+	 * @return the new directory.
+	 * @throws IOException
+	 *             if the directory cannot be created.
+	 */
+	protected synchronized File createChunk() throws IOException {
+		Path chunk = this.partialDirectory.resolve(String.valueOf(this.nbChunks++));
+		return Files.createDirectory(chunk).toFile();
+	}
+
+	/**
+	 * Create the pool of the partial files of a chunk. The header of each file is
+	 * kept for the merge instead of being written into the partial files.
+	 * 
+	 * @return the pool of the partial files.
+	 */
+	protected CSVPrinterPool createPartialPrinterPool() {
+		return new CSVPrinterPool(this.converter.csvFormat, this.converter.csvSettings.getCharacterSet()) {
+			@Override
+			public CSVEncoder open(File csvFile, String[] header) throws IOException {
+				if (header != null) {
+					ParallelExport.this.headers.putIfAbsent(csvFile.getName(), header);
+				}
+				return super.open(csvFile, null);
+			}
+		};
+	}
+
+	/**
+	 * Concatenate the partial files of all tasks, in the order of the containment
+	 * tree, into the CSV files and the delta files of the export.
+	 * 
+	 * @param rootTask
+	 *            the task of the root element.
+	 * @throws IOException
+	 *             if a CSV file cannot be written.
+	 */
+	protected void merge(ExportTask rootTask) throws IOException {
+		List<File> chunks = new ArrayList<>();
+		rootTask.collect(chunks);
+		merge(chunks, this.converter.stagingDirectory);
+		DeltaExport deltaExport = this.converter.deltaExport;
+		if (deltaExport != null) {
+			List<File> deltaChunks = new ArrayList<>();
+			for (File chunk : chunks) {
+				deltaChunks.add(new File(chunk, CSVConstants.DELTA_FOLDER));
+			}
+			merge(deltaChunks, deltaExport.deltaDirectory);
+		}
+		this.converter.nbReferences += rootTask.getNbReferences();
+	}
+
+	private void merge(List<File> chunks, File outputDirectory) throws IOException {
+		Set<String> fileNames = new TreeSet<>();
+		for (File chunk : chunks) {
+			if (chunk.isDirectory()) {
+				try (Stream<Path> files = Files.list(chunk.toPath())) {
+					fileNames.addAll(files.filter(Files::isRegularFile).map(f -> f.getFileName().toString())
+							.collect(Collectors.toList()));
+				}
+			}
+		}
+		for (String fileName : fileNames) {
+			File outputFile = new File(outputDirectory, fileName);
+			boolean writeHeader = outputFile.length() == 0;
+			try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputFile, true),
+					CSVPrinterPool.COPY_BUFFER_SIZE)) {
+				String[] headerRecord = this.headers.get(fileName);
+				if (writeHeader && headerRecord != null) {
+					StringBuilder header = new StringBuilder();
+					this.converter.csvFormat.printRecord(header, (Object[]) headerRecord);
+					byte[] headerBytes = header.toString().getBytes(this.converter.csvSettings.getCharacterSet());
+					if (CSVFiles.isCompressed(outputFile)) {
+						// The header is a GZIP member of its own, followed by the members of the partial files
+						writeCompressed(output, headerBytes);
+					} else {
+						output.write(headerBytes);
+					}
+				}
+				// The partial files are compressed as the output file, they are copied as is
+				for (File chunk : chunks) {
+					Path partialFile = chunk.toPath().resolve(fileName);
+					if (Files.exists(partialFile)) {
+						Files.copy(partialFile, output);
+					}
+				}
+			}
+		}
+	}
+
+	private void writeCompressed(OutputStream output, byte[] bytes) throws IOException {
+		OutputStream nonClosingOutput = new FilterOutputStream(output) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				this.out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				flush();
+			}
+		};
+		try (GZIPOutputStream compressedOutput = new GZIPOutputStream(nonClosingOutput)) {
+			compressedOutput.write(bytes);
+		}
+	}
+
+	private void deletePartialDirectory() throws IOException {
+		if (this.partialDirectory != null && Files.exists(this.partialDirectory)) {
+			try (Stream<Path> paths = Files.walk(this.partialDirectory)) {
+				List<Path> sortedPaths = paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+				for (Path path : sortedPaths) {
+					Files.delete(path);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The export of a subtree of the model.
+	 */
+	protected class ExportTask extends RecursiveAction {
+
+		/**
+		 * serialVersionUID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The root of the subtree.
+		 */
+		private final transient EObject root;
+
+		/**
+		 * The directories of partial files written by this task and the sub-tasks
+		 * it forked, in the order of the containment tree.
+		 */
+		private final transient List<Object> parts = new ArrayList<>();
+
+		/**
+		 * The forked sub-tasks.
+		 */
+		private final transient List<ExportTask> subTasks = new ArrayList<>();
+
+		/**
+		 * The tasks of the split points of the subtree, created beforehand by the
+		 * thread owning the transaction.
+		 */
+		private final transient Map<EObject, ExportTask> splitTasks = new HashMap<>();
+
+		/**
+		 * The export of the subtree, a privileged runnable of the transaction of
+		 * the calling thread if there is one.
+		 */
+		private transient Runnable body;
+
+		/**
+		 * The failure of the export of the subtree, rethrown by this task.
+		 */
+		private transient RuntimeException failure;
+
+		/**
+		 * The number of references exported by this task only.
+		 */
+		private int nbReferences;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param root
+		 *            the root of the subtree.
+		 */
+		ExportTask(EObject root) {
+			this.root = root;
+		}
+
+		@Override
+		protected void compute() {
+			this.body.run();
+			if (this.failure != null) {
+				throw this.failure;
+			}
+			for (ExportTask subTask : this.subTasks) {
+				subTask.join();
+			}
+		}
+
+		void export() {
+			try {
+				Worker worker = new Worker(this);
+				try {
+					SubMonitor workerMonitor = SubMonitor.convert(new NullProgressMonitor() {
+						@Override
+						public boolean isCanceled() {
+							return ParallelExport.this.monitor.isCanceled();
+						}
+					});
+					worker.startChunk();
+					worker.generateEObjectCSV(this.root, worker.csvFormat, workerMonitor);
+				} finally {
+					worker.close();
+				}
+				this.nbReferences = worker.getNbReferences();
+			} catch (IOException e) {
+				this.failure = new UncheckedIOException(e);
+				// CHECKSTYLE:OFF
+			} catch (RuntimeException e) {
+				// CHECKSTYLE:ON
+				this.failure = e;
+			}
+		}
+
+		void fork(EObject subTreeRoot) {
+			ExportTask subTask = this.splitTasks.get(subTreeRoot);
+			this.parts.add(subTask);
+			this.subTasks.add(subTask);
+			subTask.fork();
+		}
+
+		void collect(List<File> chunks) {
+			for (Object part : this.parts) {
+				if (part instanceof ExportTask) {
+					((ExportTask) part).collect(chunks);
+				} else {
+					chunks.add((File) part);
+				}
+			}
+		}
+
+		int getNbReferences() {
+			int total = this.nbReferences;
+			for (ExportTask subTask : this.subTasks) {
+				total += subTask.getNbReferences();
+			}
+			return total;
+		}
+	}
+
+	/**
+	 * A converter exporting the subtree of a task into its partial files.
+	 */
+	protected class Worker extends CapellaToCSVConverter {
+
+		/**
+		 * The task of this worker.
+		 */
+		private final ExportTask task;
+
+		/**
+		 * The directory of the partial files currently written.
+		 */
+		private File chunk;
+
+		/**
+		 * The writer of the partial delta files of this worker, <code>null</code>
+		 * if there is no delta export.
+		 */
+		private PartialDeltaExport partialDeltaExport;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param task
+		 *            the task of this worker.
+		 */
+		Worker(ExportTask task) {
+			super(ParallelExport.this.converter);
+			this.task = task;
+			if (this.deltaExport != null) {
+				this.partialDeltaExport = new PartialDeltaExport(this, this.deltaExport);
+				this.deltaExport = this.partialDeltaExport;
+			}
+		}
+
+		/**
+		 * Close the current partial files, if any, and start new ones.
+		 * 
+		 * @throws IOException
+		 *             if the current partial files cannot be closed.
+		 */
+		void startChunk() throws IOException {
+			if (this.printerPool != null) {
+				this.printerPool.close();
+			}
+			this.chunk = createChunk();
+			this.task.parts.add(this.chunk);
+			this.printerPool = createPartialPrinterPool();
+			if (this.partialDeltaExport != null) {
+				this.partialDeltaExport.startChunk(this.chunk);
+			}
+		}
+
+		/**
+		 * Close the current partial files.
+		 * 
+		 * @throws IOException
+		 *             if a partial file cannot be closed.
+		 */
+		void close() throws IOException {
+			try {
+				if (this.printerPool != null) {
+					this.printerPool.close();
+				}
+			} finally {
+				if (this.partialDeltaExport != null) {
+					this.partialDeltaExport.close();
+				}
+			}
+		}
+
+		@Override
+		protected boolean generateEObjectRecord(EObject object, CSVFormat format) throws IOException {
+			if (object != this.task.root && isSplitPoint(object)) {
+				this.task.fork(object);
+				startChunk();
+				return false;
+			}
+			return super.generateEObjectRecord(object, format);
+		}
+
+		@Override
+		protected File getOutputFile(EObject object) {
+			return new File(this.chunk, getCSVFileName(object));
+		}
+	}
+
+	/**
+	 * A {@link DeltaExport} writing the records of a worker into the partial
+	 * delta files of its current chunk.
+	 */
+	protected class PartialDeltaExport extends DeltaExport {
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param worker
+		 *            the worker of this delta export.
+		 * @param deltaExport
+		 *            the delta export of the converter running the export.
+		 */
+		PartialDeltaExport(Worker worker, DeltaExport deltaExport) {
+			super(worker);
+			this.sameHeaders = deltaExport.sameHeaders;
+		}
+
+		/**
+		 * Close the current partial delta files, if any, and start new ones in
+		 * the given chunk.
+		 * 
+		 * @param chunk
+		 *            the directory of the partial files of the chunk.
+		 * @throws IOException
+		 *             if the current partial files cannot be closed.
+		 */
+		void startChunk(File chunk) throws IOException {
+			this.printerPool.close();
+			this.deltaDirectory = Files.createDirectory(chunk.toPath().resolve(CSVConstants.DELTA_FOLDER))
+					.toFile();
+			this.printerPool = createPartialPrinterPool();
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.export;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import com.navalgroup.conversion.capella.csv.core.CSVEncoder;
+
+/**
+ * The cells of a CSV record, reused from one record to the next.
+ */
+public class RecordBuffer {
+
+	/**
+	 * The initial number of cells.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The cells.
+	 */
+	private Object[] values = new Object[INITIAL_CAPACITY];
+
+	/**
+	 * The number of cells of the current record.
+	 */
+	private int size;
+
+	/**
+	 * Start a new record.
+	 */
+	public void clear() {
+		Arrays.fill(this.values, 0, this.size, null);
+		this.size = 0;
+	}
+
+	/**
+	 * Make sure the buffer can hold the given number of cells without growing.
+	 * 
+	 * @param capacity
+	 *            the number of cells.
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > this.values.length) {
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+	}
+
+	/**
+	 * Add a cell to the current record.
+	 * 
+	 * @param value
+	 *            the value of the cell, may be <code>null</code>.
+	 */
+	public void add(Object value) {
+		if (this.size == this.values.length) {
+			this.values = Arrays.copyOf(this.values, this.size * 2);
+		}
+		this.values[this.size++] = value;
+	}
+
+	/**
+	 * Add several cells to the current record.
+	 * 
+	 * @param cellValues
+	 *            the values of the cells.
+	 */
+	public void addAll(Collection<?> cellValues) {
+		ensureCapacity(this.size + cellValues.size());
+		for (Object value : cellValues) {
+			this.values[this.size++] = value;
+		}
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Get a cell of the current record.
+	 * 
+	 * @param index
+	 *            the index of the cell.
+	 * @return the value of the cell.
+	 */
+	public Object get(int index) {
+		if (index >= this.size) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		return this.values[index];
+	}
+
+	/**
+	 * Replace a cell of the current record.
+	 * 
+	 * @param index
+	 *            the index of the cell.
+	 * @param value
+	 *            the new value of the cell, may be <code>null</code>.
+	 */
+	public void set(int index, Object value) {
+		if (index >= this.size) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		this.values[index] = value;
+	}
+
+	/**
+	 * Print the current record.
+	 * 
+	 * @param printer
+	 *            the printer of the CSV file.
+	 * @throws IOException
+	 *             if the record cannot be printed.
+	 */
+	public void print(CSVEncoder printer) throws IOException {
+		for (int i = 0; i < this.size; i++) {
+			printer.print(this.values[i]);
+		}
+		printer.println();
+	}
+}
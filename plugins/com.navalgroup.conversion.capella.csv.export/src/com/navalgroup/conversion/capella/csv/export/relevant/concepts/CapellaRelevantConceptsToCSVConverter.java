@@ -10,31 +10,35 @@
 package com.navalgroup.conversion.capella.csv.export.relevant.concepts;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVPrinter;
-import org.apache.commons.csv.CSVRecord;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.polarsys.kitalpha.emde.model.Element;
 
+import com.navalgroup.conversion.capella.csv.core.CSVEncoder;
 import com.navalgroup.conversion.capella.csv.core.CSVSettings;
+import com.navalgroup.conversion.capella.csv.core.ContainmentTraversal;
 import com.navalgroup.conversion.capella.csv.core.ConversionUtil;
+import com.navalgroup.conversion.capella.csv.core.FeaturePlan;
+import com.navalgroup.conversion.capella.csv.core.IdSet;
+import com.navalgroup.conversion.capella.csv.export.BeforeExportIndex;
 import com.navalgroup.conversion.capella.csv.export.CapellaToCSVConverter;
+import com.navalgroup.conversion.capella.csv.export.RecordBuffer;
 
 /**
  * A converter to CSV files from a given {@link EObject}. 
@@ -51,15 +55,27 @@ import com.navalgroup.conversion.capella.csv.export.CapellaToCSVConverter;
  */
 public class CapellaRelevantConceptsToCSVConverter extends CapellaToCSVConverter {
 
+	/**
+	 * The number of elements whose Semantic Browser categories are computed
+	 * together on several threads.
+	 */
+	private static final int BATCH_SIZE = 1024;
+
 	/**
 	 * Relevants IDs.
 	 */
-	Set<String> relevantIDs = new HashSet<>();
+	Set<String> relevantIDs = new IdSet();
 	/**
 	 * Export containments ?
 	 */
 	private boolean exportContainments;
 
+	/**
+	 * The Semantic Browser references computed with the relevant IDs, by
+	 * relevant element, kept until the record of the element is written.
+	 */
+	protected Map<EObject, Map<String, Object>> semanticBrowserReferences;
+
 	/**
 	 * Constructor.
 	 * 
@@ -73,16 +89,130 @@ public class CapellaRelevantConceptsToCSVConverter extends CapellaToCSVConverter
 			boolean exportContainments) {
 		super(rootElement, csvSettings);
 		this.exportContainments = exportContainments;
+		this.semanticBrowserReferences = new ReferencesCache(csvSettings.getRelevantConceptsCacheSize());
 	}
 
 	/**
 	 * Compute all relevant ids for conversion: Structure + results from Semantic
-	 * Browser.
+	 * Browser. The Semantic Browser references of the elements already relevant
+	 * are kept for their record.
 	 * 
 	 * @param object
 	 *            EObject
 	 */
 	public void computeRelevantIDs(EObject object) {
+		int parallelism = this.csvSettings.getRelevantConceptsParallelism();
+		if (parallelism > 1) {
+			computeRelevantIDs(object, parallelism);
+		} else {
+			ContainmentTraversal.traverse(object, EObject::eContents, element -> {
+				computeRelevantID(element, computeSemanticBrowserReferences(element));
+				return true;
+			});
+		}
+	}
+
+	/**
+	 * Compute all relevant ids for conversion, the Semantic Browser categories of
+	 * the elements being computed by batches on several threads. The results of
+	 * a batch are used in the order of the containment tree, so the relevant ids
+	 * are the same as on a single thread.
+	 * <p>
+	 * The categories are computed while the calling thread holds an exclusive
+	 * (read-only) transaction on the editing domain of the session, so that the
+	 * model cannot be modified meanwhile. The proxies of the model are resolved
+	 * beforehand by the calling thread, and each element is computed on the
+	 * other threads as a privileged runnable of this transaction. A failure of
+	 * the computation of an element on another thread is rethrown by this
+	 * method.
+	 * </p>
+	 * 
+	 * @param object
+	 *            EObject
+	 * @param parallelism
+	 *            the number of threads.
+	 */
+	protected void computeRelevantIDs(EObject object, int parallelism) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			TransactionalEditingDomain domain = getEditingDomain();
+			Runnable computation = () -> {
+				// The other threads must not resolve proxies
+				EcoreUtil.resolveAll(object);
+				List<EObject> batch = new ArrayList<>(BATCH_SIZE);
+				ContainmentTraversal.traverse(object, EObject::eContents, element -> {
+					batch.add(element);
+					if (batch.size() == BATCH_SIZE) {
+						computeBatch(batch, pool, domain);
+					}
+					return true;
+				});
+				computeBatch(batch, pool, domain);
+			};
+			if (domain != null) {
+				try {
+					domain.runExclusive(computation);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+			} else {
+				computation.run();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Compute the Semantic Browser references of a batch of elements on the
+	 * threads of the pool, then the relevant ids of the batch in its order.
+	 * 
+	 * @param batch
+	 *            the elements, cleared once computed.
+	 * @param pool
+	 *            the pool.
+	 * @param domain
+	 *            the editing domain whose transaction is held by the calling
+	 *            thread, or <code>null</code> if there is none.
+	 */
+	private void computeBatch(List<EObject> batch, ForkJoinPool pool, TransactionalEditingDomain domain) {
+		List<ReferencesTask> tasks = new ArrayList<>(batch.size());
+		List<Runnable> runnables = new ArrayList<>(batch.size());
+		for (EObject element : batch) {
+			ReferencesTask task = new ReferencesTask(element);
+			tasks.add(task);
+			if (domain != null) {
+				// Created by the owner of the transaction, to be run by the other threads
+				runnables.add(domain.createPrivilegedRunnable(task));
+			} else {
+				runnables.add(task);
+			}
+		}
+		pool.submit(() -> runnables.parallelStream().forEach(Runnable::run)).join();
+		for (ReferencesTask task : tasks) {
+			if (task.failure != null) {
+				throw task.failure;
+			}
+			computeRelevantID(task.element, task.references);
+		}
+		batch.clear();
+	}
+
+	/**
+	 * Compute the Semantic Browser references of an element, possibly on another
+	 * thread while computing the relevant IDs. The categories whose computation
+	 * fails are skipped.
+	 * 
+	 * @param object
+	 *            EObject
+	 * @return the references of the element, by category name.
+	 */
+	protected Map<String, Object> computeSemanticBrowserReferences(EObject object) {
+		return ConversionUtil.getSemanticBrowserReferences(object);
+	}
+
+	private void computeRelevantID(EObject object, Map<String, Object> relevantReferences) {
 		String id = EcoreUtil.getID(object);
 
 		// Check if object is Structure (Semantic Browser has no result for them but
@@ -93,8 +223,7 @@ public class CapellaRelevantConceptsToCSVConverter extends CapellaToCSVConverter
 			}
 		}
 
-		// Get referenced elements from Semantic Browser
-		Map<String, Object> relevantReferences = ConversionUtil.getSemanticBrowserReferences(object);
+		// Referenced elements from Semantic Browser
 		relevantReferences.forEach((k, v) -> {
 			if (v instanceof EObject) {
 				insertRelevantID(object, v);
@@ -107,9 +236,10 @@ public class CapellaRelevantConceptsToCSVConverter extends CapellaToCSVConverter
 			}
 		});
 
-		// compute for children
-		object.eContents().stream().forEach(o -> computeRelevantIDs(o));
-
+		// Kept for the record of the element, only written if it is relevant
+		if (id != null && relevantIDs.contains(id)) {
+			this.semanticBrowserReferences.put(object, relevantReferences);
+		}
 	}
 
 	/**
@@ -141,83 +271,85 @@ public class CapellaRelevantConceptsToCSVConverter extends CapellaToCSVConverter
 		}
 	}
 
-	protected void generateEObjectCSV(EObject object, CSVFormat format, SubMonitor monitor) throws IOException {
-		monitor.setWorkRemaining(100);
+	/**
+	 * Get the Semantic Browser references of an element, computed again only if
+	 * they have been evicted from the cache since the relevant IDs were computed,
+	 * or if the element only became relevant after its references were
+	 * computed.
+	 * 
+	 * @param object
+	 *            EObject
+	 * @return the references of the element, by category name.
+	 */
+	protected Map<String, Object> getSemanticBrowserReferences(EObject object) {
+		Map<String, Object> references = this.semanticBrowserReferences.remove(object);
+		if (references == null) {
+			references = computeSemanticBrowserReferences(object);
+		}
+		return references;
+	}
+
+	@Override
+	public IStatus generateEObjectCSV(SubMonitor monitor) {
+		try {
+			return super.generateEObjectCSV(monitor);
+		} finally {
+			this.semanticBrowserReferences.clear();
+		}
+	}
+
+	@Override
+	protected boolean isParallelExport() {
+		// The Semantic Browser categories are only computed on a single thread
+		return false;
+	}
+
+	@Override
+	protected boolean isDeltaExport() {
+		return false;
+	}
+
+	@Override
+	protected boolean isIncrementalExport() {
+		// The relevant elements depend on the whole model, not only on the changed classes
+		return false;
+	}
+
+	@Override
+	protected boolean generateEObjectRecord(EObject object, CSVFormat format) throws IOException {
 		String objectId = EcoreUtil.getID(object);
-		Map<String, Object> containmentReferences = ConversionUtil.getContainmentReferences(object);
 
 		if (objectId != null && relevantIDs.contains(objectId)) {
-			File csvInputFile = getInputFile(object);
 			File csvOutputFile = getOutputFile(object);
-			String csvOutputFilePath = csvOutputFile.getAbsolutePath();
-
-			Map<String, CSVRecord> idToCSVRecordMap = new HashMap<>();
-			CSVParser csvParser = null;
-			if (csvInputFile != null && csvInputFile.exists()) {
-				csvParser = getCSVParser(csvInputFile);
-				if (csvParser != null) {
-					Collection<CSVRecord> existingCSVRecords = csvParser.getRecords();
-					existingCSVRecords.stream().forEach(rec -> {
-						String id = rec.get(CSVSettings.ID_COLUMN);
-						if (id != null && !id.isEmpty()) {
-							idToCSVRecordMap.put(id, rec);
-						}
-					});
-				}
-			}
+			BeforeExportIndex.Entry existingRecord = this.beforeExportIndex.get(getInputFile(object), objectId);
 
-			Map<String, Object> attributes = ConversionUtil.getAttributes(object);
-			Map<String, Object> semanticBrowserReferences = ConversionUtil.getSemanticBrowserReferences(object);
+			FeaturePlan plan = FeaturePlan.of(object.eClass());
+			this.featureValues = plan.getValues(object, this.featureValues);
+			List<Object> values = Arrays.asList(this.featureValues);
+			int attributesEnd = plan.getAttributes().size();
+			int nonContainmentReferencesEnd = attributesEnd + plan.getNonContainmentReferences().size();
+
+			Map<String, Object> semanticBrowserReferences = getSemanticBrowserReferences(object);
 			Collection<Object> containementValues = Collections.emptyList();
 			if (exportContainments) {
-				containementValues = containmentReferences.values();
-			}
-
-			CSVFormat csvFormatWithHeader;
-			if (csvOutputFile != null && csvOutputFile.exists()) {
-				csvFormatWithHeader = format;
-			} else {
-				Collection<String> headerRecord = createHeaderRecord(attributes.keySet(),
-						semanticBrowserReferences.keySet(), containmentReferences.keySet());
-				csvFormatWithHeader = format.withHeader(headerRecord.toArray(new String[headerRecord.size()]));
-			}
-
-			Writer fstream = new OutputStreamWriter(new FileOutputStream(csvOutputFilePath, true),
-					this.csvSettings.getCharacterSet());
-			try (CSVPrinter printer = new CSVPrinter(fstream, csvFormatWithHeader)) {
-				printer.printRecord(createRecord(object, attributes.values(), semanticBrowserReferences.values(),
-						containementValues, idToCSVRecordMap));
+				containementValues = values.subList(nonContainmentReferencesEnd, plan.getFeatureCount());
 			}
 
-			if (csvParser != null) {
-				csvParser.close();
+			CSVEncoder printer = this.printerPool.get(csvOutputFile);
+			if (printer == null) {
+				Collection<String> headerRecord = createHeaderRecord(plan.getAttributeNames(),
+						semanticBrowserReferences.keySet(), plan.getContainmentReferenceNames());
+				printer = this.printerPool.open(csvOutputFile, headerRecord.toArray(new String[headerRecord.size()]));
+				this.recordBuffer.ensureCapacity(headerRecord.size());
 			}
+			createRecord(object, values.subList(0, attributesEnd), semanticBrowserReferences.values(),
+					containementValues, existingRecord).print(printer);
 		}
-
-		handleChildren(containmentReferences, format, monitor);
-	}
-
-	protected Collection<Object> createRecord(EObject object, Collection<Object> attributes,
-			Collection<Object> references, Collection<Object> containments, Map<String, CSVRecord> idToCSVRecordMap) {
-		CSVRecord existingRecord = idToCSVRecordMap.get(EcoreUtil.getID(object));
-		LinkedList<Object> record = new LinkedList<>();
-		record.add(handleCreationField(object));
-		record.add(handleCreationDateField(object, existingRecord));
-		record.add(handleCreationTimeField(object, existingRecord));
-		record.add(handleUpdateField(object));
-		record.add(handleLastUpdateDateField(object, existingRecord));
-		record.add(handleLastUpdateTimeField(object, existingRecord));
-		record.add(handleDeletionField(object));
-		record.add(handleDeletionDateField(object, existingRecord));
-		record.add(handleDeletionTimeField(object, existingRecord));
-		record.addAll(attributes);
-		record.addAll(referencesRecordPart(references));
-		record.addAll(referencesRecordPart(containments));
-		return record;
+		return true;
 	}
 
-	protected Collection<Object> referencesRecordPart(Collection<Object> references) {
-		Collection<Object> record = new LinkedList<>();
+	@Override
+	protected void referencesRecordPart(Collection<Object> references, RecordBuffer record) {
 		for (Object ref : references) {
 			if (ref instanceof EObject) {
 				String id = EcoreUtil.getID((EObject) ref);
@@ -226,27 +358,21 @@ public class CapellaRelevantConceptsToCSVConverter extends CapellaToCSVConverter
 					nbReferences++;
 				}
 			} else if (ref instanceof Collection<?>) {
-				Collection<String> arrayCell = new LinkedList<>();
+				StringBuilder arrayCell = startListCell();
 				for (Object valueItem : (Collection<?>) ref) {
 					if (valueItem instanceof EObject) {
 						String id = EcoreUtil.getID((EObject) valueItem);
 						if (relevantIDs.contains(id)) {
-							arrayCell.add(id);
+							addListCellItem(arrayCell, id);
 							nbReferences++;
 						}
 					}
 				}
-				if (arrayCell.isEmpty()) {
-					record.add(null);
-				} else {
-					record.add(CSVSettings.LIST_BEGIN + String.join(CSVSettings.LIST_SEPARATOR, arrayCell)
-							+ CSVSettings.LIST_END);
-				}
+				record.add(endListCell(arrayCell));
 			} else if (ref == null) {
 				record.add(null);
 			}
 		}
-		return record;
 	}
 
 	/**
@@ -257,4 +383,82 @@ public class CapellaRelevantConceptsToCSVConverter extends CapellaToCSVConverter
 	public Set<String> getRelevantIDs() {
 		return relevantIDs;
 	}
+
+	/**
+	 * The computation of the Semantic Browser references of an element on another
+	 * thread.
+	 */
+	private class ReferencesTask implements Runnable {
+
+		/**
+		 * The element.
+		 */
+		private final EObject element;
+
+		/**
+		 * The references of the element, <code>null</code> until they are
+		 * computed.
+		 */
+		private Map<String, Object> references;
+
+		/**
+		 * The failure of the computation, rethrown by the calling thread.
+		 */
+		private RuntimeException failure;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param element
+		 *            the element.
+		 */
+		ReferencesTask(EObject element) {
+			this.element = element;
+		}
+
+		@Override
+		public void run() {
+			try {
+				this.references = computeSemanticBrowserReferences(this.element);
+				// CHECKSTYLE:OFF
+			} catch (RuntimeException e) {
+				this.failure = e;
+			}
+			// CHECKSTYLE:ON
+		}
+	}
+
+	/**
+	 * A cache of Semantic Browser references bounded to
+	 * {@link CSVSettings#getRelevantConceptsCacheSize()} elements, evicting the
+	 * least recently used element once full.
+	 */
+	private static class ReferencesCache extends LinkedHashMap<EObject, Map<String, Object>> {
+
+		/**
+		 * serialVersionUID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The maximum number of elements.
+		 */
+		private final int maximumSize;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param maximumSize
+		 *            the maximum number of elements.
+		 */
+		ReferencesCache(int maximumSize) {
+			super(16, 0.75f, true);
+			this.maximumSize = maximumSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<EObject, Map<String, Object>> eldest) {
+			return size() > this.maximumSize;
+		}
+	}
 }
@@ -17,7 +17,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -26,10 +28,10 @@ import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.csv.QuoteMode;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
@@ -37,24 +39,27 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
-import org.eclipse.emf.common.util.EList;
-import org.eclipse.emf.ecore.EAttribute;
-import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.common.notify.Notifier;
 import org.eclipse.emf.ecore.EDataType;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EStructuralFeature.Setting;
 import org.eclipse.emf.ecore.change.util.ChangeRecorder;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.EcoreUtil.UsageCrossReferencer;
+import org.eclipse.emf.ecore.util.InternalEList;
 import org.eclipse.emf.transaction.RecordingCommand;
 import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.sirius.business.api.session.Session;
-import org.eclipse.sirius.viewpoint.DAnalysisSessionEObject;
 
 import com.navalgroup.conversion.capella.csv.core.CSVConstants;
+import com.navalgroup.conversion.capella.csv.core.CSVDecoder;
+import com.navalgroup.conversion.capella.csv.core.CSVFiles;
 import com.navalgroup.conversion.capella.csv.core.CSVSettings;
 import com.navalgroup.conversion.capella.csv.core.ConversionUtil;
+import com.navalgroup.conversion.capella.csv.core.ModelIdIndex;
 import com.navalgroup.conversion.capella.csv.export.CapellaToCSVConverter;
 
 public class CSVToCapellaConverter {
@@ -123,6 +128,12 @@ public class CSVToCapellaConverter {
 	 */
 	protected File csvInputDirectory;
 
+	/**
+	 * The archive of CSV files of the import directory, <code>null</code> if there
+	 * is no archive.
+	 */
+	protected ZipFile csvInputArchive;
+
 	/**
 	 * The Sirius session associated to the existing Capella target model.
 	 */
@@ -141,6 +152,18 @@ public class CSVToCapellaConverter {
 	 */
 	protected Map<String, EObject> unattachedObjectsMap;
 
+	/**
+	 * The elements to delete, in the order of the records flagged for deletion.
+	 * They are deleted together at the end of the deletion step.
+	 */
+	protected Set<EObject> objectsToDelete;
+
+	/**
+	 * The elements of the Capella target model by ID, built at the beginning of
+	 * the import.
+	 */
+	protected ModelIdIndex idIndex;
+
 	/**
 	 * The status returning by the whole process.
 	 */
@@ -159,6 +182,7 @@ public class CSVToCapellaConverter {
 		this.csvSettings = settings;
 		this.newObjectsMap = new HashMap<String, EObject>();
 		this.unattachedObjectsMap = new HashMap<String, EObject>();
+		this.objectsToDelete = new LinkedHashSet<>();
 		this.status = Status.OK_STATUS;
 		String importDirectoryPath = this.csvSettings.getConversionDirectoryPath();
 		this.csvInputDirectory = new File(importDirectoryPath);
@@ -195,17 +219,51 @@ public class CSVToCapellaConverter {
 				.withNullString("");
 		// @formatter:on
 
+		this.idIndex = new ModelIdIndex(session);
+		try {
+			File archive = new File(this.csvInputDirectory, CSVConstants.EXPORT_ARCHIVE);
+			if (archive.isFile()) {
+				this.csvInputArchive = new ZipFile(archive);
+			}
+			importCSVsIntoCapella(session, settings, csvFormat, subMonitor);
+		} catch (IOException e) {
+			Activator.logError(e.getMessage());
+			this.status = new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+					"Cannot read the archive " + CSVConstants.EXPORT_ARCHIVE + SEMICOLON + e.getMessage());
+		} finally {
+			this.idIndex.dispose();
+			closeInputArchive();
+		}
+		session.save(new NullProgressMonitor());
+	}
+
+	private void closeInputArchive() {
+		if (this.csvInputArchive != null) {
+			try {
+				this.csvInputArchive.close();
+			} catch (IOException e) {
+				Activator.logError(e.getMessage());
+			}
+			this.csvInputArchive = null;
+		}
+	}
+
+	protected void importCSVsIntoCapella(Session session, CSVSettings settings, CSVFormat csvFormat,
+			SubMonitor subMonitor) {
 		TransactionalEditingDomain ted = session.getTransactionalEditingDomain();
 		ChangeRecorder recorder = new ChangeRecorder(ted.getResourceSet());
 		RecordingCommand recordingCommand = new RecordingCommand(ted) {
 			@Override
 			protected void doExecute() {
 				try {
+					Collection<File> files = getFiles(csvFormat);
 					// Check every file name match with an existing Capella element type
-					checkFilesNames(csvFormat, session, subMonitor);
-					handleDeletions(settings, csvFormat, subMonitor);
-					handleCreations(settings, csvFormat, session, subMonitor);
-					handleUpdates(settings, csvFormat, subMonitor);
+					checkFilesNames(files, session, subMonitor);
+					// Each file is parsed once for the three passes
+					List<StagedCSVFile> stagedFiles = stageFiles(files, settings, csvFormat, subMonitor);
+					handleDeletions(stagedFiles, subMonitor);
+					handleCreations(stagedFiles, session, subMonitor);
+					handleUpdates(stagedFiles, subMonitor);
 				} catch (CSVToCapellaException e) {
 					Activator.logError(e.getMessage());
 					status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, e.getMessage());
@@ -234,34 +292,48 @@ public class CSVToCapellaConverter {
 			IStatus newObjectsStatus = checkNewObjectsHaveBeenImported();
 			this.status = newObjectsStatus;
 		}
-		session.save(new NullProgressMonitor());
 	}
 
 	protected Collection<File> getFiles(CSVFormat csvFormat) {
-		return Stream.of(this.csvInputDirectory.listFiles())
-				.filter(f -> f.isFile() && f.getPath().endsWith(CSVConstants.CSV_EXT)).collect(Collectors.toList());
+		List<File> files = Stream.of(this.csvInputDirectory.listFiles())
+				.filter(f -> f.isFile() && CSVFiles.isCSVFile(f.getName())).collect(Collectors.toList());
+		if (this.csvInputArchive != null) {
+			// The entries of the archive are read in place, unless a file of the same name is next to it
+			Set<String> fileNames = files.stream().map(File::getName).collect(Collectors.toSet());
+			Collections.list(this.csvInputArchive.entries()).stream()
+					.filter(e -> CSVFiles.isCSVEntry(e) && !fileNames.contains(e.getName()))
+					.forEach(e -> files.add(new File(this.csvInputDirectory, e.getName())));
+		}
+		return files;
 	}
 
-	protected EObject getEObjectFromID(String id) {
-		Collection<Resource> semanticResource = this.siriusSession.getSemanticResources();
-		EObject eObject = null;
-		for (Resource eResource : semanticResource) {
-			eObject = eResource.getEObject(id);
-			if (eObject != null) {
-				break;
-			}
-		}
-		// search in fragments
-		if (eObject == null) {
-			EList<Resource> controlledResources = ((DAnalysisSessionEObject) this.siriusSession)
-					.getControlledResources();
-			for (Resource eResource : controlledResources) {
-				eObject = eResource.getEObject(id);
-				if (eObject != null) {
-					break;
-				}
+	/**
+	 * Open a CSV file to import, decompressing it if needed. A file which is not
+	 * in the import directory is read from the archive of the directory.
+	 * 
+	 * @param file
+	 *            the CSV file, compressed or not.
+	 * @param settings
+	 *            CSVSettings
+	 * @param csvFormat
+	 *            CSVFormat
+	 * @return the decoder of the file, positioned after the header.
+	 * @throws IOException
+	 *             if the file cannot be opened or its header cannot be read.
+	 */
+	protected CSVDecoder parse(File file, CSVSettings settings, CSVFormat csvFormat) throws IOException {
+		if (this.csvInputArchive != null && !file.exists()) {
+			ZipEntry entry = this.csvInputArchive.getEntry(file.getName());
+			if (entry != null) {
+				return new CSVDecoder(CSVFiles.newReader(this.csvInputArchive, entry, settings.getCharacterSet()),
+						csvFormat);
 			}
 		}
+		return new CSVDecoder(CSVFiles.newReader(file, settings.getCharacterSet()), csvFormat);
+	}
+
+	protected EObject getEObjectFromID(String id) {
+		EObject eObject = this.idIndex.getEObject(id);
 		if (eObject == null) {
 			// May be this is a new object with id %ID%, search in the new objects map.
 			eObject = this.newObjectsMap.get(id);
@@ -273,12 +345,11 @@ public class CSVToCapellaConverter {
 		return eObject;
 	}
 
-	protected void checkFilesNames(CSVFormat csvFormat, Session session, SubMonitor subMonitor)
+	protected void checkFilesNames(Collection<File> files, Session session, SubMonitor subMonitor)
 			throws CSVToCapellaException {
-		Collection<File> files = getFiles(csvFormat);
 		for (File file : files) {
 			String name = file.getName();
-			String packageAndClassName = name.replace(CSVConstants.CSV_EXT, "");
+			String packageAndClassName = CSVFiles.getTypeName(name);
 			EObject newObject = ConversionUtil.create(session, packageAndClassName);
 			if (newObject == null) {
 				throw new CSVToCapellaException("The file " + file.getName()
@@ -287,162 +358,245 @@ public class CSVToCapellaConverter {
 		}
 	}
 
-	protected void handleDeletions(CSVSettings settings, CSVFormat csvFormat, SubMonitor subMonitor)
-			throws CSVToCapellaException {
-		SubMonitor deletionsMonitor = subMonitor.split(20);
-		Collection<File> files = getFiles(csvFormat);
-		deletionsMonitor.setWorkRemaining(files.size());
+	/**
+	 * Parse the CSV files to import, keeping the records handled by the deletion,
+	 * creation and update passes.
+	 * 
+	 * @param files
+	 *            the CSV files.
+	 * @param settings
+	 *            CSVSettings
+	 * @param csvFormat
+	 *            CSVFormat
+	 * @param subMonitor
+	 *            SubMonitor
+	 * @return the staged records of each file, in the order of the files.
+	 */
+	protected List<StagedCSVFile> stageFiles(Collection<File> files, CSVSettings settings, CSVFormat csvFormat,
+			SubMonitor subMonitor) {
+		SubMonitor stagingMonitor = subMonitor.split(30);
+		stagingMonitor.setWorkRemaining(files.size());
+		List<StagedCSVFile> stagedFiles = new ArrayList<>(files.size());
 		for (File file : files) {
-			try {
-				CSVParser.parse(file, settings.getCharacterSet(), csvFormat).forEach(this::handleRecordDeletion);
+			StagedCSVFile stagedFile = new StagedCSVFile(file);
+			try (CSVDecoder decoder = parse(file, settings, csvFormat)) {
+				stagedFile.stage(decoder);
 			} catch (IOException | IllegalArgumentException e) {
-				throw new CSVToCapellaException(PARSING_ERROR_IN_MESSAGE + file.getName() + SEMICOLON + e.getMessage());
+				stagedFile.setError(e.getMessage());
 			}
-			deletionsMonitor.split(1);
+			stagedFiles.add(stagedFile);
+			stagingMonitor.split(1);
 		}
+		return stagedFiles;
 	}
 
-	protected void handleRecordDeletion(CSVRecord csvRecord) {
-		String needDelete = csvRecord.get(CSVSettings.TO_DELETE_COLUMN);
-		if (needDelete != null && !needDelete.isEmpty()) {
-			String id = csvRecord.get(CSVSettings.ID_COLUMN);
-			if (id != null && !id.isEmpty()) {
-				Collection<Resource> semanticResource = this.siriusSession.getSemanticResources();
-				EObject eObject = null;
-				for (Resource eResource : semanticResource) {
-					eObject = eResource.getEObject(id);
-					if (eObject != null) {
-						break;
-					}
+	private void checkParsingError(StagedCSVFile stagedFile, int pass, int index) throws CSVToCapellaException {
+		String error = stagedFile.getError(pass, index);
+		if (error != null) {
+			throw new CSVToCapellaException(
+					PARSING_ERROR_IN_MESSAGE + stagedFile.getFile().getName() + SEMICOLON + error);
+		}
+	}
+
+	protected void handleDeletions(List<StagedCSVFile> stagedFiles, SubMonitor subMonitor)
+			throws CSVToCapellaException {
+		SubMonitor deletionsMonitor = subMonitor.split(10);
+		deletionsMonitor.setWorkRemaining(stagedFiles.size());
+		for (StagedCSVFile stagedFile : stagedFiles) {
+			for (int i = 0; i < stagedFile.size(); i++) {
+				checkParsingError(stagedFile, StagedCSVFile.DELETION, i);
+				if (stagedFile.isFlagged(i, StagedCSVFile.DELETION)) {
+					handleRecordDeletion(stagedFile, i);
 				}
-				// search in fragments
-				if (eObject == null) {
-					EList<Resource> controlledResources = ((DAnalysisSessionEObject) this.siriusSession)
-							.getControlledResources();
-					for (Resource eResource : controlledResources) {
-						eObject = eResource.getEObject(id);
-						if (eObject != null) {
-							break;
-						}
+			}
+			checkParsingError(stagedFile, StagedCSVFile.DELETION, stagedFile.size());
+			deletionsMonitor.split(1);
+		}
+		deleteObjects(this.objectsToDelete);
+		this.objectsToDelete.clear();
+	}
+
+	protected void handleRecordDeletion(StagedCSVFile stagedFile, int index) {
+		String id = stagedFile.getId(index);
+		if (id != null && !id.isEmpty()) {
+			EObject eObject = this.idIndex.getEObject(id);
+			if (eObject != null && !isInDeletedObject(eObject)) {
+				this.objectsToDelete.add(eObject);
+			}
+		}
+	}
+
+	/**
+	 * Check if an element is the content of an element to delete. Such an element
+	 * would have been detached from the model, with its container, before its own
+	 * record is handled: it is not deleted on its own.
+	 * 
+	 * @param eObject
+	 *            EObject
+	 * @return <code>true</code> if a container of the element is deleted.
+	 */
+	protected boolean isInDeletedObject(EObject eObject) {
+		for (EObject container = eObject.eContainer(); container != null; container = container.eContainer()) {
+			if (this.objectsToDelete.contains(container)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Delete elements as {@link EcoreUtil#delete(EObject)} does, removing the
+	 * references to each element before removing it from its container. The
+	 * references to all elements are found with a single pass over the resource
+	 * set instead of one pass per element.
+	 * 
+	 * @param eObjects
+	 *            the elements to delete.
+	 */
+	protected void deleteObjects(Collection<EObject> eObjects) {
+		// The references are searched in the same scope as EcoreUtil.delete, usually the resource set
+		Map<Notifier, Set<EObject>> objectsByScope = new LinkedHashMap<>();
+		for (EObject eObject : eObjects) {
+			objectsByScope.computeIfAbsent(getDeletionScope(eObject), scope -> new LinkedHashSet<>()).add(eObject);
+		}
+		Map<EObject, Collection<Setting>> usages = new HashMap<>();
+		for (Entry<Notifier, Set<EObject>> scopeObjects : objectsByScope.entrySet()) {
+			usages.putAll(UsageCrossReferencer.findAll(scopeObjects.getValue(),
+					Collections.singleton(scopeObjects.getKey())));
+		}
+		for (EObject eObject : eObjects) {
+			Collection<Setting> eObjectUsages = usages.get(eObject);
+			if (eObjectUsages != null) {
+				for (Setting setting : eObjectUsages) {
+					if (setting.getEStructuralFeature().isChangeable()) {
+						EcoreUtil.remove(setting, eObject);
 					}
 				}
-				if (eObject != null) {
-					EcoreUtil.delete(eObject);
-				}
 			}
+			EcoreUtil.remove(eObject);
 		}
 	}
 
-	protected void handleCreations(CSVSettings settings, CSVFormat csvFormat, Session session, SubMonitor subMonitor)
-			throws CSVToCapellaException {
-		SubMonitor creationsMonitor = subMonitor.split(20);
-		Collection<File> files = getFiles(csvFormat);
-		creationsMonitor.setWorkRemaining(files.size());
+	private static Notifier getDeletionScope(EObject eObject) {
+		EObject rootEObject = EcoreUtil.getRootContainer(eObject);
+		Resource resource = rootEObject.eResource();
+		if (resource == null) {
+			return rootEObject;
+		}
+		if (resource.getResourceSet() == null) {
+			return resource;
+		}
+		return resource.getResourceSet();
+	}
 
-		for (File file : files) {
-			CSVParser csvParser = null;
-			try {
-				csvParser = CSVParser.parse(file, settings.getCharacterSet(), csvFormat);
-			} catch (IOException | IllegalArgumentException e) {
-				throw new CSVToCapellaException(PARSING_ERROR_IN_MESSAGE + file.getName() + SEMICOLON + e.getMessage());
-			}
-			for (CSVRecord csvRecord : csvParser) {
-				handleRecordCreation(csvRecord, file, session);
+	protected void handleCreations(List<StagedCSVFile> stagedFiles, Session session, SubMonitor subMonitor)
+			throws CSVToCapellaException {
+		SubMonitor creationsMonitor = subMonitor.split(10);
+		creationsMonitor.setWorkRemaining(stagedFiles.size());
+
+		for (StagedCSVFile stagedFile : stagedFiles) {
+			for (int i = 0; i < stagedFile.size(); i++) {
+				checkParsingError(stagedFile, StagedCSVFile.CREATION, i);
+				if (stagedFile.isFlagged(i, StagedCSVFile.CREATION)) {
+					handleRecordCreation(stagedFile, i, session);
+				}
 			}
+			checkParsingError(stagedFile, StagedCSVFile.CREATION, stagedFile.size());
 			creationsMonitor.split(1);
 		}
 	}
 
-	protected void handleRecordCreation(CSVRecord csvRecord, File file, Session session) throws CSVToCapellaException {
-		String needCreate = csvRecord.get(CSVSettings.TO_CREATE_COLUMN);
-		if (needCreate != null && !needCreate.isEmpty()) {
-			String id = csvRecord.get(CSVSettings.ID_COLUMN);
-			if (id != null && Pattern.matches(NEW_TMP_ID_PATTERN, id.trim())) {
-				// Only create the object without setting attributes and references.
-				// Attributes and references will be set in a second time when updating objects.
-				String name = file.getName();
-				String packageAndClassName = name.replace(CSVConstants.CSV_EXT, "");
-				EObject newObject = ConversionUtil.create(session, packageAndClassName);
-				if (newObject != null) {
-					this.newObjectsMap.put(id, newObject);
-				} else {
-					throw new CSVToCapellaException("Cannot create an instance of " + name + " in Capella.");
-				}
+	protected void handleRecordCreation(StagedCSVFile stagedFile, int index, Session session)
+			throws CSVToCapellaException {
+		String id = stagedFile.getId(index);
+		File file = stagedFile.getFile();
+		if (id != null && Pattern.matches(NEW_TMP_ID_PATTERN, id.trim())) {
+			// Only create the object without setting attributes and references.
+			// Attributes and references will be set in a second time when updating objects.
+			String name = file.getName();
+			String packageAndClassName = CSVFiles.getTypeName(name);
+			EObject newObject = ConversionUtil.create(session, packageAndClassName);
+			if (newObject != null) {
+				this.newObjectsMap.put(id, newObject);
 			} else {
-				long recordNumber = csvRecord.getRecordNumber();
-				recordNumber += 1;
-				throw new CSVToCapellaException("The ID (" + id + ") in " + file.getName() + LINE + recordNumber
-						+ ") is not suitable for importing in Capella.");
+				throw new CSVToCapellaException("Cannot create an instance of " + name + " in Capella.");
 			}
+		} else {
+			throw new CSVToCapellaException("The ID (" + id + ") in " + file.getName() + LINE
+					+ stagedFile.getLineNumber(index) + ") is not suitable for importing in Capella.");
 		}
 	}
 
-	protected void handleUpdates(CSVSettings settings, CSVFormat csvFormat, SubMonitor subMonitor)
+	protected void handleUpdates(List<StagedCSVFile> stagedFiles, SubMonitor subMonitor)
 			throws CSVToCapellaException {
-		SubMonitor updatesMonitor = subMonitor.split(20);
-		Collection<File> files = getFiles(csvFormat);
-		updatesMonitor.setWorkRemaining(files.size());
-		for (File file : files) {
-			CSVParser csvParser = null;
-			try {
-				csvParser = CSVParser.parse(file, settings.getCharacterSet(), csvFormat);
-			} catch (IOException | IllegalArgumentException e) {
-				throw new CSVToCapellaException(PARSING_ERROR_IN_MESSAGE + file.getName() + SEMICOLON + e.getMessage());
-			}
-			for (CSVRecord csvRecord : csvParser) {
-				handleRecordUpdate(csvRecord, file.getName());
+		SubMonitor updatesMonitor = subMonitor.split(10);
+		updatesMonitor.setWorkRemaining(stagedFiles.size());
+		for (StagedCSVFile stagedFile : stagedFiles) {
+			for (int i = 0; i < stagedFile.size(); i++) {
+				checkParsingError(stagedFile, StagedCSVFile.UPDATE, i);
+				if (stagedFile.isFlagged(i, StagedCSVFile.UPDATE)) {
+					handleRecordUpdate(stagedFile, i);
+				}
 			}
+			checkParsingError(stagedFile, StagedCSVFile.UPDATE, stagedFile.size());
 			updatesMonitor.split(1);
 		}
 	}
 
-	protected void handleRecordUpdate(CSVRecord csvRecord, String fileName) throws CSVToCapellaException {
-		String needUpdate = csvRecord.get(CSVSettings.TO_UPDATE_COLUMN);
-		String needCreate = csvRecord.get(CSVSettings.TO_CREATE_COLUMN);
-
-		if ("x".equalsIgnoreCase(needUpdate) || "x".equalsIgnoreCase(needCreate)) {
-			String id = csvRecord.get(CSVSettings.ID_COLUMN);
-			if (id != null && !id.isEmpty()) {
-				EObject eObject = getEObjectFromID(id);
-				if (eObject != null) {
-					Map<String, String> recordMap = csvRecord.toMap();
-					for (Entry<String, String> entry : recordMap.entrySet()) {
-						handleRecordCellUpdate(eObject, entry.getKey(), entry.getValue(), fileName,
-								csvRecord.getRecordNumber() + 1);
+	protected void handleRecordUpdate(StagedCSVFile stagedFile, int index) throws CSVToCapellaException {
+		String id = stagedFile.getId(index);
+		if (id != null && !id.isEmpty()) {
+			EObject eObject = getEObjectFromID(id);
+			if (eObject != null) {
+				String fileName = stagedFile.getFile().getName();
+				String[] cells = stagedFile.getCells(index);
+				// The header of the file is bound once for the class of the element
+				for (ColumnBinding binding : stagedFile.getBindings(eObject.eClass(), columnsToNotParse)) {
+					int column = binding.getColumn();
+					if (column < cells.length) {
+						handleRecordCellUpdate(eObject, binding, cells[column], fileName,
+								stagedFile.getLineNumber(index));
 					}
 				}
 			}
 		}
 	}
 
-	protected void handleRecordCellUpdate(EObject eObject, String key, String value, String fileName, long recordLine)
-			throws CSVToCapellaException {
-		if (!columnsToNotParse.contains(key)) {
-			EStructuralFeature feature = eObject.eClass().getEStructuralFeature(key);
-			if (feature instanceof EAttribute) {
-				handleAttributeCellUpdate(eObject, (EAttribute) feature, value, fileName, recordLine);
-			} else if (feature instanceof EReference) {
-				handleReferenceCellUpdate(eObject, (EReference) feature, value, fileName, recordLine);
-			} else {
-				// The feature does not exist, raise exception
-				throw new CSVToCapellaException("The column " + key + IN + fileName + " does not exist in Capella.");
-			}
+	protected void handleRecordCellUpdate(EObject eObject, ColumnBinding binding, String value, String fileName,
+			long recordLine) throws CSVToCapellaException {
+		switch (binding.getKind()) {
+		case ColumnBinding.ATTRIBUTE:
+			handleAttributeCellUpdate(eObject, binding, value, fileName, recordLine);
+			break;
+		case ColumnBinding.CONTAINMENT:
+			handleContainmentReferenceCellUpdate(eObject, (EReference) binding.getFeature(), value, fileName,
+					recordLine);
+			break;
+		case ColumnBinding.NON_CONTAINMENT:
+			handleNonContainmentReferenceCellUpdate(eObject, (EReference) binding.getFeature(), value, fileName,
+					recordLine);
+			break;
+		default:
+			// The feature does not exist, raise exception
+			throw new CSVToCapellaException(
+					"The column " + binding.getName() + IN + fileName + " does not exist in Capella.");
 		}
 	}
 
 	@SuppressWarnings("unchecked")
-	protected void handleAttributeCellUpdate(EObject eObject, EAttribute feature, String value, String fileName,
+	protected void handleAttributeCellUpdate(EObject eObject, ColumnBinding binding, String value, String fileName,
 			long recordLine) throws CSVToCapellaException {
+		EStructuralFeature feature = binding.getFeature();
+		EDataType eType = binding.getDataType();
 		if (feature.isMany()) {
-			EClassifier eType = feature.getEType();
-			if (eType instanceof EDataType) {
+			if (eType != null) {
 				eObject.eUnset(feature);
 				Object manyAttributesList = eObject.eGet(feature);
 				if (manyAttributesList instanceof Collection<?>) {
 					Collection<String> elementsToImport = csvAttributesValuesToList(value);
 					for (String elementToImport : elementsToImport) {
 						try {
-							Object valueFromString = EcoreUtil.createFromString((EDataType) eType, elementToImport);
+							Object valueFromString = binding.createFromString(elementToImport);
 							((Collection<Object>) manyAttributesList).add(valueFromString);
 						} catch (ArrayStoreException | IllegalArgumentException e) {
 							// Try to add some elements who don't fit in the list
@@ -452,35 +606,23 @@ public class CSVToCapellaConverter {
 					}
 				}
 			}
-		} else {
-			EClassifier eType = feature.getEType();
-			if (eType instanceof EDataType) {
-				try {
-					Object valueFromString = EcoreUtil.createFromString((EDataType) eType, value);
-					if (valueFromString == null) {
-						Object defaultValue = eType.getDefaultValue();
-						if (defaultValue != null) {
-							valueFromString = defaultValue;
-						}
+		} else if (eType != null) {
+			try {
+				Object valueFromString = binding.createFromString(value);
+				if (valueFromString == null) {
+					Object defaultValue = eType.getDefaultValue();
+					if (defaultValue != null) {
+						valueFromString = defaultValue;
 					}
-					eObject.eSet(feature, valueFromString);
-				} catch (ClassCastException | IllegalArgumentException e) {
-					throw new CSVToCapellaException(THE_FEATURE + feature.getName() + IN + fileName + LINE + recordLine
-							+ " only handle elements of type " + eType.getInstanceClassName());
 				}
+				eObject.eSet(feature, valueFromString);
+			} catch (ClassCastException | IllegalArgumentException e) {
+				throw new CSVToCapellaException(THE_FEATURE + feature.getName() + IN + fileName + LINE + recordLine
+						+ " only handle elements of type " + eType.getInstanceClassName());
 			}
 		}
 	}
 
-	protected void handleReferenceCellUpdate(EObject eObject, EReference feature, String value, String fileName,
-			long recordLine) throws CSVToCapellaException {
-		if (feature.isContainment()) {
-			handleContainmentReferenceCellUpdate(eObject, feature, value, fileName, recordLine);
-		} else {
-			handleNonContainmentReferenceCellUpdate(eObject, feature, value, fileName, recordLine);
-		}
-	}
-
 	protected void handleContainmentReferenceCellUpdate(EObject eObject, EReference feature, String value,
 			String fileName, long recordLine) throws CSVToCapellaException {
 		if (feature.isMany()) {
@@ -490,7 +632,6 @@ public class CSVToCapellaConverter {
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	protected void handleManyContainmentReferenceCellUpdate(EObject eObject, EReference feature, String value,
 			String fileName, long recordLine) throws CSVToCapellaException {
 		if (value == null || value.isEmpty()) {
@@ -509,30 +650,7 @@ public class CSVToCapellaConverter {
 				eObject.eUnset(feature);
 			}
 		} else {
-			Object eGetResult = eObject.eGet(feature);
-			if (eGetResult instanceof Collection<?>) {
-				Collection<EObject> containedListElts = (Collection<EObject>) eGetResult;
-				Collection<EObject> elementsToImport = csvReferenceValuesToList(value);
-				for (EObject elementToImport : elementsToImport) {
-					if (!containedListElts.contains(elementToImport)) {
-						try {
-							containedListElts.add(elementToImport);
-						} catch (ArrayStoreException e) {
-							// Try to add some elements who don't fit in the list
-							throw new CSVToCapellaException(
-									THE_FEATURE + feature.getName() + IN + fileName + LINE + recordLine
-											+ DOES_NOT_HANDLE_ELEMENTS_OF_TYPE + elementToImport.eClass().getName());
-						}
-					}
-				}
-				Collection<EObject> toRemove = new HashSet<>();
-				for (Object containedListElt : containedListElts) {
-					if (!elementsToImport.contains(containedListElt)) {
-						toRemove.add((EObject) containedListElt);
-					}
-				}
-				((Collection<?>) containedListElts).removeAll(toRemove);
-			}
+			reconcileReferenceList(eObject, feature, csvReferenceValuesToList(value), fileName, recordLine);
 		}
 	}
 
@@ -567,35 +685,72 @@ public class CSVToCapellaConverter {
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	protected void handleManyNonContainmentReferenceCellUpdate(EObject eObject, EReference feature, String value,
 			String fileName, long recordLine) throws CSVToCapellaException {
 		if (value == null || value.isEmpty()) {
 			eObject.eUnset(feature);
 		} else {
-			Object eGetResult = eObject.eGet(feature);
-			if (eGetResult instanceof Collection<?>) {
-				Collection<EObject> nonContainedListElts = (Collection<EObject>) eGetResult;
-				Collection<EObject> elementsToImport = csvReferenceValuesToList(value);
-				for (EObject elementToImport : elementsToImport) {
-					if (!nonContainedListElts.contains(elementToImport)) {
-						try {
-							nonContainedListElts.add(elementToImport);
-						} catch (ArrayStoreException e) {
-							// Try to add some elements who don't fit in the list
-							throw new CSVToCapellaException(
-									THE_FEATURE + feature.getName() + IN + fileName + LINE + recordLine
-											+ DOES_NOT_HANDLE_ELEMENTS_OF_TYPE + elementToImport.eClass().getName());
+			reconcileReferenceList(eObject, feature, csvReferenceValuesToList(value), fileName, recordLine);
+		}
+	}
+
+	/**
+	 * Update a many-valued reference so that it holds the imported elements. The
+	 * elements it already holds keep their order and the other imported elements
+	 * are added at the end, in the order of the cell. The list is compared once
+	 * with the imported elements: an unchanged list is left untouched, otherwise
+	 * only the missing elements are added and the leftovers removed.
+	 * 
+	 * @param eObject
+	 *            the updated element.
+	 * @param feature
+	 *            the many-valued reference.
+	 * @param elementsToImport
+	 *            the imported elements, without duplicates.
+	 * @param fileName
+	 *            the name of the CSV file.
+	 * @param recordLine
+	 *            the line of the record.
+	 * @throws CSVToCapellaException
+	 *             if an imported element does not fit in the reference.
+	 */
+	@SuppressWarnings("unchecked")
+	protected void reconcileReferenceList(EObject eObject, EReference feature, Collection<EObject> elementsToImport,
+			String fileName, long recordLine) throws CSVToCapellaException {
+		Object eGetResult = eObject.eGet(feature);
+		if (eGetResult instanceof List<?>) {
+			List<EObject> listElts = (List<EObject>) eGetResult;
+			Set<EObject> currentElts = new HashSet<>(listElts);
+			Set<EObject> importedElts = elementsToImport instanceof Set<?> ? (Set<EObject>) elementsToImport
+					: new HashSet<>(elementsToImport);
+			if (currentElts.size() == importedElts.size() && currentElts.containsAll(importedElts)) {
+				// Same elements, the existing order is kept
+				return;
+			}
+			for (EObject elementToImport : elementsToImport) {
+				if (!currentElts.contains(elementToImport)) {
+					try {
+						// The element is known to be missing, the list does not need to look for it
+						if (listElts instanceof InternalEList<?>) {
+							((InternalEList<EObject>) listElts).addUnique(elementToImport);
+						} else {
+							listElts.add(elementToImport);
 						}
+					} catch (ArrayStoreException e) {
+						// Try to add some elements who don't fit in the list
+						throw new CSVToCapellaException(THE_FEATURE + feature.getName() + IN + fileName + LINE
+								+ recordLine + DOES_NOT_HANDLE_ELEMENTS_OF_TYPE + elementToImport.eClass().getName());
 					}
 				}
-				Collection<EObject> toRemove = new HashSet<>();
-				for (Object nonContainedListElt : nonContainedListElts) {
-					if (!elementsToImport.contains(nonContainedListElt)) {
-						toRemove.add((EObject) nonContainedListElt);
-					}
+			}
+			Collection<EObject> toRemove = new HashSet<>();
+			for (EObject currentElt : currentElts) {
+				if (!importedElts.contains(currentElt)) {
+					toRemove.add(currentElt);
 				}
-				((Collection<?>) nonContainedListElts).removeAll(toRemove);
+			}
+			if (!toRemove.isEmpty()) {
+				listElts.removeAll(toRemove);
 			}
 		}
 	}
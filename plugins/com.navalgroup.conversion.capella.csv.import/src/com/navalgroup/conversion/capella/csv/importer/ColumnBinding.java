@@ -0,0 +1,184 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.importer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EFactory;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.navalgroup.conversion.capella.csv.core.FeaturePlan;
+
+/**
+ * A column of a CSV file to import bound to the feature it updates for the
+ * elements of a class: the kind of the feature and, for an attribute, the
+ * factory reading the values of its data type. The header of a file is bound
+ * once per class, then the cells of the records are applied by column index.
+ */
+public class ColumnBinding {
+
+	/**
+	 * A column without feature in the class.
+	 */
+	public static final int UNKNOWN = 0;
+
+	/**
+	 * A column of an attribute.
+	 */
+	public static final int ATTRIBUTE = 1;
+
+	/**
+	 * A column of a containment reference.
+	 */
+	public static final int CONTAINMENT = 2;
+
+	/**
+	 * A column of a non-containment reference.
+	 */
+	public static final int NON_CONTAINMENT = 3;
+
+	/**
+	 * The name of the column.
+	 */
+	private final String name;
+
+	/**
+	 * The index of the cells of the column.
+	 */
+	private final int column;
+
+	/**
+	 * The feature of the column, <code>null</code> for an unknown column.
+	 */
+	private final EStructuralFeature feature;
+
+	/**
+	 * The kind of the feature.
+	 */
+	private final int kind;
+
+	/**
+	 * The data type of the attribute, <code>null</code> for the other features.
+	 */
+	private final EDataType dataType;
+
+	/**
+	 * The factory reading the values of the data type.
+	 */
+	private final EFactory factory;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @param column
+	 *            the index of the cells of the column.
+	 * @param feature
+	 *            the feature of the column, <code>null</code> if there is none.
+	 */
+	public ColumnBinding(String name, int column, EStructuralFeature feature) {
+		this.name = name;
+		this.column = column;
+		this.feature = feature;
+		EDataType attributeType = null;
+		if (feature instanceof EAttribute) {
+			this.kind = ATTRIBUTE;
+			EClassifier eType = feature.getEType();
+			if (eType instanceof EDataType) {
+				attributeType = (EDataType) eType;
+			}
+		} else if (feature instanceof EReference) {
+			if (((EReference) feature).isContainment()) {
+				this.kind = CONTAINMENT;
+			} else {
+				this.kind = NON_CONTAINMENT;
+			}
+		} else {
+			this.kind = UNKNOWN;
+		}
+		this.dataType = attributeType;
+		if (attributeType != null && attributeType.getEPackage() != null) {
+			this.factory = attributeType.getEPackage().getEFactoryInstance();
+		} else {
+			this.factory = null;
+		}
+	}
+
+	/**
+	 * Bind the columns of a header to the features of a class, in the order of
+	 * the header.
+	 * 
+	 * @param eClass
+	 *            the class of the updated elements.
+	 * @param headerNames
+	 *            the names of the columns.
+	 * @param columns
+	 *            the index of the cells of each column.
+	 * @param ignoredColumns
+	 *            the names of the columns which are not bound.
+	 * @return the bindings of the other columns.
+	 */
+	public static ColumnBinding[] bind(EClass eClass, List<String> headerNames, int[] columns,
+			Collection<String> ignoredColumns) {
+		FeaturePlan plan = FeaturePlan.of(eClass);
+		List<ColumnBinding> bindings = new ArrayList<>(headerNames.size());
+		for (int i = 0; i < headerNames.size(); i++) {
+			String columnName = headerNames.get(i);
+			if (!ignoredColumns.contains(columnName)) {
+				bindings.add(new ColumnBinding(columnName, columns[i], plan.getFeature(columnName)));
+			}
+		}
+		return bindings.toArray(new ColumnBinding[bindings.size()]);
+	}
+
+	/**
+	 * Read a value of the data type of the attribute, as
+	 * {@link EcoreUtil#createFromString(EDataType, String)} does.
+	 * 
+	 * @param literal
+	 *            the value as a string, may be <code>null</code>.
+	 * @return the value.
+	 */
+	public Object createFromString(String literal) {
+		if (this.factory == null) {
+			return EcoreUtil.createFromString(this.dataType, literal);
+		}
+		return this.factory.createFromString(this.dataType, literal);
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getColumn() {
+		return this.column;
+	}
+
+	public EStructuralFeature getFeature() {
+		return this.feature;
+	}
+
+	public int getKind() {
+		return this.kind;
+	}
+
+	public EDataType getDataType() {
+		return this.dataType;
+	}
+}
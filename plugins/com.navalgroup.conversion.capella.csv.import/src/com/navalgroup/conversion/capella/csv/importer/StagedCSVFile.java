@@ -0,0 +1,322 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.importer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EClass;
+
+import com.navalgroup.conversion.capella.csv.core.CSVDecoder;
+import com.navalgroup.conversion.capella.csv.core.CSVSettings;
+
+/**
+ * The records of a CSV file to import, parsed once and shared by the deletion,
+ * creation and update passes of the import. Only the records flagged for one of
+ * the passes are kept: their flags, their identifier and line, and the raw
+ * cells of the records to update.
+ * <p>
+ * An error found while parsing the file is kept with the position where it
+ * occurred in each pass, and reported by the pass when it reaches this
+ * position. The passes thus fail on the same error as if each of them parsed
+ * the file again.
+ * </p>
+ */
+public class StagedCSVFile {
+
+	/**
+	 * The deletion pass.
+	 */
+	public static final int DELETION = 0;
+
+	/**
+	 * The creation pass.
+	 */
+	public static final int CREATION = 1;
+
+	/**
+	 * The update pass.
+	 */
+	public static final int UPDATE = 2;
+
+	/**
+	 * The number of passes.
+	 */
+	private static final int NB_PASSES = 3;
+
+	/**
+	 * The initial number of records.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The CSV file.
+	 */
+	protected final File file;
+
+	/**
+	 * The names of the columns, in the order of the header.
+	 */
+	protected List<String> headerNames;
+
+	/**
+	 * The index of each column of {@link #headerNames}.
+	 */
+	protected int[] headerColumns;
+
+	/**
+	 * The bindings of the columns, by class of the updated elements.
+	 */
+	protected final Map<EClass, ColumnBinding[]> bindings = new HashMap<>();
+
+	/**
+	 * The passes of each record, one bit per pass.
+	 */
+	protected byte[] flags = new byte[INITIAL_CAPACITY];
+
+	/**
+	 * The identifier of each record.
+	 */
+	protected String[] ids = new String[INITIAL_CAPACITY];
+
+	/**
+	 * The line of the file where each record starts.
+	 */
+	protected long[] lineNumbers = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The cells of each record to update, <code>null</code> for the other
+	 * records.
+	 */
+	protected String[][] cells = new String[INITIAL_CAPACITY][];
+
+	/**
+	 * The number of records.
+	 */
+	protected int size;
+
+	/**
+	 * The parsing error of each pass, <code>null</code> if there is none.
+	 */
+	protected final String[] errors = new String[NB_PASSES];
+
+	/**
+	 * The number of records each pass handles before reporting its error.
+	 */
+	protected final int[] errorPositions = new int[NB_PASSES];
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param file
+	 *            the CSV file.
+	 */
+	public StagedCSVFile(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Read the records of the file.
+	 * 
+	 * @param decoder
+	 *            the decoder of the file, positioned after the header.
+	 */
+	public void stage(CSVDecoder decoder) {
+		this.headerNames = decoder.getHeaderNames();
+		this.headerColumns = new int[this.headerNames.size()];
+		for (int i = 0; i < this.headerColumns.length; i++) {
+			this.headerColumns[i] = decoder.getColumn(this.headerNames.get(i));
+		}
+		try {
+			while (decoder.nextRecord()) {
+				stageRecord(decoder);
+			}
+		} catch (IOException e) {
+			// The next records cannot be read, each pass stops here
+			setError(e.getMessage());
+		}
+	}
+
+	private void stageRecord(CSVDecoder decoder) {
+		int recordFlags = 0;
+		String id = null;
+		String[] recordCells = null;
+		try {
+			if (!decoder.isEmpty(CSVSettings.TO_DELETE_COLUMN)) {
+				id = decoder.get(CSVSettings.ID_COLUMN);
+				recordFlags |= 1 << DELETION;
+			}
+		} catch (IllegalArgumentException e) {
+			setError(DELETION, e.getMessage());
+		}
+		try {
+			if (!decoder.isEmpty(CSVSettings.TO_CREATE_COLUMN)) {
+				id = decoder.get(CSVSettings.ID_COLUMN);
+				recordFlags |= 1 << CREATION;
+			}
+		} catch (IllegalArgumentException e) {
+			setError(CREATION, e.getMessage());
+		}
+		try {
+			if (decoder.equalsIgnoreCase(CSVSettings.TO_UPDATE_COLUMN, "x")
+					|| decoder.equalsIgnoreCase(CSVSettings.TO_CREATE_COLUMN, "x")) {
+				id = decoder.get(CSVSettings.ID_COLUMN);
+				recordCells = new String[decoder.size()];
+				for (int i = 0; i < recordCells.length; i++) {
+					recordCells[i] = decoder.get(i);
+				}
+				recordFlags |= 1 << UPDATE;
+			}
+		} catch (IllegalArgumentException e) {
+			setError(UPDATE, e.getMessage());
+		}
+		if (recordFlags != 0) {
+			if (this.size == this.flags.length) {
+				int capacity = this.size * 2;
+				this.flags = Arrays.copyOf(this.flags, capacity);
+				this.ids = Arrays.copyOf(this.ids, capacity);
+				this.lineNumbers = Arrays.copyOf(this.lineNumbers, capacity);
+				this.cells = Arrays.copyOf(this.cells, capacity);
+			}
+			this.flags[this.size] = (byte) recordFlags;
+			this.ids[this.size] = id;
+			this.lineNumbers[this.size] = decoder.getLineNumber();
+			this.cells[this.size] = recordCells;
+			this.size++;
+		}
+	}
+
+	/**
+	 * Record an error stopping all passes after the records already read, the
+	 * file cannot be read any further.
+	 * 
+	 * @param message
+	 *            the message of the error.
+	 */
+	public void setError(String message) {
+		for (int pass = 0; pass < NB_PASSES; pass++) {
+			setError(pass, message);
+		}
+	}
+
+	private void setError(int pass, String message) {
+		// Only the first error of a pass is reported
+		if (this.errors[pass] == null) {
+			this.errors[pass] = message;
+			this.errorPositions[pass] = this.size;
+		}
+	}
+
+	/**
+	 * Get the error a pass reports before handling the given record.
+	 * 
+	 * @param pass
+	 *            the pass.
+	 * @param index
+	 *            the index of the record, {@link #size()} once all records are
+	 *            handled.
+	 * @return the message of the error, or <code>null</code> if there is none.
+	 */
+	public String getError(int pass, int index) {
+		if (this.errors[pass] != null && this.errorPositions[pass] == index) {
+			return this.errors[pass];
+		}
+		return null;
+	}
+
+	public File getFile() {
+		return this.file;
+	}
+
+	public List<String> getHeaderNames() {
+		return this.headerNames;
+	}
+
+	/**
+	 * Get the index of a column of the header.
+	 * 
+	 * @param headerIndex
+	 *            the index of the column name in {@link #getHeaderNames()}.
+	 * @return the index of the cells of the column.
+	 */
+	public int getColumn(int headerIndex) {
+		return this.headerColumns[headerIndex];
+	}
+
+	/**
+	 * Get the bindings of the columns to the features of a class, binding them
+	 * the first time.
+	 * 
+	 * @param eClass
+	 *            the class of the updated elements.
+	 * @param ignoredColumns
+	 *            the names of the columns which are not bound.
+	 * @return the bindings, in the order of the header.
+	 */
+	public ColumnBinding[] getBindings(EClass eClass, Collection<String> ignoredColumns) {
+		return this.bindings.computeIfAbsent(eClass,
+				c -> ColumnBinding.bind(c, this.headerNames, this.headerColumns, ignoredColumns));
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Check if a record is handled by a pass.
+	 * 
+	 * @param index
+	 *            the index of the record.
+	 * @param pass
+	 *            the pass.
+	 * @return <code>true</code> if the record is flagged for the pass.
+	 */
+	public boolean isFlagged(int index, int pass) {
+		return (this.flags[index] & (1 << pass)) != 0;
+	}
+
+	/**
+	 * Get the identifier of a record.
+	 * 
+	 * @param index
+	 *            the index of the record.
+	 * @return the identifier, may be <code>null</code>.
+	 */
+	public String getId(int index) {
+		return this.ids[index];
+	}
+
+	/**
+	 * Get the line of the file where a record starts.
+	 * 
+	 * @param index
+	 *            the index of the record.
+	 * @return the number of the line, starting at 1.
+	 */
+	public long getLineNumber(int index) {
+		return this.lineNumbers[index];
+	}
+
+	/**
+	 * Get the cells of a record to update.
+	 * 
+	 * @param index
+	 *            the index of the record.
+	 * @return the cells, <code>null</code> if the record is not updated.
+	 */
+	public String[] getCells(int index) {
+		return this.cells[index];
+	}
+}
@@ -0,0 +1,233 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Test;
+import org.polarsys.capella.core.data.capellamodeller.CapellamodellerFactory;
+
+import com.navalgroup.conversion.capella.csv.core.CSVSettings;
+import com.navalgroup.conversion.capella.csv.export.BeforeExportIndex;
+import com.navalgroup.conversion.capella.csv.export.BeforeExportIndex.Entry;
+import com.navalgroup.conversion.capella.csv.export.CapellaToCSVConverter;
+import com.navalgroup.conversion.capella.csv.export.ContentHash;
+import com.navalgroup.conversion.capella.csv.export.MappedBeforeExportIndex;
+
+/**
+ * The memory-mapped index of the previous export finds the same records as the
+ * index parsing the files with a {@link org.apache.commons.csv.CSVParser}.
+ */
+public class BeforeExportIndexTestCases extends AbstractConverterTestCases {
+
+	private static final String TMP_FOLDER = "beforeExportIndex";
+	private static final String CSV_FILE = "capellacore.Constraint.csv";
+	private static final String CREATION_DATE = "20220101";
+	private static final String CREATION_TIME = "10:00:00.000+01:00";
+	private static final String DELETION_DATE = "20220202";
+	private static final String DELETION_TIME = "11:00:00.000+01:00";
+
+	/**
+	 * A small file, read into a heap buffer.
+	 */
+	@Test
+	public void mappedIndexOfSmallFile() {
+		compareIndexes(100, MappedBeforeExportIndex.CHUNK_SIZE);
+	}
+
+	/**
+	 * A file larger than the heap buffer, mapped by chunks much smaller than the
+	 * records so that records and cells span several chunks.
+	 */
+	@Test
+	public void mappedIndexOfChunkedFile() {
+		compareIndexes(2000, 4096);
+	}
+
+	/**
+	 * Index a CSV file with both indexes and compare their records.
+	 *
+	 * @param nbRecords
+	 *            the number of records of the file.
+	 * @param chunkSize
+	 *            the size of the chunks of the mapped file.
+	 */
+	protected void compareIndexes(int nbRecords, int chunkSize) {
+		Path directoryPath = null;
+		try {
+			directoryPath = Files.createTempDirectory(TMP_FOLDER);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		CSVSettings settings = new CSVSettings(directoryPath.toString(), FIELD_DELIMITER, TEXT_DELIMITER,
+				CHARACTER_SET, LINE_SEPARATOR);
+		// The hash of the data cells is compared too
+		settings.setDeltaExport(true);
+		CapellaToCSVConverter converter = new CapellaToCSVConverter(
+				CapellamodellerFactory.eINSTANCE.createSystemEngineering(), settings);
+		File csvFile = directoryPath.resolve(CSV_FILE).toFile();
+		List<String> ids = writeCSV(csvFile, nbRecords);
+
+		BeforeExportIndex expectedIndex = new BeforeExportIndex(converter);
+		MappedBeforeExportIndex actualIndex = new MappedBeforeExportIndex(converter, chunkSize);
+		try {
+			expectedIndex.index(csvFile);
+			actualIndex.index(csvFile);
+
+			assertArrayEquals(expectedIndex.getHeader(csvFile), actualIndex.getHeader(csvFile));
+			for (String id : ids) {
+				Entry expectedEntry = expectedIndex.get(csvFile, id);
+				Entry actualEntry = actualIndex.get(csvFile, id);
+				assertNotNull(id, expectedEntry);
+				assertNotNull(id, actualEntry);
+				assertEquals(id, expectedEntry.getCreationDate(), actualEntry.getCreationDate());
+				assertEquals(id, expectedEntry.getCreationTime(), actualEntry.getCreationTime());
+				assertEquals(id, expectedEntry.getDeletionDate(), actualEntry.getDeletionDate());
+				assertEquals(id, expectedEntry.getDeletionTime(), actualEntry.getDeletionTime());
+				assertEquals(id, expectedEntry.getContentHash(), actualEntry.getContentHash());
+			}
+			assertNull(expectedIndex.get(csvFile, "unknown"));
+			assertNull(actualIndex.get(csvFile, "unknown"));
+			// The missing trailing cells hash as empty ones
+			String missingCellsId = ids.get(6);
+			long hash = ContentHash.add(ContentHash.add(ContentHash.EMPTY, missingCellsId), "name 6");
+			assertEquals(ContentHash.add(hash, null), actualIndex.get(csvFile, missingCellsId).getContentHash());
+
+			List<List<String>> expectedRecords = new ArrayList<>();
+			expectedIndex.forEachRecordToDelete(csvFile, id -> !id.endsWith("0"),
+					rec -> expectedRecords.add(toList(rec)));
+			List<List<String>> actualRecords = new ArrayList<>();
+			actualIndex.forEachRecordToDelete(csvFile, id -> !id.endsWith("0"),
+					rec -> actualRecords.add(toList(rec)));
+			assertFalse(expectedRecords.isEmpty());
+			assertEquals(expectedRecords, actualRecords);
+
+			expectedRecords.clear();
+			expectedIndex.forEachRecord(csvFile, id -> id.endsWith("1"), rec -> expectedRecords.add(toList(rec)));
+			actualRecords.clear();
+			actualIndex.forEachRecord(csvFile, id -> id.endsWith("1"), rec -> actualRecords.add(toList(rec)));
+			assertFalse(expectedRecords.isEmpty());
+			assertEquals(expectedRecords, actualRecords);
+			for (List<String> rec : actualRecords) {
+				assertTrue(rec.get(CSVSettings.MANAGEMENT_COLUMNS.size()).endsWith("1"));
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} finally {
+			expectedIndex.clear();
+			// Release the mapping of the file
+			actualIndex.clear();
+		}
+		assertNull(actualIndex.get(csvFile, ids.get(0)));
+		assertTrue(csvFile.delete());
+	}
+
+	/**
+	 * Write a CSV file with quoted, multi-line and empty values, records to
+	 * delete, empty lines and a duplicated id.
+	 *
+	 * @param csvFile
+	 *            the CSV file.
+	 * @param nbRecords
+	 *            the number of records.
+	 * @return the ids of the records.
+	 */
+	protected List<String> writeCSV(File csvFile, int nbRecords) {
+		StringBuilder content = new StringBuilder();
+		for (String column : CSVSettings.MANAGEMENT_COLUMNS) {
+			content.append(quote(column)).append(FIELD_DELIMITER);
+		}
+		content.append(quote(CSVSettings.ID_COLUMN)).append(FIELD_DELIMITER).append(quote("name"))
+				.append(FIELD_DELIMITER).append(quote("description")).append(LINE_SEPARATOR);
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < nbRecords; i++) {
+			String id = "id-" + i;
+			String toDelete = null;
+			String name = "name " + i;
+			String description = "description " + i;
+			switch (i % 7) {
+			case 0:
+				description = "first line\nsecond line\r\nthird line " + i;
+				break;
+			case 1:
+				name = "a" + FIELD_DELIMITER + "b " + TEXT_DELIMITER + "quoted" + TEXT_DELIMITER + " " + i;
+				break;
+			case 2:
+				name = null;
+				description = "";
+				break;
+			case 3:
+				toDelete = "x";
+				break;
+			case 4:
+				id = "%" + id;
+				toDelete = "x";
+				break;
+			case 5:
+				name = "\u00e9t\u00e9 \u00e0 \u00fc " + i;
+				// Empty lines between records
+				content.append(LINE_SEPARATOR).append("\r\n");
+				break;
+			default:
+				// Missing trailing cells
+				description = null;
+				break;
+			}
+			boolean deleted = toDelete != null;
+			content.append(FIELD_DELIMITER).append(quote(CREATION_DATE)).append(FIELD_DELIMITER)
+					.append(quote(CREATION_TIME)).append(FIELD_DELIMITER).append(FIELD_DELIMITER)
+					.append(FIELD_DELIMITER).append(FIELD_DELIMITER).append(quote(toDelete)).append(FIELD_DELIMITER)
+					.append(quote(deleted ? DELETION_DATE : null)).append(FIELD_DELIMITER)
+					.append(quote(deleted ? DELETION_TIME : null)).append(FIELD_DELIMITER).append(quote(id))
+					.append(FIELD_DELIMITER).append(quote(name));
+			if (description != null) {
+				content.append(FIELD_DELIMITER).append(quote(description));
+			}
+			content.append(i % 2 == 0 ? LINE_SEPARATOR : "\r\n");
+			ids.add(id);
+		}
+		// The last record of an id wins
+		content.append(";;;;;;;;;").append(quote(ids.get(0))).append(FIELD_DELIMITER).append(quote("duplicate"));
+		try {
+			Files.write(csvFile.toPath(), content.toString().getBytes(CHARACTER_SET));
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return ids;
+	}
+
+	private String quote(String value) {
+		if (value == null) {
+			return "";
+		}
+		String quote = String.valueOf(TEXT_DELIMITER);
+		return quote + value.replace(quote, quote + quote) + quote;
+	}
+
+	private List<String> toList(CSVRecord rec) {
+		List<String> values = new ArrayList<>();
+		rec.forEach(values::add);
+		return values;
+	}
+}
@@ -17,17 +17,33 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.csv.QuoteMode;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
@@ -35,9 +51,11 @@ import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.sirius.business.api.session.Session;
 import org.eclipse.sirius.business.api.session.SessionManager;
 import org.junit.Test;
+import org.polarsys.capella.core.data.capellacore.Constraint;
 import org.polarsys.capella.core.data.capellamodeller.Project;
 import org.polarsys.capella.core.data.capellamodeller.SystemEngineering;
 import org.polarsys.capella.core.data.cs.Part;
@@ -52,8 +70,10 @@ import org.polarsys.capella.core.data.pa.PhysicalArchitecture;
 import org.polarsys.capella.core.data.pa.PhysicalComponent;
 
 import com.navalgroup.conversion.capella.csv.core.CSVConstants;
+import com.navalgroup.conversion.capella.csv.core.CSVDecoder;
 import com.navalgroup.conversion.capella.csv.core.CSVSettings;
 import com.navalgroup.conversion.capella.csv.importer.CSVToCapellaConverter;
+import com.navalgroup.conversion.capella.csv.importer.StagedCSVFile;
 
 public class CSVToCapellaConverterTestCases extends AbstractConverterTestCases {
 
@@ -133,6 +153,176 @@ public class CSVToCapellaConverterTestCases extends AbstractConverterTestCases {
 	public void importUpdateMonoAttribute() {
 		CSVSettings settings = getCSVSettings(UPDATE_MONO_ATTRIBUTE, Collections.singleton(SYSTEM_ENGINEERING_CSV));
 
+		importUpdateMonoAttribute(settings);
+	}
+
+	/**
+	 * The compressed files are imported as the plain files.
+	 */
+	@Test
+	public void importCompressedFiles() {
+		CSVSettings settings = getCSVSettings(UPDATE_MONO_ATTRIBUTE, Collections.singleton(SYSTEM_ENGINEERING_CSV));
+		compress(settings, SYSTEM_ENGINEERING_CSV);
+
+		importUpdateMonoAttribute(settings);
+	}
+
+	/**
+	 * A compressed file made of several GZIP members, as written by a parallel
+	 * export, is read as a single stream, whatever the member boundaries.
+	 */
+	@Test
+	public void importCompressedFileMembers() {
+		CSVSettings settings = getCSVSettings(UPDATE_MONO_ATTRIBUTE, Collections.singleton(SYSTEM_ENGINEERING_CSV));
+		// Members ending in the middle of records and cells
+		compress(settings, SYSTEM_ENGINEERING_CSV, 7);
+
+		importUpdateMonoAttribute(settings);
+	}
+
+	/**
+	 * The files of the archive are imported as the plain files.
+	 */
+	@Test
+	public void importArchive() {
+		CSVSettings settings = getCSVSettings(UPDATE_MONO_ATTRIBUTE, Collections.singleton(SYSTEM_ENGINEERING_CSV));
+		archive(settings, SYSTEM_ENGINEERING_CSV);
+
+		importUpdateMonoAttribute(settings);
+	}
+
+	/**
+	 * A CSV file next to the archive wins over the entry of the same name, which
+	 * is not read.
+	 */
+	@Test
+	public void importArchiveWithFileNextToIt() {
+		CSVSettings settings = getCSVSettings(UPDATE_MONO_ATTRIBUTE, Collections.singleton(SYSTEM_ENGINEERING_CSV));
+		Path csvPath = Paths.get(settings.getConversionDirectoryPath(), SYSTEM_ENGINEERING_CSV);
+		byte[] content = null;
+		try {
+			content = Files.readAllBytes(csvPath);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		// The archived entry cannot be parsed
+		editCSV(settings, SYSTEM_ENGINEERING_CSV, c -> c + ";;;\"x\";;;;;;;\"true\";\"unterminated\n");
+		archive(settings, SYSTEM_ENGINEERING_CSV);
+		try {
+			Files.write(csvPath, content);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+
+		importUpdateMonoAttribute(settings);
+	}
+
+	/**
+	 * Only the entries at the root of the archive are imported, not the entries
+	 * of its folders such as the delta files.
+	 */
+	@Test
+	public void importArchiveNestedEntries() {
+		CSVSettings settings = getCSVSettings(UPDATE_MONO_ATTRIBUTE, Collections.singleton(SYSTEM_ENGINEERING_CSV));
+		String brokenCSV = SYSTEM_ENGINEERING_CSV + ".broken";
+		try {
+			Path csvPath = Paths.get(settings.getConversionDirectoryPath(), SYSTEM_ENGINEERING_CSV);
+			Files.copy(csvPath, csvPath.resolveSibling(brokenCSV));
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		editCSV(settings, brokenCSV, c -> c + ";;;\"x\";;;;;;;\"true\";\"unterminated\n");
+		Map<String, String> entries = new LinkedHashMap<>();
+		entries.put(SYSTEM_ENGINEERING_CSV, SYSTEM_ENGINEERING_CSV);
+		entries.put(CSVConstants.DELTA_FOLDER + "/" + SYSTEM_ENGINEERING_CSV, brokenCSV);
+		archive(settings, entries);
+
+		importUpdateMonoAttribute(settings);
+	}
+
+	/**
+	 * A record which cannot be parsed stops the import, and nothing is changed.
+	 */
+	@Test
+	public void importParsingError() {
+		CSVSettings settings = getCSVSettings(UPDATE_MONO_ATTRIBUTE, Collections.singleton(SYSTEM_ENGINEERING_CSV));
+		// The text delimiter of the last cell is not closed
+		editCSV(settings, SYSTEM_ENGINEERING_CSV, content -> content + ";;;\"x\";;;;;;;\"true\";\"unterminated\n");
+
+		Session session = getSession(UPDATE_MONO_ATTRIBUTE, "importUpdateMonoAttribute.aird");
+
+		SystemEngineering rootElement = null;
+		Collection<Resource> semanticResources = session.getSemanticResources();
+		for (Resource semanticResource : semanticResources) {
+			EObject eObject = semanticResource.getEObject("7b48bf09-a0e6-4985-8cd4-a2ffa6061b04");
+			if (eObject instanceof SystemEngineering) {
+				rootElement = (SystemEngineering) eObject;
+				break;
+			}
+		}
+		assertNotNull(rootElement);
+
+		CSVToCapellaConverter converter = new CSVToCapellaConverter(rootElement, settings);
+		IStatus status = converter.importCSVsIntoCapella(SubMonitor.convert(new NullProgressMonitor()));
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		assertTrue(status.getMessage().startsWith("Parsing error in " + SYSTEM_ENGINEERING_CSV));
+
+		// The update of the valid record is rolled back
+		assertEquals(THIS_IS_THE_SUMMARY, rootElement.getSummary());
+		assertEquals(THIS_IS_A_REVIEW, rootElement.getReview());
+		assertNull(rootElement.getDescription());
+
+		session.setSavingPolicy((resourcesToSave, options, monitor) -> null);
+		session.close(new NullProgressMonitor());
+	}
+
+	/**
+	 * Each pass of the import handles the records read before a parsing error,
+	 * then reports the same error.
+	 */
+	@Test
+	public void stagedCSVFile() {
+		String header = CSVSettings.MANAGEMENT_COLUMNS.stream().map(c -> "\"" + c + "\"")
+				.collect(Collectors.joining(";")) + ";\"id\";\"name\"\n";
+		// @formatter:off
+		String content = header
+				+ ";;;;;;\"x\";;;\"id1\";\"deleted\"\n"
+				+ "\"x\";;;;;;;;;\"%NEW_ID%\";\"created\"\n"
+				+ ";;;\"x\";;;;;;\"id3\";\"updated\"\n"
+				+ ";;;;;;;;;\"id4\";\"unchanged\"\n"
+				+ ";;;\"x\";;;;;;\"id5\";\"unterminated\n";
+		// @formatter:on
+
+		StagedCSVFile stagedFile = new StagedCSVFile(new File(SYSTEM_ENGINEERING_CSV));
+		try (CSVDecoder decoder = new CSVDecoder(new StringReader(content), getImportCSVFormat())) {
+			stagedFile.stage(decoder);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+
+		// The unchanged record is not staged
+		assertEquals(3, stagedFile.size());
+		assertEquals(Arrays.asList("id1", "%NEW_ID%", "id3"),
+				Arrays.asList(stagedFile.getId(0), stagedFile.getId(1), stagedFile.getId(2)));
+		assertEquals(Arrays.asList(2L, 3L, 4L), Arrays.asList(stagedFile.getLineNumber(0),
+				stagedFile.getLineNumber(1), stagedFile.getLineNumber(2)));
+		assertTrue(stagedFile.isFlagged(0, StagedCSVFile.DELETION));
+		assertTrue(stagedFile.isFlagged(1, StagedCSVFile.CREATION));
+		assertTrue(stagedFile.isFlagged(1, StagedCSVFile.UPDATE));
+		assertTrue(stagedFile.isFlagged(2, StagedCSVFile.UPDATE));
+		assertFalse(stagedFile.isFlagged(2, StagedCSVFile.DELETION));
+
+		String error = stagedFile.getError(StagedCSVFile.DELETION, stagedFile.size());
+		assertNotNull(error);
+		for (int pass : new int[] { StagedCSVFile.DELETION, StagedCSVFile.CREATION, StagedCSVFile.UPDATE }) {
+			for (int i = 0; i < stagedFile.size(); i++) {
+				assertNull(stagedFile.getError(pass, i));
+			}
+			assertEquals(error, stagedFile.getError(pass, stagedFile.size()));
+		}
+	}
+
+	protected void importUpdateMonoAttribute(CSVSettings settings) {
 		Session session = getSession(UPDATE_MONO_ATTRIBUTE, "importUpdateMonoAttribute.aird");
 
 		SystemEngineering rootElement = null;
@@ -728,6 +918,52 @@ public class CSVToCapellaConverterTestCases extends AbstractConverterTestCases {
 		session.close(new NullProgressMonitor());
 	}
 
+	/**
+	 * An OperationalAnalysis contains two Constraints. Add a "x" to the "To delete"
+	 * column of the OperationalAnalysis and of one of its Constraints only. Both
+	 * Constraints are deleted with the OperationalAnalysis.
+	 */
+	@Test
+	public void importDeleteContainerAndContent() {
+		CSVSettings settings = getCSVSettings(DELETE_MANY_CONTAINMENT,
+				Arrays.asList(OPERATIONAL_ANALYSIS_CSV, CONSTRAINT_CSV));
+		editCSV(settings, OPERATIONAL_ANALYSIS_CSV, content -> content.replace(
+				";;;;;;;;;;\"true\";;\"Operational Analysis\"", ";;;;;;\"x\";;;;\"true\";;\"Operational Analysis\""));
+		editCSV(settings, CONSTRAINT_CSV,
+				content -> content.replace(";;;;;;\"x\";;;;\"true\";;\"C2\"", ";;;;;;;;;;\"true\";;\"C2\""));
+
+		Session session = getSession(DELETE_MANY_CONTAINMENT, "importDeleteManyContainment.aird");
+
+		OperationalAnalysis element = null;
+		Collection<Resource> semanticResources = session.getSemanticResources();
+		for (Resource semanticResource : semanticResources) {
+			EObject eObject = semanticResource.getEObject("7c087156-b26d-4d60-aad0-bf4ca3e73afd");
+			if (eObject instanceof OperationalAnalysis) {
+				element = (OperationalAnalysis) eObject;
+				break;
+			}
+		}
+		assertNotNull(element);
+
+		EObject container = element.eContainer();
+		assertNotNull(container);
+		List<Constraint> constraints = new ArrayList<>(element.getOwnedConstraints());
+		assertEquals(2, constraints.size());
+
+		CSVToCapellaConverter converter = new CSVToCapellaConverter(element, settings);
+		IStatus status = converter.importCSVsIntoCapella(SubMonitor.convert(new NullProgressMonitor()));
+		assertEquals(IStatus.OK, status.getSeverity());
+
+		assertNull(element.eContainer());
+		assertFalse(container.eContents().contains(element));
+		for (Constraint constraint : constraints) {
+			assertNull(constraint.eResource());
+		}
+
+		session.setSavingPolicy((resourcesToSave, options, monitor) -> null);
+		session.close(new NullProgressMonitor());
+	}
+
 	/**
 	 * An OperationalAnalysis contains two Constraints. Add a "x" to the "To update"
 	 * column of OperationalAnalysis and remove the IDs from the 'ownedConstraints'
@@ -1096,6 +1332,56 @@ public class CSVToCapellaConverterTestCases extends AbstractConverterTestCases {
 		session.close(new NullProgressMonitor());
 	}
 
+	/**
+	 * Import the 'appliedPropertyValues' reference of a SystemEngineering several
+	 * times: unchanged, reordered, with a value removed then added back. The
+	 * reference has the values of the cell, in the order of the cell.
+	 */
+	@Test
+	public void importReconcileManyNonContainment() {
+		String spv2Id = "2d82de11-7fd1-4635-95f1-0545c8091ece";
+		String spv4Id = "4bb38c9c-2835-4c2f-b19b-eb1f465ec034";
+		String fixtureCell = "\"[%SPV1_ID%, " + spv4Id + ", %SPV3_ID%]\"";
+
+		Session session = getSession(UPDATE_MANY_NON_CONTAINMENT, UPDATE_MANY_NON_CONTAINMENT_AIRD);
+		// The model is imported several times, it is never saved
+		session.setSavingPolicy((resourcesToSave, options, monitor) -> null);
+
+		SystemEngineering element = null;
+		Collection<Resource> semanticResources = session.getSemanticResources();
+		for (Resource semanticResource : semanticResources) {
+			EObject eObject = semanticResource.getEObject("d0f792c5-1d7b-45bb-8d95-3344813c6891");
+			if (eObject instanceof SystemEngineering) {
+				element = (SystemEngineering) eObject;
+				break;
+			}
+		}
+		assertNotNull(element);
+		assertEquals(Arrays.asList(spv2Id, spv4Id), getIds(element.getAppliedPropertyValues()));
+
+		for (List<String> appliedIds : Arrays.asList(Arrays.asList(spv2Id, spv4Id), Arrays.asList(spv4Id, spv2Id),
+				Arrays.asList(spv4Id), Arrays.asList(spv2Id, spv4Id))) {
+			CSVSettings settings = getCSVSettings(UPDATE_MANY_NON_CONTAINMENT,
+					Collections.singleton(SYSTEM_ENGINEERING_CSV));
+			// The first cell is 'appliedPropertyValues', the second one 'ownedPropertyValues'
+			editCSV(settings, SYSTEM_ENGINEERING_CSV, content -> {
+				int appliedCell = content.indexOf(fixtureCell);
+				return content.substring(0, appliedCell) + "\"" + appliedIds + "\""
+						+ content.substring(appliedCell + fixtureCell.length())
+								.replace(fixtureCell, "\"" + Arrays.asList(spv2Id, spv4Id) + "\"");
+			});
+
+			CSVToCapellaConverter converter = new CSVToCapellaConverter(element, settings);
+			IStatus status = converter.importCSVsIntoCapella(SubMonitor.convert(new NullProgressMonitor()));
+			assertEquals(IStatus.OK, status.getSeverity());
+
+			assertEquals(appliedIds, getIds(element.getAppliedPropertyValues()));
+			assertEquals(2, element.getOwnedPropertyValues().size());
+		}
+
+		session.close(new NullProgressMonitor());
+	}
+
 	@Test
 	public void importUpdateManyNonContainmentClasCast() {
 		CSVSettings settings = getCSVSettings(Paths.get(UPDATE_MANY_NON_CONTAINMENT, CLASS_CAST).toString(),
@@ -1264,6 +1550,102 @@ public class CSVToCapellaConverterTestCases extends AbstractConverterTestCases {
 		session.close(new NullProgressMonitor());
 	}
 
+	/**
+	 * The decoder reads the same records as the parser of Commons CSV.
+	 */
+	@Test
+	public void csvDecoder() {
+		// @formatter:off
+		String content = "\"id\";\"name\";\"description\"\n"
+				// quoted delimiter and doubled text delimiters
+				+ "\"a\";\"x;y\";\"he said \"\"hi\"\"\"\n"
+				// empty line
+				+ "\n"
+				// multi-line value, unquoted empty cell and CRLF
+				+ "\"b\";\"line1\nline2\";\r\n"
+				// unquoted and quoted empty cells
+				+ "\"c\";;\"\"\n"
+				// short record
+				+ "\"d\";\"short\"\n"
+				// unquoted cells and no final line separator
+				+ "e;plain;\"end\"";
+		// @formatter:on
+		String[][] expectedCells = { { "a", "x;y", "he said \"hi\"" }, { "b", "line1\nline2", null },
+				{ "c", null, null }, { "d", "short" }, { "e", "plain", "end" } };
+		long[] expectedLines = { 2, 4, 6, 7, 8 };
+
+		CSVFormat csvFormat = getImportCSVFormat();
+		try (CSVParser parser = new CSVParser(new StringReader(content), csvFormat);
+				CSVDecoder decoder = new CSVDecoder(new StringReader(content), csvFormat)) {
+			assertEquals(parser.getHeaderNames(), decoder.getHeaderNames());
+			List<CSVRecord> records = parser.getRecords();
+			assertEquals(expectedCells.length, records.size());
+			for (int i = 0; i < records.size(); i++) {
+				CSVRecord record = records.get(i);
+				assertTrue(decoder.nextRecord());
+				assertEquals(record.getRecordNumber(), decoder.getRecordNumber());
+				assertEquals(expectedLines[i], decoder.getLineNumber());
+				assertEquals(expectedCells[i].length, record.size());
+				assertEquals(record.size(), decoder.size());
+				for (int j = 0; j < record.size(); j++) {
+					assertEquals(expectedCells[i][j], record.get(j));
+					assertEquals(record.get(j), decoder.get(j));
+				}
+			}
+			assertFalse(decoder.nextRecord());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Unterminated quoted value
+		String malformedContent = "\"id\";\"name\"\n\"a\";\"unterminated\n";
+		String parserError = null;
+		try (CSVParser parser = new CSVParser(new StringReader(malformedContent), csvFormat)) {
+			parser.getRecords();
+		} catch (IOException e) {
+			parserError = e.getMessage();
+		}
+		assertNotNull(parserError);
+		String decoderError = null;
+		try (CSVDecoder decoder = new CSVDecoder(new StringReader(malformedContent), csvFormat)) {
+			while (decoder.nextRecord()) {
+				// read all the records
+			}
+		} catch (IOException e) {
+			decoderError = e.getMessage();
+		}
+		assertEquals(parserError, decoderError);
+
+		// Missing header name
+		String missingHeaderContent = "\"id\";;\"description\"\n\"a\";\"b\";\"c\"\n";
+		String parserHeaderError = null;
+		try (CSVParser parser = new CSVParser(new StringReader(missingHeaderContent), csvFormat)) {
+			fail("The missing header name is not reported by the parser");
+		} catch (IllegalArgumentException e) {
+			parserHeaderError = e.getMessage();
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		String decoderHeaderError = null;
+		try (CSVDecoder decoder = new CSVDecoder(new StringReader(missingHeaderContent), csvFormat)) {
+			fail("The missing header name is not reported by the decoder");
+		} catch (IllegalArgumentException e) {
+			decoderHeaderError = e.getMessage();
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		assertNotNull(parserHeaderError);
+		assertEquals(parserHeaderError, decoderHeaderError);
+
+		// Allowed missing header name
+		try (CSVDecoder decoder = new CSVDecoder(new StringReader(missingHeaderContent),
+				csvFormat.withAllowMissingColumnNames())) {
+			assertEquals(Arrays.asList("id", "description"), decoder.getHeaderNames());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
 	protected CSVSettings getCSVSettings(String csvFolder, Collection<String> csvFiles) {
 		Path importTmpDirectory = null;
 		try {
@@ -1282,6 +1664,132 @@ public class CSVToCapellaConverterTestCases extends AbstractConverterTestCases {
 		return settings;
 	}
 
+	protected List<String> getIds(Collection<? extends EObject> eObjects) {
+		return eObjects.stream().map(EcoreUtil::getID).collect(Collectors.toList());
+	}
+
+	/**
+	 * Change the content of a CSV file of the import.
+	 * 
+	 * @param settings
+	 *            the settings of the import.
+	 * @param csvFile
+	 *            the name of the CSV file.
+	 * @param edit
+	 *            the change of the content.
+	 */
+	protected void editCSV(CSVSettings settings, String csvFile, UnaryOperator<String> edit) {
+		Path csvPath = Paths.get(settings.getConversionDirectoryPath(), csvFile);
+		try {
+			String content = new String(Files.readAllBytes(csvPath), CHARACTER_SET);
+			Files.write(csvPath, edit.apply(content).getBytes(CHARACTER_SET));
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Replace a CSV file of the import by its compressed version.
+	 * 
+	 * @param settings
+	 *            the settings of the import.
+	 * @param csvFile
+	 *            the name of the CSV file.
+	 */
+	protected void compress(CSVSettings settings, String csvFile) {
+		compress(settings, csvFile, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Replace a CSV file of the import by its compressed version, made of
+	 * several GZIP members.
+	 * 
+	 * @param settings
+	 *            the settings of the import.
+	 * @param csvFile
+	 *            the name of the CSV file.
+	 * @param memberSize
+	 *            the number of bytes of the file compressed in each member.
+	 */
+	protected void compress(CSVSettings settings, String csvFile, int memberSize) {
+		Path source = Paths.get(settings.getConversionDirectoryPath(), csvFile);
+		Path target = Paths.get(settings.getConversionDirectoryPath(), csvFile + CSVConstants.GZIP_EXT);
+		try (OutputStream output = Files.newOutputStream(target)) {
+			byte[] content = Files.readAllBytes(source);
+			int offset = 0;
+			do {
+				int length = Math.min(memberSize, content.length - offset);
+				ByteArrayOutputStream member = new ByteArrayOutputStream();
+				try (OutputStream memberOutput = new GZIPOutputStream(member)) {
+					memberOutput.write(content, offset, length);
+				}
+				output.write(member.toByteArray());
+				offset += length;
+			} while (offset < content.length);
+			Files.delete(source);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Move CSV files of the import into the export archive.
+	 * 
+	 * @param settings
+	 *            the settings of the import.
+	 * @param csvFiles
+	 *            the names of the CSV files.
+	 */
+	protected void archive(CSVSettings settings, String... csvFiles) {
+		Map<String, String> entries = new LinkedHashMap<>();
+		for (String csvFile : csvFiles) {
+			entries.put(csvFile, csvFile);
+		}
+		archive(settings, entries);
+	}
+
+	/**
+	 * Move files of the import into the export archive, under the given entry
+	 * names.
+	 * 
+	 * @param settings
+	 *            the settings of the import.
+	 * @param entries
+	 *            the names of the files, by entry name.
+	 */
+	protected void archive(CSVSettings settings, Map<String, String> entries) {
+		Path archive = Paths.get(settings.getConversionDirectoryPath(), CSVConstants.EXPORT_ARCHIVE);
+		try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(archive))) {
+			for (Map.Entry<String, String> entry : entries.entrySet()) {
+				Path source = Paths.get(settings.getConversionDirectoryPath(), entry.getValue());
+				output.putNextEntry(new ZipEntry(entry.getKey()));
+				Files.copy(source, output);
+				output.closeEntry();
+				Files.delete(source);
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Get the CSV format of the import.
+	 * 
+	 * @return the CSV format of the import.
+	 */
+	protected CSVFormat getImportCSVFormat() {
+		// @formatter:off
+		return CSVFormat.EXCEL
+				.withDelimiter(FIELD_DELIMITER)
+				.withQuoteMode(QuoteMode.ALL_NON_NULL)
+				.withQuote(TEXT_DELIMITER)
+				.withRecordSeparator(LINE_SEPARATOR)
+				.withFirstRecordAsHeader()
+				.withIgnoreEmptyLines()
+				.withNullString("");
+		// @formatter:on
+	}
+
 	protected Session getSession(String airdFolder, String airdFile) {
 		Path sessionResourcePath = Paths.get(Activator.PLUGIN_ID, RESOURCES_FOLDER, IMPORT_FOLDER, airdFolder,
 				airdFile);
@@ -10,37 +10,78 @@
 package com.navalgroup.conversion.capella.csv.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.transaction.RecordingCommand;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.junit.Test;
 import org.osgi.framework.Bundle;
+import org.polarsys.capella.core.data.capellacore.CapellacoreFactory;
+import org.polarsys.capella.core.data.capellacore.Constraint;
+import org.polarsys.capella.core.data.capellamodeller.SystemEngineering;
+import org.polarsys.kitalpha.emde.model.Element;
 
+import com.navalgroup.conversion.capella.csv.core.CSVConstants;
+import com.navalgroup.conversion.capella.csv.core.CSVFiles;
 import com.navalgroup.conversion.capella.csv.core.CSVSettings;
+import com.navalgroup.conversion.capella.csv.core.ConversionUtil;
+import com.navalgroup.conversion.capella.csv.core.FeaturePlan;
 import com.navalgroup.conversion.capella.csv.export.CapellaToCSVConverter;
+import com.navalgroup.conversion.capella.csv.export.DeltaExport;
+import com.navalgroup.conversion.capella.csv.export.ExportChangeTracker;
+import com.navalgroup.conversion.capella.csv.export.relevant.concepts.CapellaRelevantConceptsToCSVConverter;
 
 public class CapellaToCSVConverterTestCases extends AbstractConverterTestCases {
 
@@ -56,10 +97,14 @@ public class CapellaToCSVConverterTestCases extends AbstractConverterTestCases {
 	private static final String EXPORT_MONO_CONTAINMENT = "exportMonoContainment";
 	private static final String EXPORT_MONO_NON_CONTAINMENT = "exportMonoNonContainment";
 	private static final String EXPORT_ON_EXISTING_FILES = "exportOnExistingFiles";
+	private static final String CONSTRAINT_CSV = "capellacore.Constraint.csv";
 	private static final String LOGICAL_ARCHITECTURE_CSV = "la.LogicalArchitecture.csv";
 	private static final String LOGICAL_FUNCTION_CSV = "la.LogicalFunction.csv";
 	private static final String LOGICAL_FUNCTION_PKG_CSV = "la.LogicalFunctionPkg.csv";
 	private static final String SYSTEM_ENGINEERING_CSV = "capellamodeller.SystemEngineering.csv";
+	private static final byte[] GZIP_MAGIC = { (byte) 0x1f, (byte) 0x8b };
+	private static final int GZIP_HEADER_SIZE = 10;
+	private static final int GZIP_TRAILER_SIZE = 8;
 
 	@Test
 	public void exportMonoAttribute() {
@@ -449,31 +494,946 @@ public class CapellaToCSVConverterTestCases extends AbstractConverterTestCases {
 		compareCSVs(outputFiles[0], EXPORT_3_TIMES, SYSTEM_ENGINEERING_CSV);
 	}
 
+	/**
+	 * The feature columns of a class are in the order of the features of the
+	 * class, and the header of an exported file is the one of its class.
+	 */
+	@Test
+	public void featurePlanColumnOrder() {
+		EObject object = loadRootElement(EXPORT_MANY_NON_CONTAINMENT);
+		Set<EClass> eClasses = new HashSet<>();
+		eClasses.add(object.eClass());
+		object.eAllContents().forEachRemaining(element -> eClasses.add(element.eClass()));
+		for (EClass eClass : eClasses) {
+			FeaturePlan plan = FeaturePlan.of(eClass);
+			assertEquals(getColumnNames(eClass.getEAllAttributes()), plan.getAttributeNames());
+			List<EReference> nonContainmentReferences = new ArrayList<>(eClass.getEAllReferences());
+			nonContainmentReferences.removeIf(EReference::isContainment);
+			assertEquals(getColumnNames(nonContainmentReferences), plan.getNonContainmentReferenceNames());
+			assertEquals(getColumnNames(eClass.getEAllContainments()), plan.getContainmentReferenceNames());
+		}
+
+		CSVSettings settings = createCSVSettings();
+		export(object, settings);
+		for (EClass eClass : eClasses) {
+			File csvFile = new File(settings.getConversionDirectoryPath(),
+					eClass.getEPackage().getName() + '.' + eClass.getName() + CSVConstants.CSV_EXT);
+			if (csvFile.exists()) {
+				try (Reader reader = CSVFiles.newReader(csvFile, CHARACTER_SET);
+						CSVParser parser = new CSVParser(reader, CSVFormat.EXCEL.withDelimiter(FIELD_DELIMITER)
+								.withQuote(TEXT_DELIMITER).withFirstRecordAsHeader())) {
+					assertEquals(FeaturePlan.of(eClass).getHeader(), parser.getHeaderNames());
+				} catch (IOException e) {
+					fail(e.getMessage());
+				}
+			}
+		}
+	}
+
+	private List<String> getColumnNames(List<? extends EStructuralFeature> features) {
+		List<String> names = new ArrayList<>();
+		for (EStructuralFeature feature : features) {
+			if (!feature.isDerived() && !feature.isVolatile() && !names.contains(feature.getName())) {
+				names.add(feature.getName());
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * The parallel export writes the same files as the single-threaded export.
+	 */
+	@Test
+	public void exportParallel() {
+		for (String exportFolder : Arrays.asList(EXPORT_MANY_ATTRIBUTE, EXPORT_MONO_CONTAINMENT,
+				EXPORT_MANY_CONTAINMENT, EXPORT_MONO_NON_CONTAINMENT, EXPORT_MANY_NON_CONTAINMENT,
+				EXPORT_ON_EXISTING_FILES)) {
+			EObject object = loadRootElement(exportFolder);
+
+			CSVSettings sequentialSettings = createCSVSettings();
+			export(object, sequentialSettings);
+
+			CSVSettings parallelSettings = createCSVSettings();
+			parallelSettings.setExportParallelism(4);
+			export(object, parallelSettings);
+
+			compareExports(Paths.get(sequentialSettings.getConversionDirectoryPath()),
+					Paths.get(parallelSettings.getConversionDirectoryPath()));
+		}
+	}
+
+	/**
+	 * The parallel export run as privileged runnables of the transaction of the
+	 * calling thread writes the same files as the single-threaded export.
+	 */
+	@Test
+	public void exportParallelInTransaction() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		TransactionalEditingDomain domain = createEditingDomain(object);
+		CSVSettings sequentialSettings = createCSVSettings();
+		export(object, sequentialSettings);
+
+		CSVSettings parallelSettings = createCSVSettings();
+		parallelSettings.setExportParallelism(4);
+		CapellaToCSVConverter converter = new CapellaToCSVConverter(object, parallelSettings) {
+			@Override
+			protected TransactionalEditingDomain getEditingDomain() {
+				return domain;
+			}
+		};
+		IStatus status = converter.generateEObjectCSV(SubMonitor.convert(new NullProgressMonitor()));
+		assertEquals(IStatus.OK, status.getSeverity());
+
+		compareExports(Paths.get(sequentialSettings.getConversionDirectoryPath()),
+				Paths.get(parallelSettings.getConversionDirectoryPath()));
+		domain.dispose();
+	}
+
+	/**
+	 * The relevant concepts computed on several threads are the same as on a
+	 * single thread.
+	 */
+	@Test
+	public void exportRelevantConceptsParallel() {
+		for (String exportFolder : Arrays.asList(EXPORT_MANY_ATTRIBUTE, EXPORT_MANY_CONTAINMENT,
+				EXPORT_MONO_NON_CONTAINMENT, EXPORT_MANY_NON_CONTAINMENT, EXPORT_ON_EXISTING_FILES)) {
+			EObject object = loadRootElement(exportFolder);
+
+			CSVSettings sequentialSettings = createCSVSettings();
+			CapellaRelevantConceptsToCSVConverter sequentialConverter = exportRelevantConcepts(object,
+					sequentialSettings);
+
+			CSVSettings parallelSettings = createCSVSettings();
+			parallelSettings.setRelevantConceptsParallelism(4);
+			CapellaRelevantConceptsToCSVConverter parallelConverter = exportRelevantConcepts(object,
+					parallelSettings);
+
+			assertEquals(new HashSet<>(sequentialConverter.getRelevantIDs()),
+					new HashSet<>(parallelConverter.getRelevantIDs()));
+			compareExports(Paths.get(sequentialSettings.getConversionDirectoryPath()),
+					Paths.get(parallelSettings.getConversionDirectoryPath()));
+		}
+	}
+
+	/**
+	 * The relevant concepts computed on several threads as privileged runnables
+	 * of the transaction of the calling thread are the same as on a single
+	 * thread.
+	 */
+	@Test
+	public void exportRelevantConceptsParallelInTransaction() {
+		EObject object = loadRootElement(EXPORT_MANY_NON_CONTAINMENT);
+		TransactionalEditingDomain domain = createEditingDomain(object);
+		CSVSettings sequentialSettings = createCSVSettings();
+		CapellaRelevantConceptsToCSVConverter sequentialConverter = exportRelevantConcepts(object,
+				sequentialSettings);
+
+		CSVSettings parallelSettings = createCSVSettings();
+		parallelSettings.setRelevantConceptsParallelism(4);
+		CapellaRelevantConceptsToCSVConverter parallelConverter = new CapellaRelevantConceptsToCSVConverter(object,
+				parallelSettings, true) {
+			@Override
+			protected TransactionalEditingDomain getEditingDomain() {
+				return domain;
+			}
+		};
+		parallelConverter.computeRelevantIDs(object);
+		IStatus status = parallelConverter.generateEObjectCSV(SubMonitor.convert(new NullProgressMonitor()));
+		assertEquals(IStatus.OK, status.getSeverity());
+
+		assertEquals(new HashSet<>(sequentialConverter.getRelevantIDs()),
+				new HashSet<>(parallelConverter.getRelevantIDs()));
+		compareExports(Paths.get(sequentialSettings.getConversionDirectoryPath()),
+				Paths.get(parallelSettings.getConversionDirectoryPath()));
+		domain.dispose();
+	}
+
+	/**
+	 * A failure while computing the relevant concepts on another thread is
+	 * rethrown, not computed again on the calling thread, with or without
+	 * transaction.
+	 */
+	@Test
+	public void computeRelevantConceptsParallelFailure() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		EObject failingElement = object.eContents().get(0);
+		RuntimeException failure = new IllegalStateException("Semantic Browser failure");
+		CSVSettings settings = createCSVSettings();
+		settings.setRelevantConceptsParallelism(4);
+		TransactionalEditingDomain domain = createEditingDomain(object);
+		for (TransactionalEditingDomain editingDomain : Arrays.asList(null, domain)) {
+			CapellaRelevantConceptsToCSVConverter converter = new CapellaRelevantConceptsToCSVConverter(object,
+					settings, false) {
+				@Override
+				protected Map<String, Object> computeSemanticBrowserReferences(EObject element) {
+					if (element == failingElement) {
+						throw failure;
+					}
+					return super.computeSemanticBrowserReferences(element);
+				}
+
+				@Override
+				protected TransactionalEditingDomain getEditingDomain() {
+					return editingDomain;
+				}
+			};
+			try {
+				converter.computeRelevantIDs(object);
+				fail("The failure of the computation is not reported");
+			} catch (IllegalStateException e) {
+				assertSame(failure, e);
+			}
+		}
+		domain.dispose();
+	}
+
+	/**
+	 * The Semantic Browser references of the elements relevant when they are
+	 * computed are not computed again when the records are written, and the
+	 * references evicted from the cache are computed again.
+	 */
+	@Test
+	public void exportRelevantConceptsCachedReferences() {
+		for (int parallelism : Arrays.asList(1, 4)) {
+			EObject object = loadRootElement(EXPORT_MANY_NON_CONTAINMENT);
+			Map<EObject, Integer> computations = new ConcurrentHashMap<>();
+			Map<EObject, Map<String, Object>> firstReferences = new ConcurrentHashMap<>();
+			CSVSettings settings = createCSVSettings();
+			settings.setRelevantConceptsParallelism(parallelism);
+			CapellaRelevantConceptsToCSVConverter converter = new CapellaRelevantConceptsToCSVConverter(object,
+					settings, true) {
+				@Override
+				protected Map<String, Object> computeSemanticBrowserReferences(EObject element) {
+					computations.merge(element, 1, Integer::sum);
+					Map<String, Object> references = super.computeSemanticBrowserReferences(element);
+					firstReferences.putIfAbsent(element, references);
+					return references;
+				}
+			};
+			converter.computeRelevantIDs(object);
+			IStatus status = converter.generateEObjectCSV(SubMonitor.convert(new NullProgressMonitor()));
+			assertEquals(IStatus.OK, status.getSeverity());
+			int nbCachedElements = 0;
+			for (Map.Entry<EObject, Map<String, Object>> references : firstReferences.entrySet()) {
+				EObject element = references.getKey();
+				// Relevant as soon as its references are computed
+				if (EcoreUtil.getID(element) != null && (ConversionUtil.isRelevantElement(element)
+						|| hasRelevantReference(references.getValue()))) {
+					assertEquals(EcoreUtil.getID(element), 1, computations.get(element).intValue());
+					nbCachedElements++;
+				}
+			}
+			assertTrue(nbCachedElements > 0);
+
+			// Same export when the references are computed again
+			CSVSettings uncachedSettings = createCSVSettings();
+			uncachedSettings.setRelevantConceptsCacheSize(0);
+			exportRelevantConcepts(object, uncachedSettings);
+			compareExports(Paths.get(uncachedSettings.getConversionDirectoryPath()),
+					Paths.get(settings.getConversionDirectoryPath()));
+
+			// Same export when the cache evicts the references
+			CSVSettings evictingSettings = createCSVSettings();
+			evictingSettings.setRelevantConceptsCacheSize(1);
+			exportRelevantConcepts(object, evictingSettings);
+			compareExports(Paths.get(uncachedSettings.getConversionDirectoryPath()),
+					Paths.get(evictingSettings.getConversionDirectoryPath()));
+		}
+	}
+
+	private boolean hasRelevantReference(Map<String, Object> references) {
+		for (Object value : references.values()) {
+			Collection<?> values = Collections.singleton(value);
+			if (value instanceof Collection<?>) {
+				values = (Collection<?>) value;
+			}
+			for (Object valueItem : values) {
+				if (valueItem instanceof Element && EcoreUtil.getID((EObject) valueItem) != null) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * An incremental export of an unchanged model regenerates no file.
+	 */
+	@Test
+	public void exportIncrementalUnchanged() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		TransactionalEditingDomain domain = createEditingDomain(object);
+		CSVSettings settings = createCSVSettings();
+		settings.setIncrementalExport(true);
+		Path directoryPath = Paths.get(settings.getConversionDirectoryPath());
+
+		// Without previous export, all files are generated
+		assertNull(exportIncremental(object, domain, settings));
+		File constraintFile = directoryPath.resolve(CONSTRAINT_CSV).toFile();
+		File systemEngineeringFile = directoryPath.resolve(SYSTEM_ENGINEERING_CSV).toFile();
+		long constraintLastModified = constraintFile.lastModified();
+		long systemEngineeringLastModified = systemEngineeringFile.lastModified();
+
+		assertEquals(Collections.emptySet(), exportIncremental(object, domain, settings));
+		assertEquals(constraintLastModified, constraintFile.lastModified());
+		assertEquals(systemEngineeringLastModified, systemEngineeringFile.lastModified());
+		compareCSVs(constraintFile, EXPORT_MANY_CONTAINMENT, CONSTRAINT_CSV);
+		compareCSVs(systemEngineeringFile, EXPORT_MANY_CONTAINMENT, SYSTEM_ENGINEERING_CSV);
+		domain.dispose();
+	}
+
+	/**
+	 * An incremental export only regenerates the files of the changed classes,
+	 * with the same content as a complete export. A modified identifier or a
+	 * loaded resource makes the next export complete.
+	 */
+	@Test
+	public void exportIncrementalChangedClasses() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		SystemEngineering systemEngineering = (SystemEngineering) object;
+		TransactionalEditingDomain domain = createEditingDomain(object);
+		CSVSettings settings = createCSVSettings();
+		settings.setIncrementalExport(true);
+		Path directoryPath = Paths.get(settings.getConversionDirectoryPath());
+		File systemEngineeringFile = directoryPath.resolve(SYSTEM_ENGINEERING_CSV).toFile();
+		exportIncremental(object, domain, settings);
+
+		// A modified attribute: the file of its class only
+		long systemEngineeringLastModified = systemEngineeringFile.lastModified();
+		execute(domain, () -> systemEngineering.getOwnedConstraints().get(0).setName("renamed"));
+		assertEquals(Collections.singleton(CONSTRAINT_CSV), exportIncremental(object, domain, settings));
+		assertEquals(systemEngineeringLastModified, systemEngineeringFile.lastModified());
+		compareWithCompleteExport(object, directoryPath);
+
+		// A modified containment: the files of the container and of the content
+		Constraint constraint = CapellacoreFactory.eINSTANCE.createConstraint();
+		constraint.setId(UUID.randomUUID().toString());
+		constraint.setName("added");
+		execute(domain, () -> systemEngineering.getOwnedConstraints().add(constraint));
+		assertEquals(new HashSet<>(Arrays.asList(CONSTRAINT_CSV, SYSTEM_ENGINEERING_CSV)),
+				exportIncremental(object, domain, settings));
+		compareWithCompleteExport(object, directoryPath);
+
+		// A modified identifier: all files
+		execute(domain, () -> constraint.setId(UUID.randomUUID().toString()));
+		assertNull(exportIncremental(object, domain, settings));
+		compareWithCompleteExport(object, directoryPath);
+
+		// A loaded resource: all files
+		assertEquals(Collections.emptySet(), exportIncremental(object, domain, settings));
+		Path resourcePath = Paths.get(Activator.PLUGIN_ID, RESOURCES_FOLDER, EXPORT_FOLDER, EXPORT_MONO_ATTRIBUTE,
+				EXPORT_MONO_ATTRIBUTE + MELODYMODELLER);
+		domain.getResourceSet().getResource(URI.createPlatformPluginURI(resourcePath.toString(), true), true);
+		assertNull(exportIncremental(object, domain, settings));
+		domain.dispose();
+	}
+
+	/**
+	 * An incremental export regenerates the files edited since the previous
+	 * export.
+	 */
+	@Test
+	public void exportIncrementalEditedFile() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		TransactionalEditingDomain domain = createEditingDomain(object);
+		CSVSettings settings = createCSVSettings();
+		settings.setIncrementalExport(true);
+		Path directoryPath = Paths.get(settings.getConversionDirectoryPath());
+		exportIncremental(object, domain, settings);
+
+		File constraintFile = directoryPath.resolve(CONSTRAINT_CSV).toFile();
+		long lastModified = constraintFile.lastModified();
+		try {
+			String content = new String(Files.readAllBytes(constraintFile.toPath()), CHARACTER_SET);
+			content = content.replace("\"C1\"", "\"edited\"");
+			Files.write(constraintFile.toPath(), content.getBytes(CHARACTER_SET));
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		// Modified even if the file system does not tell apart the two writes
+		assertTrue(constraintFile.setLastModified(lastModified - 60000));
+
+		assertEquals(Collections.singleton(CONSTRAINT_CSV), exportIncremental(object, domain, settings));
+		compareCSVs(constraintFile, EXPORT_MANY_CONTAINMENT, CONSTRAINT_CSV);
+		compareCSVs(directoryPath.resolve(SYSTEM_ENGINEERING_CSV).toFile(), EXPORT_MANY_CONTAINMENT,
+				SYSTEM_ENGINEERING_CSV);
+		domain.dispose();
+	}
+
+	/**
+	 * An uninstalled tracker no longer listens to the editing domain, and the
+	 * next export is complete.
+	 */
+	@Test
+	public void exportIncrementalUninstalledTracker() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		TransactionalEditingDomain domain = createEditingDomain(object);
+		CSVSettings settings = createCSVSettings();
+		settings.setIncrementalExport(true);
+		exportIncremental(object, domain, settings);
+		ExportChangeTracker tracker = ExportChangeTracker.install(domain);
+		assertSame(tracker, ExportChangeTracker.install(domain));
+
+		tracker.uninstall();
+		execute(domain, () -> ((SystemEngineering) object).setName("renamed"));
+		assertNull(tracker.startExport(settings.getConversionDirectoryPath(), CSVFormat.EXCEL, CHARACTER_SET,
+				false));
+		assertNotSame(tracker, ExportChangeTracker.install(domain));
+		assertNull(exportIncremental(object, domain, settings));
+		domain.dispose();
+	}
+
+	/**
+	 * The delta folder holds the records created, updated or deleted since the
+	 * previous export.
+	 */
+	@Test
+	public void exportDelta() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		CSVSettings settings = createCSVSettings();
+		settings.setDeltaExport(true);
+		Path deltaDirectory = Paths.get(settings.getConversionDirectoryPath(), CSVConstants.DELTA_FOLDER);
+
+		// First export: everything is created
+		export(object, settings);
+		assertEquals(Arrays.asList(CONSTRAINT_CSV, SYSTEM_ENGINEERING_CSV), listCSVFileNames(deltaDirectory));
+		List<CSVRecord> constraints = readRecords(deltaDirectory.resolve(CONSTRAINT_CSV).toFile());
+		assertEquals(3, constraints.size());
+		List<CSVRecord> systemEngineerings = readRecords(deltaDirectory.resolve(SYSTEM_ENGINEERING_CSV).toFile());
+		assertEquals(1, systemEngineerings.size());
+		for (CSVRecord rec : Stream.concat(constraints.stream(), systemEngineerings.stream())
+				.collect(Collectors.toList())) {
+			assertEquals(DeltaExport.MARK, rec.get(CSVSettings.TO_CREATE_COLUMN));
+			assertNull(rec.get(CSVSettings.TO_UPDATE_COLUMN));
+			assertNull(rec.get(CSVSettings.TO_DELETE_COLUMN));
+		}
+
+		// Second export without change: nothing
+		export(object, settings);
+		assertEquals(Collections.emptyList(), listCSVFileNames(deltaDirectory));
+
+		// Third export: the system engineering is updated, a constraint is deleted
+		SystemEngineering systemEngineering = (SystemEngineering) object;
+		Constraint removedConstraint = systemEngineering.getOwnedConstraints().remove(0);
+		systemEngineering.setName("renamed");
+		export(object, settings);
+		assertEquals(Arrays.asList(CONSTRAINT_CSV, SYSTEM_ENGINEERING_CSV), listCSVFileNames(deltaDirectory));
+
+		systemEngineerings = readRecords(deltaDirectory.resolve(SYSTEM_ENGINEERING_CSV).toFile());
+		assertEquals(1, systemEngineerings.size());
+		assertNull(systemEngineerings.get(0).get(CSVSettings.TO_CREATE_COLUMN));
+		assertEquals(DeltaExport.MARK, systemEngineerings.get(0).get(CSVSettings.TO_UPDATE_COLUMN));
+		assertEquals("renamed", systemEngineerings.get(0).get("name"));
+
+		constraints = readRecords(deltaDirectory.resolve(CONSTRAINT_CSV).toFile());
+		assertEquals(1, constraints.size());
+		assertEquals(removedConstraint.getId(), constraints.get(0).get(CSVSettings.ID_COLUMN));
+		assertEquals(DeltaExport.MARK, constraints.get(0).get(CSVSettings.TO_DELETE_COLUMN));
+		assertNotNull(constraints.get(0).get(CSVSettings.DELETION_DATE_COLUMN));
+	}
+
+	/**
+	 * The compressed files have the same content as the plain files, also when
+	 * the previous export is compressed.
+	 */
+	@Test
+	public void exportCompressedFiles() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		CSVSettings settings = createCSVSettings();
+		settings.setCompressedFiles(true);
+		Path directoryPath = Paths.get(settings.getConversionDirectoryPath());
+
+		for (int i = 0; i < 2; i++) {
+			export(object, settings);
+
+			assertEquals(Arrays.asList(CONSTRAINT_CSV + CSVConstants.GZIP_EXT,
+					SYSTEM_ENGINEERING_CSV + CSVConstants.GZIP_EXT), listCSVFileNames(directoryPath));
+			// A file written in one pass is a single GZIP member
+			assertEquals(1, countGzipMembers(directoryPath.resolve(CONSTRAINT_CSV + CSVConstants.GZIP_EXT).toFile()));
+			assertEquals(1,
+					countGzipMembers(directoryPath.resolve(SYSTEM_ENGINEERING_CSV + CSVConstants.GZIP_EXT).toFile()));
+			compareCSVs(directoryPath.resolve(CONSTRAINT_CSV + CSVConstants.GZIP_EXT).toFile(),
+					EXPORT_MANY_CONTAINMENT, CONSTRAINT_CSV);
+			compareCSVs(directoryPath.resolve(SYSTEM_ENGINEERING_CSV + CSVConstants.GZIP_EXT).toFile(),
+					EXPORT_MANY_CONTAINMENT, SYSTEM_ENGINEERING_CSV);
+		}
+	}
+
+	/**
+	 * The files compressed by a parallel export are made of a GZIP member for the
+	 * header followed by the members of the partial files, read as a single
+	 * stream.
+	 */
+	@Test
+	public void exportCompressedFilesParallel() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		CSVSettings settings = createCSVSettings();
+		settings.setCompressedFiles(true);
+		settings.setExportParallelism(4);
+		Path directoryPath = Paths.get(settings.getConversionDirectoryPath());
+
+		export(object, settings);
+
+		assertEquals(Arrays.asList(CONSTRAINT_CSV + CSVConstants.GZIP_EXT,
+				SYSTEM_ENGINEERING_CSV + CSVConstants.GZIP_EXT), listCSVFileNames(directoryPath));
+		for (String csvFile : Arrays.asList(CONSTRAINT_CSV, SYSTEM_ENGINEERING_CSV)) {
+			File compressedFile = directoryPath.resolve(csvFile + CSVConstants.GZIP_EXT).toFile();
+			assertTrue(csvFile, countGzipMembers(compressedFile) >= 2);
+			compareCSVs(compressedFile, EXPORT_MANY_CONTAINMENT, csvFile);
+		}
+	}
+
+	/**
+	 * A compressed export replaces the plain CSV files of a previous export,
+	 * keeping their records.
+	 */
+	@Test
+	public void exportCompressedFilesOnPlainFiles() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		CSVSettings settings = createCSVSettings();
+		Path directoryPath = Paths.get(settings.getConversionDirectoryPath());
+		export(object, settings);
+		List<CSVRecord> plainRecords = readRecords(directoryPath.resolve(CONSTRAINT_CSV).toFile());
+
+		settings.setCompressedFiles(true);
+		export(object, settings);
+
+		assertEquals(Arrays.asList(CONSTRAINT_CSV + CSVConstants.GZIP_EXT,
+				SYSTEM_ENGINEERING_CSV + CSVConstants.GZIP_EXT), listCSVFileNames(directoryPath));
+		File compressedFile = directoryPath.resolve(CONSTRAINT_CSV + CSVConstants.GZIP_EXT).toFile();
+		assertEquals(1, countGzipMembers(compressedFile));
+		// The creation dates of the previous export are kept
+		List<CSVRecord> compressedRecords = readRecords(compressedFile);
+		assertEquals(plainRecords.size(), compressedRecords.size());
+		for (int i = 0; i < plainRecords.size(); i++) {
+			for (String column : Arrays.asList(CSVSettings.ID_COLUMN, CSVSettings.CREATION_DATE_COLUMN,
+					CSVSettings.CREATION_TIME_COLUMN)) {
+				assertEquals(column, plainRecords.get(i).get(column), compressedRecords.get(i).get(column));
+			}
+		}
+	}
+
+	/**
+	 * The archive holds the same files as the plain export, at its root, also
+	 * when the previous export is archived.
+	 */
+	@Test
+	public void exportArchive() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		CSVSettings settings = createCSVSettings();
+		settings.setArchiveExport(true);
+		File outputDirectory = new File(settings.getConversionDirectoryPath());
+
+		for (int i = 0; i < 2; i++) {
+			export(object, settings);
+
+			assertEquals(Arrays.asList(CSVConstants.EXPORT_ARCHIVE), Arrays.asList(outputDirectory.list()));
+			File archive = new File(outputDirectory, CSVConstants.EXPORT_ARCHIVE);
+			assertEquals(Arrays.asList(CONSTRAINT_CSV, SYSTEM_ENGINEERING_CSV), listArchiveEntries(archive));
+			Path extractDirectory = extractArchive(archive);
+			compareCSVs(extractDirectory.resolve(CONSTRAINT_CSV).toFile(), EXPORT_MANY_CONTAINMENT, CONSTRAINT_CSV);
+			compareCSVs(extractDirectory.resolve(SYSTEM_ENGINEERING_CSV).toFile(), EXPORT_MANY_CONTAINMENT,
+					SYSTEM_ENGINEERING_CSV);
+		}
+	}
+
+	/**
+	 * The delta files are archived in their own folder, and the delta files of
+	 * the previous archive are not kept.
+	 */
+	@Test
+	public void exportArchiveDelta() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		CSVSettings settings = createCSVSettings();
+		settings.setArchiveExport(true);
+		settings.setDeltaExport(true);
+		File archive = new File(settings.getConversionDirectoryPath(), CSVConstants.EXPORT_ARCHIVE);
+		String deltaPrefix = CSVConstants.DELTA_FOLDER + "/";
+
+		// First export: everything is created
+		export(object, settings);
+		assertEquals(Arrays.asList(CONSTRAINT_CSV, SYSTEM_ENGINEERING_CSV, deltaPrefix + CONSTRAINT_CSV,
+				deltaPrefix + SYSTEM_ENGINEERING_CSV), listArchiveEntries(archive));
+		assertEquals(Collections.emptyList(),
+				listCSVFileNames(Paths.get(settings.getConversionDirectoryPath(), CSVConstants.DELTA_FOLDER)));
+
+		// Second export without change: no delta file
+		export(object, settings);
+		assertEquals(Arrays.asList(CONSTRAINT_CSV, SYSTEM_ENGINEERING_CSV), listArchiveEntries(archive));
+	}
+
+	/**
+	 * An archive export replaces a stale archive and the CSV files next to it:
+	 * the files next to the archive win over its entries, and the entries which
+	 * are not exported anymore are dropped.
+	 */
+	@Test
+	public void exportArchiveOnStaleArchive() {
+		EObject object = loadRootElement(EXPORT_MANY_CONTAINMENT);
+		CSVSettings settings = createCSVSettings();
+		Path directoryPath = Paths.get(settings.getConversionDirectoryPath());
+		export(object, settings);
+		List<CSVRecord> plainRecords = readRecords(directoryPath.resolve(CONSTRAINT_CSV).toFile());
+
+		File archive = directoryPath.resolve(CSVConstants.EXPORT_ARCHIVE).toFile();
+		byte[] header = ("\"" + CSVSettings.ID_COLUMN + "\"" + LINE_SEPARATOR).getBytes(CHARACTER_SET);
+		try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(archive.toPath()))) {
+			// An outdated version of a file next to the archive
+			output.putNextEntry(new ZipEntry(CONSTRAINT_CSV));
+			output.write(header);
+			output.closeEntry();
+			// A type without element anymore, and an entry which is not a CSV file
+			output.putNextEntry(new ZipEntry(LOGICAL_ARCHITECTURE_CSV));
+			output.write(header);
+			output.closeEntry();
+			output.putNextEntry(new ZipEntry("readme.txt"));
+			output.closeEntry();
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+
+		settings.setArchiveExport(true);
+		export(object, settings);
+
+		assertEquals(Arrays.asList(CSVConstants.EXPORT_ARCHIVE), Arrays.asList(directoryPath.toFile().list()));
+		assertEquals(Arrays.asList(CONSTRAINT_CSV, SYSTEM_ENGINEERING_CSV), listArchiveEntries(archive));
+		Path extractDirectory = extractArchive(archive);
+		compareCSVs(extractDirectory.resolve(CONSTRAINT_CSV).toFile(), EXPORT_MANY_CONTAINMENT, CONSTRAINT_CSV);
+		// The creation dates of the CSV files next to the archive are kept
+		List<CSVRecord> archivedRecords = readRecords(extractDirectory.resolve(CONSTRAINT_CSV).toFile());
+		assertEquals(plainRecords.size(), archivedRecords.size());
+		for (int i = 0; i < plainRecords.size(); i++) {
+			for (String column : Arrays.asList(CSVSettings.ID_COLUMN, CSVSettings.CREATION_DATE_COLUMN,
+					CSVSettings.CREATION_TIME_COLUMN)) {
+				assertEquals(column, plainRecords.get(i).get(column), archivedRecords.get(i).get(column));
+			}
+		}
+	}
+
+	/**
+	 * List the names of the entries of an archive, in their order.
+	 * 
+	 * @param archive
+	 *            the archive.
+	 * @return the names of the entries.
+	 */
+	protected List<String> listArchiveEntries(File archive) {
+		try (ZipFile zipFile = new ZipFile(archive)) {
+			List<String> entryNames = new ArrayList<>();
+			for (ZipEntry entry : Collections.list(zipFile.entries())) {
+				assertFalse(entry.getName(), entry.isDirectory());
+				entryNames.add(entry.getName());
+			}
+			return entryNames;
+		} catch (IOException e) {
+			fail(e.getMessage());
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Extract the entries at the root of an archive into a new temporary
+	 * directory.
+	 * 
+	 * @param archive
+	 *            the archive.
+	 * @return the directory of the extracted files.
+	 */
+	protected Path extractArchive(File archive) {
+		Path extractDirectory = null;
+		try (ZipFile zipFile = new ZipFile(archive)) {
+			extractDirectory = Files.createTempDirectory(TMP_FOLDER);
+			for (ZipEntry entry : Collections.list(zipFile.entries())) {
+				if (CSVFiles.isCSVEntry(entry)) {
+					try (InputStream input = zipFile.getInputStream(entry)) {
+						Files.copy(input, extractDirectory.resolve(entry.getName()));
+					}
+				}
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return extractDirectory;
+	}
+
+	/**
+	 * Count the GZIP members of a compressed file, checking that the whole file
+	 * is made of complete members.
+	 * 
+	 * @param compressedFile
+	 *            the compressed file.
+	 * @return the number of members of the file.
+	 */
+	protected int countGzipMembers(File compressedFile) {
+		int nbMembers = 0;
+		try {
+			byte[] bytes = Files.readAllBytes(compressedFile.toPath());
+			int offset = 0;
+			byte[] buffer = new byte[4096];
+			while (offset < bytes.length) {
+				assertEquals(GZIP_MAGIC[0], bytes[offset]);
+				assertEquals(GZIP_MAGIC[1], bytes[offset + 1]);
+				// The members written by GZIPOutputStream have no optional header field
+				assertEquals(0, bytes[offset + 3]);
+				Inflater inflater = new Inflater(true);
+				try {
+					int dataOffset = offset + GZIP_HEADER_SIZE;
+					inflater.setInput(bytes, dataOffset, bytes.length - dataOffset);
+					while (!inflater.finished()) {
+						if (inflater.inflate(buffer) == 0 && inflater.needsInput()) {
+							fail("Truncated GZIP member in " + compressedFile.getName());
+						}
+					}
+					offset = bytes.length - inflater.getRemaining() + GZIP_TRAILER_SIZE;
+				} finally {
+					inflater.end();
+				}
+				nbMembers++;
+			}
+			assertEquals(bytes.length, offset);
+		} catch (IOException | DataFormatException e) {
+			fail(e.getMessage());
+		}
+		return nbMembers;
+	}
+
+	protected CSVSettings createCSVSettings() {
+		Path directoryPath = null;
+		try {
+			directoryPath = Files.createTempDirectory(TMP_FOLDER);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return new CSVSettings(directoryPath.toString(), FIELD_DELIMITER, TEXT_DELIMITER, CHARACTER_SET,
+				LINE_SEPARATOR);
+	}
+
+	protected EObject loadRootElement(String exportFolder) {
+		ResourceSet rSet = new ResourceSetImpl();
+		Path resourcePath = Paths.get(Activator.PLUGIN_ID, RESOURCES_FOLDER, EXPORT_FOLDER, exportFolder,
+				exportFolder + MELODYMODELLER);
+		URI uri = URI.createPlatformPluginURI(resourcePath.toString(), true);
+		Resource resource = rSet.createResource(uri);
+		try {
+			resource.load(Collections.emptyMap());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		EObject object = resource.getContents().get(0);
+		assertNotNull(object);
+		return object;
+	}
+
+	protected CapellaRelevantConceptsToCSVConverter exportRelevantConcepts(EObject object, CSVSettings settings) {
+		CapellaRelevantConceptsToCSVConverter converter = new CapellaRelevantConceptsToCSVConverter(object, settings,
+				true);
+		converter.computeRelevantIDs(object);
+		IStatus status = converter.generateEObjectCSV(SubMonitor.convert(new NullProgressMonitor()));
+		assertEquals(IStatus.OK, status.getSeverity());
+		return converter;
+	}
+
+	protected TransactionalEditingDomain createEditingDomain(EObject object) {
+		return TransactionalEditingDomain.Factory.INSTANCE
+				.createEditingDomain(object.eResource().getResourceSet());
+	}
+
+	protected void execute(TransactionalEditingDomain domain, Runnable change) {
+		domain.getCommandStack().execute(new RecordingCommand(domain) {
+			@Override
+			protected void doExecute() {
+				change.run();
+			}
+		});
+	}
+
+	/**
+	 * Export incrementally the changes done through the given editing domain.
+	 * 
+	 * @param object
+	 *            the root element.
+	 * @param domain
+	 *            the editing domain of the model.
+	 * @param settings
+	 *            the settings of the export.
+	 * @return the names of the regenerated files, or <code>null</code> if all
+	 *         files are regenerated.
+	 */
+	protected Set<String> exportIncremental(EObject object, TransactionalEditingDomain domain,
+			CSVSettings settings) {
+		IncrementalConverter converter = new IncrementalConverter(object, settings, domain);
+		IStatus status = converter.generateEObjectCSV(SubMonitor.convert(new NullProgressMonitor()));
+		assertEquals(IStatus.OK, status.getSeverity());
+		return converter.getLastRegeneratedFiles();
+	}
+
+	/**
+	 * Compare the files of an export with the files of a complete export of the
+	 * same model.
+	 * 
+	 * @param object
+	 *            the root element.
+	 * @param directoryPath
+	 *            the directory of the export.
+	 */
+	protected void compareWithCompleteExport(EObject object, Path directoryPath) {
+		CSVSettings completeSettings = createCSVSettings();
+		export(object, completeSettings);
+		compareExports(Paths.get(completeSettings.getConversionDirectoryPath()), directoryPath);
+	}
+
+	protected void export(EObject object, CSVSettings settings) {
+		CapellaToCSVConverter converter = new CapellaToCSVConverter(object, settings);
+		IStatus status = converter.generateEObjectCSV(SubMonitor.convert(new NullProgressMonitor()));
+		assertEquals(IStatus.OK, status.getSeverity());
+	}
+
+	/**
+	 * Compare the CSV files of two exports, without their date & time cells.
+	 * 
+	 * @param expectedDirectory
+	 *            the directory of the expected export.
+	 * @param actualDirectory
+	 *            the directory of the actual export.
+	 */
+	protected void compareExports(Path expectedDirectory, Path actualDirectory) {
+		List<String> expectedFileNames = listCSVFileNames(expectedDirectory);
+		assertEquals(expectedFileNames, listCSVFileNames(actualDirectory));
+		for (String fileName : expectedFileNames) {
+			assertEquals(fileName, removeDates(readCSV(expectedDirectory.resolve(fileName).toFile())),
+					removeDates(readCSV(actualDirectory.resolve(fileName).toFile())));
+		}
+	}
+
+	protected List<String> listCSVFileNames(Path directory) {
+		if (!Files.isDirectory(directory)) {
+			return Collections.emptyList();
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.map(f -> f.getFileName().toString()).filter(CSVFiles::isCSVFile).sorted()
+					.collect(Collectors.toList());
+		} catch (IOException e) {
+			fail(e.getMessage());
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Read the records of a CSV file, decompressing it if needed.
+	 * 
+	 * @param csvFile
+	 *            the CSV file.
+	 * @return the records of the file.
+	 */
+	protected List<CSVRecord> readRecords(File csvFile) {
+		CSVFormat csvFormat = CSVFormat.EXCEL.withDelimiter(FIELD_DELIMITER).withQuote(TEXT_DELIMITER)
+				.withFirstRecordAsHeader().withNullString("");
+		try (Reader reader = CSVFiles.newReader(csvFile, CHARACTER_SET);
+				CSVParser parser = new CSVParser(reader, csvFormat)) {
+			return parser.getRecords();
+		} catch (IOException e) {
+			fail(e.getMessage());
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Read a CSV file, decompressing it if needed.
+	 * 
+	 * @param csvFile
+	 *            the CSV file.
+	 * @return the content of the file.
+	 */
+	protected String readCSV(File csvFile) {
+		StringBuilder content = new StringBuilder();
+		try (Reader reader = CSVFiles.newReader(csvFile, CHARACTER_SET)) {
+			char[] buffer = new char[8192];
+			for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+				content.append(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return content.toString();
+	}
+
+	protected String removeDates(String csvContent) {
+		// Remove all date & time fields, because they are generated with today date &
+		// time
+		return csvContent.replaceAll(
+				"\"[0-9]{8}\"" + FIELD_DELIMITER
+						+ "\"[0-9]{2}:[0-9]{2}:[0-9]{2}\\.[0-9]{1,8}\\+[0-9]{2}:[0-9]{2}\"",
+				String.valueOf(FIELD_DELIMITER));
+	}
+
+	/**
+	 * Compare an exported CSV file with an expected one. The columns are compared
+	 * by header name, as the importer reads them, so the expected file may have
+	 * another column order, and thus another record order, since the content of
+	 * an element is exported in the order of its containment references. The
+	 * date & time columns are not compared, because they are generated with
+	 * today date & time.
+	 * 
+	 * @param actualFile
+	 *            the exported file, possibly compressed.
+	 * @param expectedFolder
+	 *            the folder of the expected file.
+	 * @param expectedFile
+	 *            the name of the expected file.
+	 */
 	protected void compareCSVs(File actualFile, String expectedFolder, String expectedFile) {
 		try {
 			Path expectedCSVPath = Paths.get(RESOURCES_FOLDER, EXPORT_FOLDER, expectedFolder, expectedFile);
 			URL expectedCSVURL = Platform.getBundle(Activator.PLUGIN_ID).getEntry(expectedCSVPath.toString());
 			java.net.URI expectedCSVURI = FileLocator.toFileURL(expectedCSVURL).toURI();
-			byte[] expectedBytes = Files.readAllBytes(Paths.get(expectedCSVURI));
-			byte[] actualBytes = Files.readAllBytes(Paths.get(actualFile.getAbsolutePath()));
-			String expectedFileAsString = new String(expectedBytes, CHARACTER_SET);
-			String actualFileAsString = new String(actualBytes, CHARACTER_SET);
-			// Remove all date & time fields, because they are generated with today date &
-			// time, so they not correspond to expected ones
-			expectedFileAsString = expectedFileAsString.replaceAll(
-					"\"[0-9]{4}[0-9]{2}[0-9]{2}\"" + FIELD_DELIMITER
-							+ "\"[0-9]{2}:[0-9]{2}:[0-9]{2}\\.[0-9]{1,8}\\+[0-9]{2}:[0-9]{2}\"",
-					String.valueOf(FIELD_DELIMITER));
-			actualFileAsString = actualFileAsString.replaceAll(
-					"\"[0-9]{8}\"" + FIELD_DELIMITER
-							+ "\"[0-9]{2}:[0-9]{2}:[0-9]{2}\\.[0-9]{1,8}\\+[0-9]{2}:[0-9]{2}\"",
-					String.valueOf(FIELD_DELIMITER));
-			assertEquals(expectedFileAsString, actualFileAsString);
+			assertEquals(expectedFile, readRows(Paths.get(expectedCSVURI).toFile()), readRows(actualFile));
 		} catch (IOException | URISyntaxException e) {
 			fail(e.getMessage());
 		}
 	}
 
+	/**
+	 * Read the rows of a CSV file, without the date & time columns.
+	 * 
+	 * @param csvFile
+	 *            the CSV file, possibly compressed.
+	 * @return the header names, then the records sorted by their text, each row
+	 *         being the values by header name.
+	 */
+	protected List<Map<String, String>> readRows(File csvFile) {
+		Set<String> dateColumns = new HashSet<>(Arrays.asList(CSVSettings.CREATION_DATE_COLUMN,
+				CSVSettings.CREATION_TIME_COLUMN, CSVSettings.LAST_UPDATE_DATE_COLUMN,
+				CSVSettings.LAST_UPDATE_TIME_COLUMN, CSVSettings.DELETION_DATE_COLUMN,
+				CSVSettings.DELETION_TIME_COLUMN));
+		CSVFormat csvFormat = CSVFormat.EXCEL.withDelimiter(FIELD_DELIMITER).withQuote(TEXT_DELIMITER)
+				.withFirstRecordAsHeader().withNullString("");
+		List<Map<String, String>> rows = new ArrayList<>();
+		try (Reader reader = CSVFiles.newReader(csvFile, CHARACTER_SET);
+				CSVParser parser = new CSVParser(reader, csvFormat)) {
+			List<String> headerNames = parser.getHeaderNames();
+			Map<String, String> header = new TreeMap<>();
+			for (String headerName : headerNames) {
+				if (!dateColumns.contains(headerName)) {
+					header.put(headerName, headerName);
+				}
+			}
+			for (CSVRecord record : parser) {
+				Map<String, String> row = new TreeMap<>();
+				for (int i = 0; i < headerNames.size(); i++) {
+					if (header.containsKey(headerNames.get(i))) {
+						row.put(headerNames.get(i), i < record.size() ? record.get(i) : null);
+					}
+				}
+				rows.add(row);
+			}
+			rows.sort(Comparator.comparing(String::valueOf));
+			rows.add(0, header);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return rows;
+	}
+
 	protected void compareCSVCell(File actualFile, String expectedFolder, String expectedFile, int columnCell) {
 		try {
 			Path expectedCSVPath = Paths.get(RESOURCES_FOLDER, EXPORT_FOLDER, expectedFolder, expectedFile);
@@ -505,4 +1465,33 @@ public class CapellaToCSVConverterTestCases extends AbstractConverterTestCases {
 			fail(e.getMessage());
 		}
 	}
+
+	/**
+	 * A converter tracking the changes of a model through an editing domain
+	 * without Sirius session.
+	 */
+	private static class IncrementalConverter extends CapellaToCSVConverter {
+
+		/**
+		 * The editing domain of the model.
+		 */
+		private final TransactionalEditingDomain domain;
+
+		IncrementalConverter(EObject rootElement, CSVSettings csvSettings, TransactionalEditingDomain domain) {
+			super(rootElement, csvSettings);
+			this.domain = domain;
+		}
+
+		@Override
+		protected ExportChangeTracker getChangeTracker() {
+			if (isIncrementalExport()) {
+				return ExportChangeTracker.install(this.domain);
+			}
+			return null;
+		}
+
+		Set<String> getLastRegeneratedFiles() {
+			return this.regeneratedFiles;
+		}
+	}
 }
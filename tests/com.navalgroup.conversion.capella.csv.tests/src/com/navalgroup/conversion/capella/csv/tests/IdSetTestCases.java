@@ -0,0 +1,70 @@
+/******************************************************************************
+ * Copyright (c) 2021 Naval Group SA.
+ * All right reserved. This program and the accompanying materials are made 
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ ******************************************************************************/
+package com.navalgroup.conversion.capella.csv.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.navalgroup.conversion.capella.csv.core.IdSet;
+
+/**
+ * The set of exported ids behaves as a set of strings.
+ */
+public class IdSetTestCases {
+
+	/**
+	 * The set of exported ids holds any id, UUID or not.
+	 */
+	@Test
+	public void idSet() {
+		IdSet ids = new IdSet();
+		Set<String> expectedIds = new HashSet<>();
+		// Enough UUIDs to grow the set
+		Random random = new Random(0);
+		for (int i = 0; i < 10000; i++) {
+			String id = new UUID(random.nextLong(), random.nextLong()).toString();
+			assertTrue(ids.add(id));
+			expectedIds.add(id);
+		}
+		String uuid = expectedIds.iterator().next();
+		assertFalse(ids.add(uuid));
+		// Nil UUID, upper case UUID and other ids
+		for (String id : Arrays.asList(new UUID(0, 0).toString(), uuid.toUpperCase(), "%NEW_ID%",
+				uuid.replace("-", ""), uuid.substring(1), uuid.replace(uuid.charAt(0), 'g'))) {
+			assertFalse(ids.contains(id));
+			assertTrue(ids.add(id));
+			assertFalse(ids.add(id));
+			expectedIds.add(id);
+		}
+
+		assertEquals(expectedIds.size(), ids.size());
+		for (String id : expectedIds) {
+			assertTrue(ids.contains(id));
+		}
+		assertFalse(ids.contains(UUID.randomUUID().toString()));
+		assertFalse(ids.contains("%OTHER_ID%"));
+		assertFalse(ids.contains(null));
+		assertEquals(expectedIds, new HashSet<>(ids));
+
+		ids.clear();
+		assertEquals(0, ids.size());
+		assertFalse(ids.contains(uuid));
+		assertFalse(ids.iterator().hasNext());
+	}
+}
@@ -13,8 +13,10 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.navalgroup.conversion.capella.csv.tests.BeforeExportIndexTestCases;
 import com.navalgroup.conversion.capella.csv.tests.CSVToCapellaConverterTestCases;
 import com.navalgroup.conversion.capella.csv.tests.CapellaToCSVConverterTestCases;
+import com.navalgroup.conversion.capella.csv.tests.IdSetTestCases;
 
 /**
  * Test suite used to run all the unit tests of capella/csv import/export.
@@ -22,7 +24,8 @@ import com.navalgroup.conversion.capella.csv.tests.CapellaToCSVConverterTestCase
  * @author arichard
  */
 @RunWith(Suite.class)
-@SuiteClasses({ CapellaToCSVConverterTestCases.class, CSVToCapellaConverterTestCases.class })
+@SuiteClasses({ CapellaToCSVConverterTestCases.class, CSVToCapellaConverterTestCases.class,
+		BeforeExportIndexTestCases.class, IdSetTestCases.class })
 public final class AllTest {
 	private AllTest() {
 		// Prevent instantiation